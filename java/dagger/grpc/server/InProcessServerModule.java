@@ -23,11 +23,15 @@ import dagger.Provides;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
 import io.grpc.inprocess.InProcessServerBuilder;
+import java.util.Optional;
 import javax.inject.Singleton;
 
 /**
  * Installing this module into a {@link Singleton @Singleton} component means the component can
  * provide a {@link Server} that serves {@linkplain InProcessServerBuilder in-process} requests.
+ *
+ * <p>If the component binds {@link ServerTuning}, the options that are not specific to Netty are
+ * applied to the server.
  */
 @Module(includes = ServerModule.class)
 public final class InProcessServerModule {
@@ -48,7 +52,11 @@ public final class InProcessServerModule {
   }
 
   @Provides
-  ServerBuilder<?> serverBuilder() {
-    return InProcessServerBuilder.forName(name);
+  ServerBuilder<?> serverBuilder(Optional<ServerTuning> serverTuning) {
+    InProcessServerBuilder serverBuilder = InProcessServerBuilder.forName(name);
+    if (serverTuning.isPresent()) {
+      serverTuning.get().applyTo(serverBuilder);
+    }
+    return serverBuilder;
   }
 }
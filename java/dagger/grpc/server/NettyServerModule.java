@@ -23,11 +23,14 @@ import io.grpc.ServerBuilder;
 import io.grpc.netty.NettyServerBuilder;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.Optional;
 import javax.inject.Singleton;
 
 /**
  * Installing this module into a {@link Singleton @Singleton} component means the component can
  * provide a {@linkplain NettyServerBuilder Netty}-based {@link Server}.
+ *
+ * <p>If the component binds {@link ServerTuning}, the options are applied to the server.
  */
 @Module(includes = ServerModule.class)
 public final class NettyServerModule {
@@ -53,7 +56,11 @@ public final class NettyServerModule {
   }
 
   @Provides
-  ServerBuilder<?> serverBuilder() {
-    return NettyServerBuilder.forAddress(socketAddress);
+  ServerBuilder<?> serverBuilder(Optional<ServerTuning> serverTuning) {
+    NettyServerBuilder serverBuilder = NettyServerBuilder.forAddress(socketAddress);
+    if (serverTuning.isPresent()) {
+      serverTuning.get().applyTo(serverBuilder);
+    }
+    return serverBuilder;
   }
 }
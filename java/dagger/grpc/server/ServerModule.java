@@ -16,6 +16,7 @@
 
 package dagger.grpc.server;
 
+import dagger.BindsOptionalOf;
 import dagger.Module;
 import dagger.Provides;
 import io.grpc.Server;
@@ -27,9 +28,16 @@ import javax.inject.Singleton;
 /**
  * Provides a {@link Singleton @Singleton} {@link Server}.
  */
-@Module
+@Module(includes = ServerModule.OptionalServerTuningModule.class)
 public final class ServerModule {
 
+  /** Allows the component to optionally bind {@link ServerTuning}. */
+  @Module
+  public interface OptionalServerTuningModule {
+    @BindsOptionalOf
+    ServerTuning serverTuning();
+  }
+
   @Provides
   @Singleton
   static Server provideServer(
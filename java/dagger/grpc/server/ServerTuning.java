@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.grpc.server;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.auto.value.AutoValue;
+import io.grpc.ServerBuilder;
+import io.grpc.netty.NettyServerBuilder;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.Executor;
+
+/**
+ * Tuning options for the {@link io.grpc.Server} provided by {@link NettyServerModule} or {@link
+ * InProcessServerModule}.
+ *
+ * <p>To tune the server, bind an instance in the {@link javax.inject.Singleton @Singleton}
+ * component that installs the server module:
+ *
+ * <pre><code>
+ * {@literal @Provides}
+ * static ServerTuning serverTuning() {
+ *   return ServerTuning.builder()
+ *       .executor(MoreExecutors.directExecutor())
+ *       .maxConcurrentCallsPerConnection(100)
+ *       .build();
+ * }
+ * </code></pre>
+ *
+ * <p>Options that are not set keep gRPC's defaults. Options that only apply to Netty are ignored by
+ * {@link InProcessServerModule}.
+ */
+@AutoValue
+public abstract class ServerTuning {
+
+  /** Returns a builder with no options set. */
+  public static Builder builder() {
+    return new AutoValue_ServerTuning.Builder();
+  }
+
+  /**
+   * The executor that runs application code, such as the call-scoped components and the service
+   * implementations.
+   *
+   * @see ServerBuilder#executor(Executor)
+   */
+  public abstract Optional<Executor> executor();
+
+  /**
+   * The event loop group that accepts connections. Must be set together with {@link
+   * #workerEventLoopGroup()} and {@link #channelType()}. Netty only.
+   *
+   * @see NettyServerBuilder#bossEventLoopGroup(EventLoopGroup)
+   */
+  public abstract Optional<EventLoopGroup> bossEventLoopGroup();
+
+  /**
+   * The event loop group that serves connections. Must be set together with {@link
+   * #bossEventLoopGroup()} and {@link #channelType()}. Netty only.
+   *
+   * @see NettyServerBuilder#workerEventLoopGroup(EventLoopGroup)
+   */
+  public abstract Optional<EventLoopGroup> workerEventLoopGroup();
+
+  /**
+   * The type of the server channel, e.g. {@code EpollServerSocketChannel}. Must be set together
+   * with {@link #bossEventLoopGroup()} and {@link #workerEventLoopGroup()}. Netty only.
+   *
+   * @see NettyServerBuilder#channelType(Class)
+   */
+  public abstract Optional<Class<? extends ServerChannel>> channelType();
+
+  /**
+   * The initial HTTP/2 flow control window, in bytes. Must be positive. Netty only.
+   *
+   * @see NettyServerBuilder#flowControlWindow(int)
+   */
+  public abstract OptionalInt flowControlWindow();
+
+  /**
+   * The maximum number of concurrent calls permitted for each connection. Must be positive. Netty
+   * only.
+   *
+   * @see NettyServerBuilder#maxConcurrentCallsPerConnection(int)
+   */
+  public abstract OptionalInt maxConcurrentCallsPerConnection();
+
+  /** Applies the options that are common to all servers. */
+  void applyTo(ServerBuilder<?> serverBuilder) {
+    if (executor().isPresent()) {
+      serverBuilder.executor(executor().get());
+    }
+  }
+
+  /** Applies all options to a Netty server. */
+  void applyTo(NettyServerBuilder serverBuilder) {
+    applyTo((ServerBuilder<?>) serverBuilder);
+    if (bossEventLoopGroup().isPresent()) {
+      serverBuilder.bossEventLoopGroup(bossEventLoopGroup().get());
+    }
+    if (workerEventLoopGroup().isPresent()) {
+      serverBuilder.workerEventLoopGroup(workerEventLoopGroup().get());
+    }
+    if (channelType().isPresent()) {
+      serverBuilder.channelType(channelType().get());
+    }
+    if (flowControlWindow().isPresent()) {
+      serverBuilder.flowControlWindow(flowControlWindow().getAsInt());
+    }
+    if (maxConcurrentCallsPerConnection().isPresent()) {
+      serverBuilder.maxConcurrentCallsPerConnection(maxConcurrentCallsPerConnection().getAsInt());
+    }
+  }
+
+  /** A builder for {@link ServerTuning}. */
+  @AutoValue.Builder
+  public abstract static class Builder {
+    /** @see ServerTuning#executor() */
+    public abstract Builder executor(Executor executor);
+
+    /** @see ServerTuning#bossEventLoopGroup() */
+    public abstract Builder bossEventLoopGroup(EventLoopGroup bossEventLoopGroup);
+
+    /** @see ServerTuning#workerEventLoopGroup() */
+    public abstract Builder workerEventLoopGroup(EventLoopGroup workerEventLoopGroup);
+
+    /** @see ServerTuning#channelType() */
+    public abstract Builder channelType(Class<? extends ServerChannel> channelType);
+
+    /** @see ServerTuning#flowControlWindow() */
+    public abstract Builder flowControlWindow(int flowControlWindow);
+
+    /** @see ServerTuning#maxConcurrentCallsPerConnection() */
+    public abstract Builder maxConcurrentCallsPerConnection(int maxConcurrentCallsPerConnection);
+
+    abstract ServerTuning autoBuild();
+
+    /**
+     * Returns the tuning options.
+     *
+     * @throws IllegalStateException if only some of the event loop groups and the channel type are
+     *     set, or if a window or limit is not positive
+     */
+    public final ServerTuning build() {
+      ServerTuning serverTuning = autoBuild();
+      boolean hasBoss = serverTuning.bossEventLoopGroup().isPresent();
+      boolean hasWorker = serverTuning.workerEventLoopGroup().isPresent();
+      boolean hasChannelType = serverTuning.channelType().isPresent();
+      checkState(
+          hasBoss == hasWorker && hasWorker == hasChannelType,
+          "bossEventLoopGroup, workerEventLoopGroup and channelType must be set together: %s",
+          serverTuning);
+      checkState(
+          !serverTuning.flowControlWindow().isPresent()
+              || serverTuning.flowControlWindow().getAsInt() > 0,
+          "flowControlWindow must be positive: %s",
+          serverTuning.flowControlWindow());
+      checkState(
+          !serverTuning.maxConcurrentCallsPerConnection().isPresent()
+              || serverTuning.maxConcurrentCallsPerConnection().getAsInt() > 0,
+          "maxConcurrentCallsPerConnection must be positive: %s",
+          serverTuning.maxConcurrentCallsPerConnection());
+      return serverTuning;
+    }
+  }
+}
@@ -18,42 +18,38 @@ package dagger.hilt.android.plugin
 
 import dagger.hilt.android.plugin.util.isClassFile
 import dagger.hilt.android.plugin.util.isJarFile
+import java.io.ByteArrayInputStream
 import java.io.File
-import java.io.FileInputStream
-import java.util.zip.ZipInputStream
-import javassist.ClassPool
-import javassist.CtClass
-import javassist.Modifier
-import javassist.bytecode.Bytecode
-import javassist.bytecode.CodeIterator
-import javassist.bytecode.Opcode
+import java.io.InputStream
+import java.util.stream.Collectors
+import java.util.zip.ZipFile
+import org.objectweb.asm.AnnotationVisitor
+import org.objectweb.asm.ClassReader
+import org.objectweb.asm.ClassVisitor
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
 import org.slf4j.LoggerFactory
 
-typealias CodeArray = javassist.bytecode.ByteArray // Avoids conflict with Kotlin's stdlib ByteArray
-
 /**
  * A helper class for performing the transform.
  *
  * Create it with the list of all available source directories along with the root output directory
  * and use [AndroidEntryPointClassTransformer.transformFile] or
  * [AndroidEntryPointClassTransformer.transformJarContents] to perform the actual transformation.
+ *
+ * Each class is first scanned for its class-level annotations only, and only classes annotated
+ * with an Android entry point annotation are fully read and rewritten with
+ * [AndroidEntryPointClassVisitor]. The transformer is thread-safe, and the classes of a jar are
+ * transformed in parallel.
  */
 internal class AndroidEntryPointClassTransformer(
   val taskName: String,
-  allInputs: List<File>,
+  private val allInputs: List<File>,
   private val sourceRootOutputDir: File,
   private val copyNonTransformed: Boolean
 ) {
   private val logger = LoggerFactory.getLogger(AndroidEntryPointClassTransformer::class.java)
 
-  // A ClassPool created from the given input files, this allows us to use the higher
-  // level Javaassit APIs, but requires class parsing/loading.
-  private val classPool: ClassPool = ClassPool(true).also { pool ->
-    allInputs.forEach {
-      pool.appendClassPath(it.path)
-    }
-  }
-
   init {
     sourceRootOutputDir.mkdirs()
   }
@@ -75,19 +71,16 @@ internal class AndroidEntryPointClassTransformer(
     check(!copyNonTransformed) {
       "Transforming a jar is not supported with 'copyNonTransformed'."
     }
-    var transformed = false
-    ZipInputStream(FileInputStream(inputFile)).use { input ->
-      var entry = input.nextEntry
-      while (entry != null) {
-        if (entry.isClassFile()) {
-          val clazz = classPool.makeClass(input, false)
-          transformed = transformClassToOutput(clazz) || transformed
-          clazz.detach()
+    return ZipFile(inputFile).use { zipFile ->
+      zipFile.entries().toList()
+        .filter { it.isClassFile() }
+        .parallelStream()
+        .map { entry ->
+          transformClassToOutput(zipFile.getInputStream(entry).use { it.readBytes() })
         }
-        entry = input.nextEntry
-      }
+        .collect(Collectors.toList())
+        .any { it }
     }
-    return transformed
   }
 
   /**
@@ -100,160 +93,80 @@ internal class AndroidEntryPointClassTransformer(
     check(inputFile.isClassFile()) {
       "Invalid file, '$inputFile' is not a class."
     }
-    val clazz = inputFile.inputStream().use { classPool.makeClass(it, false) }
-    val transformed = transformClassToOutput(clazz)
-    clazz.detach()
-    return transformed
+    return transformClassToOutput(inputFile.readBytes())
   }
 
-  private fun transformClassToOutput(clazz: CtClass): Boolean {
-    val transformed = transformClass(clazz)
+  private fun transformClassToOutput(classBytes: ByteArray): Boolean {
+    val classReader = ClassReader(classBytes)
+    val transformed = isAndroidEntryPoint(classReader)
     if (transformed || copyNonTransformed) {
-      clazz.writeFile(sourceRootOutputDir.path)
+      val outputFile = File(sourceRootOutputDir, "${classReader.className}.class")
+      outputFile.parentFile.mkdirs()
+      outputFile.writeBytes(if (transformed) transformClass(classReader) else classBytes)
     }
     return transformed
   }
 
-  private fun transformClass(clazz: CtClass): Boolean {
-    if (ANDROID_ENTRY_POINT_ANNOTATIONS.none { clazz.hasAnnotation(it) }) {
-      // Not a Android entry point annotated class, don't do anything.
-      return false
-    }
+  // Checks the class-level annotations, without reading the rest of the class.
+  private fun isAndroidEntryPoint(classReader: ClassReader): Boolean {
+    var isAndroidEntryPoint = false
+    classReader.accept(
+      object : ClassVisitor(ASM_API_VERSION) {
+        override fun visitAnnotation(descriptor: String, visible: Boolean): AnnotationVisitor? {
+          if (ANDROID_ENTRY_POINT_ANNOTATION_DESCRIPTORS.contains(descriptor)) {
+            isAndroidEntryPoint = true
+          }
+          return null
+        }
+      },
+      ClassReader.SKIP_CODE or ClassReader.SKIP_DEBUG or ClassReader.SKIP_FRAMES
+    )
+    return isAndroidEntryPoint
+  }
 
-    // TODO(danysantiago): Handle classes with '$' in their name if they do become an issue.
-    val superclassName = clazz.classFile.superclass
-    val entryPointSuperclassName =
-      clazz.packageName + ".Hilt_" + clazz.simpleName.replace("$", "_")
+  private fun transformClass(classReader: ClassReader): ByteArray {
+    // COMPUTE_MAXS is needed for the super.onReceive() call inserted in BroadcastReceivers. The
+    // call is inserted at the start of the method, so existing stack map frames remain valid.
+    val classWriter = ClassWriter(classReader, ClassWriter.COMPUTE_MAXS)
+    val classVisitor = AndroidEntryPointClassVisitor(
+      apiVersion = ASM_API_VERSION,
+      nextClassVisitor = classWriter,
+      openAdditionalClassFile = ::openClassFile
+    )
+    classReader.accept(classVisitor, 0)
     logger.info(
-      "[$taskName] Transforming ${clazz.name} to extend $entryPointSuperclassName instead of " +
-        "$superclassName."
+      "[$taskName] Transformed ${classReader.className} to extend " +
+        "${classVisitor.newSuperclassName} instead of ${classVisitor.oldSuperclassName}."
     )
-    val entryPointSuperclass = classPool.get(entryPointSuperclassName)
-    clazz.superclass = entryPointSuperclass
-    transformSuperMethodCalls(clazz, superclassName, entryPointSuperclassName)
-
-    // Check if Hilt generated class is a BroadcastReceiver with the marker field which means
-    // a super.onReceive invocation has to be inserted in the implementation.
-    if (entryPointSuperclass.declaredFields.any { it.name == "onReceiveBytecodeInjectionMarker" }) {
-      transformOnReceive(clazz, entryPointSuperclassName)
-    }
-
-    return true
+    return classWriter.toByteArray()
   }
 
-  /**
-   * Iterates over each declared method, finding in its bodies super calls. (e.g. super.onCreate())
-   * and rewrites the method reference of the invokespecial instruction to one that uses the new
-   * superclass.
-   *
-   * The invokespecial instruction is emitted for code that between other things also invokes a
-   * method of a superclass of the current class. The opcode invokespecial takes two operands, each
-   * of 8 bit, that together represent an address in the constant pool to a method reference. The
-   * method reference is computed at compile-time by looking the direct superclass declaration, but
-   * at runtime the code behaves like invokevirtual, where as the actual method invoked is looked up
-   * based on the class hierarchy.
-   *
-   * However, it has been observed that on APIs 19 to 22 the Android Runtime (ART) jumps over the
-   * direct superclass and into the method reference class, causing unexpected behaviours.
-   * Therefore, this method performs the additional transformation to rewrite direct super call
-   * invocations to use a method reference whose class in the pool is the new superclass. Note that
-   * this is not necessary for constructor calls since the Javassist library takes care of those.
-   *
-   * @see: https://docs.oracle.com/javase/specs/jvms/se11/html/jvms-6.html#jvms-6.5.invokespecial
-   * @see: https://source.android.com/devices/tech/dalvik/dalvik-bytecode
-   */
-  private fun transformSuperMethodCalls(
-    clazz: CtClass,
-    oldSuperclassName: String,
-    newSuperclassName: String
-  ) {
-    val constantPool = clazz.classFile.constPool
-    clazz.declaredMethods
-      .filter {
-        it.methodInfo.isMethod &&
-          !Modifier.isStatic(it.modifiers) &&
-          !Modifier.isAbstract(it.modifiers) &&
-          !Modifier.isNative(it.modifiers)
+  // Opens the class file of the given class name in its internal form from the inputs. Directories
+  // are searched first since the Hilt generated classes are usually compiled with the project.
+  private fun openClassFile(className: String): InputStream {
+    val classFileName = "$className.class"
+    allInputs.filter { it.isDirectory }.forEach { inputDir ->
+      val classFile = File(inputDir, classFileName)
+      if (classFile.isFile) {
+        return classFile.inputStream()
       }
-      .forEach { method ->
-        val codeAttr = method.methodInfo.codeAttribute
-        val code = codeAttr.code
-        codeAttr.iterator().forEachInstruction { index, opcode ->
-          // We are only interested in 'invokespecial' instructions.
-          if (opcode != Opcode.INVOKESPECIAL) {
-            return@forEachInstruction
-          }
-          // If the method reference of the instruction is not using the old superclass then we
-          // should not rewrite it.
-          val methodRef = CodeArray.readU16bit(code, index + 1)
-          val currentClassRef = constantPool.getMethodrefClassName(methodRef)
-          if (currentClassRef != oldSuperclassName) {
-            return@forEachInstruction
-          }
-          // If the method reference of the instruction is a constructor, then we should not
-          // rewrite it since its an instantiation and not a `super()` call.
-          val methodRefName = constantPool.getMethodrefName(methodRef)
-          if (methodRefName == "<init>") {
-            return@forEachInstruction
-          }
-          val nameAndTypeRef = constantPool.getMethodrefNameAndType(methodRef)
-          val newSuperclassRef = constantPool.addClassInfo(newSuperclassName)
-          val newMethodRef = constantPool.addMethodrefInfo(newSuperclassRef, nameAndTypeRef)
-          logger.info(
-            "[$taskName] Redirecting an invokespecial in " +
-              "${clazz.name}.${method.name}:${method.signature} at code index $index from " +
-              "method ref #$methodRef to #$newMethodRef."
-          )
-          CodeArray.write16bit(newMethodRef, code, index + 1)
+    }
+    allInputs.filter { it.isJarFile() }.forEach { inputJar ->
+      ZipFile(inputJar).use { zipFile ->
+        val entry = zipFile.getEntry(classFileName)
+        if (entry != null) {
+          return ByteArrayInputStream(zipFile.getInputStream(entry).use { it.readBytes() })
         }
       }
-  }
-
-  // Iterate over each instruction in a CodeIterator.
-  private fun CodeIterator.forEachInstruction(body: CodeIterator.(Int, Int) -> Unit) {
-    while (hasNext()) {
-      val index = next()
-      this.body(index, byteAt(index))
-    }
-  }
-
-  /**
-   * For a BroadcastReceiver insert a super call in the onReceive method implementation since
-   * after the class is transformed onReceive will no longer be abstract (it is implemented by
-   * Hilt generated receiver).
-   */
-  private fun transformOnReceive(clazz: CtClass, entryPointSuperclassName: String) {
-    val method = clazz.declaredMethods.first {
-      it.name + it.signature == ON_RECEIVE_METHOD_NAME + ON_RECEIVE_METHOD_SIGNATURE
     }
-    val constantPool = clazz.classFile.constPool
-    val newCode = Bytecode(constantPool).apply {
-      addAload(0) // Loads 'this'
-      addAload(1) // Loads method param 1 (Context)
-      addAload(2) // Loads method param 2 (Intent)
-      addInvokespecial(
-        entryPointSuperclassName, ON_RECEIVE_METHOD_NAME, ON_RECEIVE_METHOD_SIGNATURE
-      )
-    }
-    val newCodeAttribute = newCode.toCodeAttribute()
-    val currentCodeAttribute = method.methodInfo.codeAttribute
-    currentCodeAttribute.maxStack =
-      maxOf(newCodeAttribute.maxStack, currentCodeAttribute.maxStack)
-    currentCodeAttribute.maxLocals =
-      maxOf(newCodeAttribute.maxLocals, currentCodeAttribute.maxLocals)
-    val codeIterator = currentCodeAttribute.iterator()
-    val pos = codeIterator.insertEx(newCode.get()) // insert new code
-    codeIterator.insert(newCodeAttribute.exceptionTable, pos) // offset exception table
-    method.methodInfo.rebuildStackMap(clazz.classPool) // update stack table
+    error("[$taskName] Unable to find class '$className' in the inputs.")
   }
 
   companion object {
-    val ANDROID_ENTRY_POINT_ANNOTATIONS = setOf(
-      "dagger.hilt.android.AndroidEntryPoint",
-      "dagger.hilt.android.HiltAndroidApp"
-    )
-    val ON_RECEIVE_METHOD_NAME = "onReceive"
-    val ON_RECEIVE_METHOD_SIGNATURE =
-      "(Landroid/content/Context;Landroid/content/Intent;)V"
+    const val ASM_API_VERSION = Opcodes.ASM9
+    val ANDROID_ENTRY_POINT_ANNOTATION_DESCRIPTORS =
+      AndroidEntryPointClassVisitor.ANDROID_ENTRY_POINT_ANNOTATIONS
+        .map { "L${it.replace('.', '/')};" }
+        .toSet()
   }
 }
@@ -21,6 +21,7 @@ import com.android.build.api.instrumentation.ClassContext
 import com.android.build.api.instrumentation.ClassData
 import com.android.build.api.instrumentation.InstrumentationParameters
 import java.io.File
+import java.io.InputStream
 import org.gradle.api.provider.Property
 import org.gradle.api.tasks.Internal
 import org.objectweb.asm.ClassReader
@@ -33,12 +34,19 @@ import org.objectweb.asm.Opcodes
  * ASM Adapter that transforms @AndroidEntryPoint-annotated classes to extend the Hilt
  * generated android class, including the @HiltAndroidApp application class.
  */
-class AndroidEntryPointClassVisitor(
+class AndroidEntryPointClassVisitor internal constructor(
   private val apiVersion: Int,
   nextClassVisitor: ClassVisitor,
-  private val additionalClasses: File
+  // Opens the class file of the given class name in its internal form.
+  private val openAdditionalClassFile: (String) -> InputStream
 ) : ClassVisitor(apiVersion, nextClassVisitor) {
 
+  constructor(
+    apiVersion: Int,
+    nextClassVisitor: ClassVisitor,
+    additionalClasses: File
+  ) : this(apiVersion, nextClassVisitor, { File(additionalClasses, "$it.class").inputStream() })
+
   @Suppress("UnstableApiUsage") // ASM Pipeline APIs
   interface AndroidEntryPointParams : InstrumentationParameters {
     @get:Internal
@@ -204,7 +212,7 @@ class AndroidEntryPointClassVisitor(
    * a super.onReceive invocation has to be inserted in the implementation.
    */
   private fun hasOnReceiveBytecodeInjectionMarker() =
-    findAdditionalClassFile(newSuperclassName).inputStream().use {
+    openAdditionalClassFile(newSuperclassName).use {
       var hasMarker = false
       ClassReader(it).accept(
         object : ClassVisitor(apiVersion) {
@@ -226,9 +234,6 @@ class AndroidEntryPointClassVisitor(
       return@use hasMarker
     }
 
-  private fun findAdditionalClassFile(className: String) =
-    File(additionalClasses, "$className.class")
-
   companion object {
     val ANDROID_ENTRY_POINT_ANNOTATIONS = setOf(
       "dagger.hilt.android.AndroidEntryPoint",
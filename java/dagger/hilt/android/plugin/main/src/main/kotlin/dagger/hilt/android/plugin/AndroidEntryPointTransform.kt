@@ -36,7 +36,7 @@ import java.io.File
  * A transform receives input as a collection [TransformInput], which is composed of [JarInput]s and
  * [DirectoryInput]s. The resulting files must be placed in the
  * [TransformInvocation.getOutputProvider]. The bytecode transformation can be done with any library
- * (in our case Javaassit). The [QualifiedContent.Scope] defined in a transform defines the input
+ * (in our case ASM). The [QualifiedContent.Scope] defined in a transform defines the input
  * the transform will receive and if it can be applied to only the Android application projects or
  * Android libraries too.
  *
@@ -121,7 +121,7 @@ class AndroidEntryPointTransform : Transform() {
             }
           }
         } else {
-          directoryInput.file.walkTopDown().forEach { file ->
+          directoryInput.file.walkTopDown().toList().parallelStream().forEach { file ->
             val outputFile = toOutputFile(outputDir, directoryInput.file, file)
             transformFile(file, outputFile.parentFile, classTransformer)
           }
@@ -19,6 +19,7 @@ package dagger.hilt.android.plugin.task
 import dagger.hilt.android.plugin.AndroidEntryPointClassTransformer
 import dagger.hilt.android.plugin.HiltExtension
 import dagger.hilt.android.plugin.util.capitalize
+import dagger.hilt.android.plugin.util.contentHash
 import dagger.hilt.android.plugin.util.getCompileKotlin
 import dagger.hilt.android.plugin.util.isClassFile
 import dagger.hilt.android.plugin.util.isJarFile
@@ -30,6 +31,7 @@ import org.gradle.api.Project
 import org.gradle.api.file.ConfigurableFileCollection
 import org.gradle.api.file.DirectoryProperty
 import org.gradle.api.file.FileCollection
+import org.gradle.api.file.RegularFileProperty
 import org.gradle.api.provider.Property
 import org.gradle.api.tasks.Classpath
 import org.gradle.api.tasks.OutputDirectory
@@ -58,6 +60,7 @@ abstract class HiltTransformTestClassesTask @Inject constructor(
     val name: Property<String>
     val compiledClasses: ConfigurableFileCollection
     val outputDir: DirectoryProperty
+    val jarCacheFile: RegularFileProperty
   }
 
   abstract class WorkerAction : WorkAction<Parameters> {
@@ -66,6 +69,13 @@ abstract class HiltTransformTestClassesTask @Inject constructor(
       outputDir.deleteRecursively()
       outputDir.mkdirs()
 
+      // The hashes of jars known to not contain any Android entry points. These are skipped
+      // entirely, which avoids reading every class of the unchanged dependency jars on each run.
+      val jarCacheFile = parameters.jarCacheFile.asFile.get()
+      val cachedJarHashes =
+        if (jarCacheFile.isFile) jarCacheFile.readLines().toSet() else emptySet()
+      val jarHashes = mutableSetOf<String>()
+
       val allInputs = parameters.compiledClasses.files.toList()
       val classTransformer = AndroidEntryPointClassTransformer(
         taskName = parameters.name.get(),
@@ -76,15 +86,18 @@ abstract class HiltTransformTestClassesTask @Inject constructor(
       // Parse the classpath in reverse so that we respect overwrites, if it ever happens.
       allInputs.reversed().forEach {
         if (it.isDirectory) {
-          it.walkTopDown().forEach { file ->
-            if (file.isClassFile()) {
-              classTransformer.transformFile(file)
-            }
-          }
+          it.walkTopDown().filter { file -> file.isClassFile() }.toList().parallelStream()
+            .forEach { file -> classTransformer.transformFile(file) }
         } else if (it.isJarFile()) {
-          classTransformer.transformJarContents(it)
+          val jarHash = it.contentHash()
+          if (cachedJarHashes.contains(jarHash) || !classTransformer.transformJarContents(it)) {
+            jarHashes.add(jarHash)
+          }
         }
       }
+
+      jarCacheFile.parentFile.mkdirs()
+      jarCacheFile.writeText(jarHashes.joinToString(separator = "\n"))
     }
   }
 
@@ -93,6 +106,7 @@ abstract class HiltTransformTestClassesTask @Inject constructor(
     workerExecutor.noIsolation().submit(WorkerAction::class.java) {
       it.compiledClasses.from(compiledClasses)
       it.outputDir.set(outputDir)
+      it.jarCacheFile.set(File(temporaryDir, "jars-without-entry-points.txt"))
       it.name.set(name)
     }
   }
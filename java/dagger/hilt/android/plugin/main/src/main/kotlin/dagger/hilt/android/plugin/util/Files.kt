@@ -18,6 +18,7 @@ package dagger.hilt.android.plugin.util
 
 import java.io.File
 import java.io.InputStream
+import java.security.MessageDigest
 import java.util.Properties
 import java.util.zip.ZipEntry
 import java.util.zip.ZipInputStream
@@ -32,6 +33,20 @@ fun ZipEntry.isClassFile() = !this.isDirectory && this.name.endsWith(".class")
 /* Checks if a file is a .jar file. */
 fun File.isJarFile() = this.isFile && this.extension == "jar"
 
+/* Computes the SHA-256 hash of the contents of a file as a hex string. */
+fun File.contentHash(): String {
+  val digest = MessageDigest.getInstance("SHA-256")
+  inputStream().use { input ->
+    val buffer = ByteArray(DEFAULT_BUFFER_SIZE)
+    var read = input.read(buffer)
+    while (read != -1) {
+      digest.update(buffer, 0, read)
+      read = input.read(buffer)
+    }
+  }
+  return digest.digest().joinToString("") { "%02x".format(it) }
+}
+
 /* Executes the given [block] function over each [ZipEntry] in this [ZipInputStream]. */
 fun ZipInputStream.forEachZipEntry(block: (InputStream, ZipEntry) -> Unit) = use {
   var inputEntry = nextEntry
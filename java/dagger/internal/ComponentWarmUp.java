@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.Preconditions.checkNotNull;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Instantiates the scoped bindings of a generated component ahead of their first request.
+ *
+ * <p>The generated component assigns each binding (or each group of bindings that form a
+ * dependency cycle) a warm-up id such that ids are grouped into levels, and bindings in one level
+ * only depend on bindings in earlier levels. All ids within a level are instantiated concurrently
+ * on the given {@link Executor}, and a level is only started once every id of the previous level
+ * has been instantiated.
+ */
+public final class ComponentWarmUp {
+  /** Instantiates the binding(s) for a warm-up id of a generated component. */
+  public interface Instantiator {
+    /** Instantiates the binding(s) for the given id and returns the result. */
+    Object instantiate(int id);
+  }
+
+  /**
+   * Instantiates every id in {@code [0, levelOffsets[levelOffsets.length - 1])}, level by level.
+   *
+   * @param levelOffsets the first id of each level, followed by the total number of ids
+   * @throws InterruptedException if the calling thread is interrupted while waiting for a level
+   */
+  public static void warmUp(
+      Executor executor, int[] levelOffsets, final Instantiator instantiator)
+      throws InterruptedException {
+    checkNotNull(executor);
+    checkNotNull(instantiator);
+    for (int level = 0; level < levelOffsets.length - 1; level++) {
+      int start = levelOffsets[level];
+      int end = levelOffsets[level + 1];
+      if (end - start == 1) {
+        // There's nothing to run concurrently, so avoid the executor hop.
+        instantiator.instantiate(start);
+        continue;
+      }
+      final CountDownLatch remaining = new CountDownLatch(end - start);
+      final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+      for (int id = start; id < end; id++) {
+        final int currentId = id;
+        executor.execute(
+            new Runnable() {
+              @Override
+              public void run() {
+                try {
+                  instantiator.instantiate(currentId);
+                } catch (Throwable t) {
+                  failure.compareAndSet(null, t);
+                } finally {
+                  remaining.countDown();
+                }
+              }
+            });
+      }
+      remaining.await();
+      if (failure.get() != null) {
+        throw propagate(failure.get());
+      }
+    }
+  }
+
+  private static RuntimeException propagate(Throwable t) {
+    if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    } else if (t instanceof Error) {
+      throw (Error) t;
+    }
+    throw new RuntimeException(t);
+  }
+
+  private ComponentWarmUp() {}
+}
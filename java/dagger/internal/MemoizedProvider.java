@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.Preconditions.checkNotNull;
+
+import dagger.Lazy;
+import javax.inject.Provider;
+
+/**
+ * A {@link Lazy} and {@link Provider} implementation for a delegate that already returns the same
+ * instance for every call to {@link Provider#get()}, e.g. a provider for a scoped binding whose
+ * instance is memoized by the component itself.
+ *
+ * <p>Since this is a {@link Lazy}, {@link DoubleCheck#lazy} and {@link ProviderOfLazy} share this
+ * object rather than allocating a new {@link DoubleCheck} for every {@code Lazy<T>} request.
+ */
+public final class MemoizedProvider<T> implements Provider<T>, Lazy<T> {
+  private final Provider<T> delegate;
+
+  private MemoizedProvider(Provider<T> delegate) {
+    assert delegate != null;
+    this.delegate = delegate;
+  }
+
+  @Override
+  public T get() {
+    return delegate.get();
+  }
+
+  /**
+   * Returns a {@link Provider} that is also a {@link Lazy} for the given delegate, which must
+   * already return the same instance for every call.
+   */
+  // This method is declared this way instead of "<T> Provider<T> provider(Provider<T> delegate)"
+  // to work around an Eclipse type inference bug: https://github.com/google/dagger/issues/949.
+  public static <P extends Provider<T>, T> Provider<T> provider(P delegate) {
+    checkNotNull(delegate);
+    if (delegate instanceof Lazy) {
+      // The delegate is already shared as a Lazy, e.g. a DoubleCheck or an InstanceFactory.
+      return delegate;
+    }
+    return new MemoizedProvider<T>(delegate);
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A table that holds the memoized instances of the scoped bindings of a generated component,
+ * indexed by slot.
+ *
+ * <p>This replaces a {@link DoubleCheck} (and the {@code Provider} field that holds it) per scoped
+ * binding. The generated component inlines the double-check idiom, synchronizing on the lock of
+ * the slot while creating an instance:
+ *
+ * <pre><code>
+ *   if (scopedInstances.get(3) == null) {
+ *     synchronized (scopedInstances.lock(3)) {
+ *       if (scopedInstances.get(3) == null) {
+ *         scopedInstances.memoize(3, new Foo(bar()));
+ *       }
+ *     }
+ *   }
+ *   return (Foo) scopedInstances.get(3);
+ * </code></pre>
+ *
+ * <p>As with {@link DoubleCheck}, each slot has its own lock, so that creating an instance never
+ * blocks the creation of an unrelated instance in the same table. The lock of a slot is only
+ * allocated when its instance is first requested, and is released once the instance is memoized.
+ *
+ * <p>A {@code null} slot means that the instance hasn't been created yet, so a table can only hold
+ * instances of bindings that are not nullable.
+ */
+public final class ScopedInstanceTable {
+  private final AtomicReferenceArray<Object> instances;
+  private final AtomicReferenceArray<Object> locks;
+
+  public ScopedInstanceTable(int size) {
+    this.instances = new AtomicReferenceArray<Object>(size);
+    this.locks = new AtomicReferenceArray<Object>(size);
+  }
+
+  /** Returns the instance in the given slot, or {@code null} if it has not been created yet. */
+  public Object get(int slot) {
+    return instances.get(slot);
+  }
+
+  /**
+   * Returns the lock to hold while creating the instance of the given slot. All callers get the
+   * same lock until the instance of the slot has been {@linkplain #memoize memoized}.
+   */
+  public Object lock(int slot) {
+    Object lock = locks.get(slot);
+    if (lock != null) {
+      return lock;
+    }
+    if (instances.get(slot) != null) {
+      // The instance is already memoized, so the caller's double-check won't need a shared lock.
+      return new Object();
+    }
+    Object newLock = new Object();
+    return locks.compareAndSet(slot, null, newLock) ? newLock : lock(slot);
+  }
+
+  /**
+   * Stores {@code instance} in the given slot. Must only be called while holding the {@linkplain
+   * #lock lock} of the slot.
+   *
+   * @throws IllegalStateException if creating {@code instance} recursively stored a different
+   *     instance in the same slot, which is likely due to a circular dependency
+   */
+  public void memoize(int slot, Object instance) {
+    Object currentInstance = instances.get(slot);
+    if (currentInstance != null && currentInstance != instance) {
+      throw new IllegalStateException("Scoped provider was invoked recursively returning "
+          + "different results: " + currentInstance + " & " + instance + ". This is likely "
+          + "due to a circular dependency.");
+    }
+    instances.set(slot, instance);
+    // The instance is now visible to every caller of get(), so the lock is no longer needed.
+    locks.set(slot, null);
+  }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import androidx.room.compiler.processing.XProcessingEnv;
+import androidx.room.compiler.processing.compat.XConverters;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.googlejavaformat.java.Formatter;
+import com.google.googlejavaformat.java.FormatterException;
+import dagger.internal.codegen.compileroption.CompilerOptions;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileObject;
+import javax.tools.JavaFileManager.Location;
+import javax.tools.JavaFileObject;
+
+/**
+ * A {@link Filer} that formats generated Java sources with google-java-format on background
+ * threads.
+ *
+ * <p>Sources are formatted concurrently while processing continues, but they are always written
+ * to the underlying filer on the processing thread, since javac's filer is not thread-safe. At
+ * most one pending source per available processor is held in memory; when that limit is reached,
+ * the oldest source is waited for and written before another one is queued. {@link
+ * #writePendingSources} must be called before the end of each round so that javac sees every
+ * generated source.
+ *
+ * <p>Sources longer than {@link CompilerOptions#formatGeneratedSourceMaxLength()} characters are
+ * written without formatting. Sources that google-java-format fails to parse are also written
+ * without formatting, and a note names each of them.
+ */
+@Singleton
+final class ConcurrentFormattingFiler implements Filer {
+  private static final long IDLE_THREAD_TIMEOUT_SECONDS = 5;
+
+  private final Supplier<Filer> delegate;
+  private final Supplier<Messager> messager;
+  private final int maxLength;
+  private final int maxPendingSources;
+  private final Queue<PendingSource> pendingSources = new ArrayDeque<>();
+  private ExecutorService executor;
+
+  // Timing for the note that is reported when processing is over.
+  private int formattedSources;
+  private int skippedSources;
+  private int failedSources;
+  private long formattingNanos;
+  private long waitingNanos;
+
+  @Inject
+  ConcurrentFormattingFiler(XProcessingEnv processingEnv, CompilerOptions compilerOptions) {
+    this(
+        () -> XConverters.toJavac(processingEnv).getFiler(),
+        () -> XConverters.toJavac(processingEnv).getMessager(),
+        compilerOptions.formatGeneratedSourceMaxLength(),
+        Runtime.getRuntime().availableProcessors());
+  }
+
+  @VisibleForTesting
+  ConcurrentFormattingFiler(
+      Supplier<Filer> delegate,
+      Supplier<Messager> messager,
+      int maxLength,
+      int maxPendingSources) {
+    this.delegate = checkNotNull(delegate);
+    this.messager = checkNotNull(messager);
+    this.maxLength = maxLength;
+    this.maxPendingSources = maxPendingSources;
+  }
+
+  @Override
+  public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements)
+      throws IOException {
+    return new FormattingJavaFileObject(delegate.get().createSourceFile(name, originatingElements));
+  }
+
+  @Override
+  public JavaFileObject createClassFile(CharSequence name, Element... originatingElements)
+      throws IOException {
+    return delegate.get().createClassFile(name, originatingElements);
+  }
+
+  @Override
+  public FileObject createResource(
+      Location location,
+      CharSequence moduleAndPkg,
+      CharSequence relativeName,
+      Element... originatingElements)
+      throws IOException {
+    return delegate.get().createResource(location, moduleAndPkg, relativeName, originatingElements);
+  }
+
+  @Override
+  public FileObject getResource(
+      Location location, CharSequence moduleAndPkg, CharSequence relativeName)
+      throws IOException {
+    return delegate.get().getResource(location, moduleAndPkg, relativeName);
+  }
+
+  /**
+   * Waits for all pending sources to be formatted and writes them. If {@code processingOver} is
+   * {@code true}, also reports how long formatting took and stops the formatting threads.
+   */
+  void writePendingSources(boolean processingOver) {
+    while (!pendingSources.isEmpty()) {
+      writeOldestPendingSource();
+    }
+    if (!processingOver) {
+      return;
+    }
+    if (executor != null) {
+      executor.shutdown();
+      executor = null;
+    }
+    if (formattedSources + skippedSources + failedSources > 0) {
+      messager.get().printMessage(
+          Diagnostic.Kind.NOTE,
+          String.format(
+              "Dagger formatted %d generated sources in %d ms (%d ms on the processing thread);"
+                  + " %d sources longer than %d characters were not formatted, and %d sources"
+                  + " could not be formatted.",
+              formattedSources,
+              NANOSECONDS.toMillis(formattingNanos),
+              NANOSECONDS.toMillis(waitingNanos),
+              skippedSources,
+              maxLength,
+              failedSources));
+    }
+  }
+
+  private void enqueue(JavaFileObject fileObject, String source) {
+    if (source.length() > maxLength) {
+      skippedSources++;
+      write(fileObject, source);
+      return;
+    }
+    while (pendingSources.size() >= maxPendingSources) {
+      writeOldestPendingSource();
+    }
+    if (executor == null) {
+      executor = newFormattingExecutor(maxPendingSources);
+    }
+    pendingSources.add(new PendingSource(fileObject, executor.submit(() -> format(source))));
+  }
+
+  /**
+   * Returns an executor whose idle threads stop after a few seconds, so that they don't outlive a
+   * compilation that fails before {@link #writePendingSources} stops them, e.g. in a build daemon.
+   */
+  private static ExecutorService newFormattingExecutor(int threads) {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            IDLE_THREAD_TIMEOUT_SECONDS,
+            SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("dagger-source-formatter-%d")
+                .build());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  // Runs on a formatting thread, so failures are only reported once the source is written.
+  private FormattedSource format(String source) {
+    long start = System.nanoTime();
+    try {
+      return new FormattedSource(
+          new Formatter().formatSource(source), null, System.nanoTime() - start);
+    } catch (FormatterException e) {
+      return new FormattedSource(source, e, System.nanoTime() - start);
+    }
+  }
+
+  private void writeOldestPendingSource() {
+    PendingSource pendingSource = pendingSources.remove();
+    long start = System.nanoTime();
+    FormattedSource formattedSource;
+    try {
+      formattedSource = pendingSource.formattedSource.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      waitingNanos += System.nanoTime() - start;
+    }
+    formattingNanos += formattedSource.formattingNanos;
+    if (formattedSource.failure == null) {
+      formattedSources++;
+    } else {
+      failedSources++;
+      messager.get().printMessage(
+          Diagnostic.Kind.NOTE,
+          String.format(
+              "Dagger could not format %s, so it was written without formatting: %s",
+              pendingSource.fileObject.getName(), formattedSource.failure.getMessage()));
+    }
+    write(pendingSource.fileObject, formattedSource.source);
+  }
+
+  private void write(JavaFileObject fileObject, String source) {
+    try (Writer writer = fileObject.openWriter()) {
+      writer.write(source);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** A source file whose contents are formatted once its writer is closed. */
+  private final class FormattingJavaFileObject extends ForwardingJavaFileObject<JavaFileObject> {
+    FormattingJavaFileObject(JavaFileObject delegate) {
+      super(checkNotNull(delegate));
+    }
+
+    @Override
+    public Writer openWriter() {
+      return new StringWriter() {
+        private boolean closed;
+
+        @Override
+        public void close() throws IOException {
+          super.close();
+          if (!closed) {
+            closed = true;
+            enqueue(fileObject, toString());
+          }
+        }
+      };
+    }
+  }
+
+  private static final class PendingSource {
+    final JavaFileObject fileObject;
+    final Future<FormattedSource> formattedSource;
+
+    PendingSource(JavaFileObject fileObject, Future<FormattedSource> formattedSource) {
+      this.fileObject = fileObject;
+      this.formattedSource = formattedSource;
+    }
+  }
+
+  private static final class FormattedSource {
+    final String source;
+    // Null if the source was formatted.
+    final FormatterException failure;
+    final long formattingNanos;
+
+    FormattedSource(String source, FormatterException failure, long formattingNanos) {
+      this.source = source;
+      this.failure = failure;
+      this.formattingNanos = formattingNanos;
+    }
+  }
+}
@@ -56,6 +56,7 @@ final class DelegateComponentProcessor {
   @Inject ValidationBindingGraphPlugins validationBindingGraphPlugins;
   @Inject ExternalBindingGraphPlugins externalBindingGraphPlugins;
   @Inject Set<ClearableCache> clearableCaches;
+  @Inject ConcurrentFormattingFiler formattingFiler;
 
   // TODO(bcorso): Add support for external plugins with dagger.spi.model.BindingGraphPlugin
   public void initialize(
@@ -84,6 +85,8 @@ final class DelegateComponentProcessor {
       validationBindingGraphPlugins.endPlugins();
       externalBindingGraphPlugins.endPlugins();
     }
+    // javac only compiles the sources that were written by the end of the round.
+    formattingFiler.writePendingSources(roundEnv.isProcessingOver());
     clearableCaches.forEach(ClearableCache::clearCache);
   }
 
@@ -20,7 +20,6 @@ import androidx.room.compiler.processing.XFiler;
 import androidx.room.compiler.processing.XMessager;
 import androidx.room.compiler.processing.XProcessingEnv;
 import androidx.room.compiler.processing.compat.XConverters;
-import com.google.googlejavaformat.java.filer.FormattingFiler;
 import dagger.Binds;
 import dagger.Module;
 import dagger.Provides;
@@ -29,6 +28,7 @@ import dagger.internal.codegen.compileroption.CompilerOptions;
 import dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions;
 import dagger.internal.codegen.compileroption.ProcessingOptions;
 import java.util.Map;
+import javax.inject.Provider;
 
 /** Bindings that depend on the {@link XProcessingEnv}. */
 @Module
@@ -50,10 +50,12 @@ interface ProcessingEnvironmentModule {
   }
 
   @Provides
-  static XFiler filer(CompilerOptions compilerOptions, XProcessingEnv xProcessingEnv) {
+  static XFiler filer(
+      CompilerOptions compilerOptions,
+      XProcessingEnv xProcessingEnv,
+      Provider<ConcurrentFormattingFiler> formattingFiler) {
     return compilerOptions.headerCompilation() || !compilerOptions.formatGeneratedSource()
         ? xProcessingEnv.getFiler()
-        : XConverters.toXProcessing(
-            new FormattingFiler(XConverters.toJavac(xProcessingEnv.getFiler())), xProcessingEnv);
+        : XConverters.toXProcessing(formattingFiler.get(), xProcessingEnv);
   }
 }
@@ -20,6 +20,7 @@ import static androidx.room.compiler.processing.compat.XConverters.toJavac;
 import static com.google.auto.common.MoreElements.asType;
 import static com.google.auto.common.MoreElements.isType;
 import static com.google.auto.common.MoreTypes.asDeclared;
+import static dagger.internal.codegen.xprocessing.XProcessingEnvs.javacTrees;
 
 import androidx.room.compiler.processing.XAnnotation;
 import androidx.room.compiler.processing.XElement;
@@ -32,13 +33,18 @@ import com.google.auto.common.MoreTypes;
 import com.google.common.base.Ascii;
 import com.google.common.collect.ImmutableList;
 import com.squareup.javapoet.ClassName;
-import dagger.Reusable;
+import com.squareup.javapoet.TypeName;
+import com.sun.source.util.Trees;
 import dagger.internal.codegen.compileroption.CompilerOptions;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import javax.inject.Inject;
+import javax.inject.Singleton;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.AnnotationValueVisitor;
@@ -72,10 +78,12 @@ import javax.lang.model.util.SimpleTypeVisitor8;
  *   <li>Fixes a bug that incorrectly validates error types in annotations (b/213880825)
  *   <li>Exposes extra methods needed to validate various parts of an element rather than just the
  *       entire element.
+ *   <li>Caches the results of validating type hierarchies, since the same supertypes are often
+ *       validated for many elements.
  * </ul>
  */
-@Reusable
-public final class DaggerSuperficialValidation {
+@Singleton
+public final class DaggerSuperficialValidation implements ClearableCache {
   /**
    * Returns the type element with the given class name or throws {@link ValidationException} if it
    * is not accessible in the current compilation.
@@ -98,11 +106,28 @@ public final class DaggerSuperficialValidation {
 
   private final boolean isStrictValidationEnabled;
   private final boolean isKSP;
+  private final Optional<Trees> trees;
+
+  // Type hierarchies that have been validated, keyed by the type element and type arguments. Types
+  // from the classpath cannot change, so their results are kept across processing rounds.
+  private final Set<TypeName> validatedClasspathTypeHierarchies = new HashSet<>();
+  private final Set<TypeName> validatedTypeHierarchies = new HashSet<>();
+  // Type hierarchies that contain a known error type. These may become valid in a later round, once
+  // the missing type has been generated.
+  private final Map<TypeName, ValidationException.KnownErrorType> invalidTypeHierarchies =
+      new HashMap<>();
 
   @Inject
   DaggerSuperficialValidation(XProcessingEnv processingEnv, CompilerOptions compilerOptions) {
     this.isStrictValidationEnabled = compilerOptions.strictSuperficialValidation();
     this.isKSP = processingEnv.getBackend() == XProcessingEnv.Backend.KSP;
+    this.trees = javacTrees(processingEnv);
+  }
+
+  @Override
+  public void clearCache() {
+    validatedTypeHierarchies.clear();
+    invalidTypeHierarchies.clear();
   }
 
   /**
@@ -283,10 +308,65 @@ public final class DaggerSuperficialValidation {
 
   private void validateTypeHierarchy(String desc, XType type) {
     validateType(desc, toJavac(type));
+    // The type itself is valid at this point, so it's safe to create its TypeName.
+    Optional<TypeName> cacheKey =
+        toJavac(type).getKind() == TypeKind.DECLARED
+            ? Optional.of(type.getTypeName())
+            : Optional.empty();
+    if (cacheKey.isPresent()) {
+      if (validatedClasspathTypeHierarchies.contains(cacheKey.get())
+          || validatedTypeHierarchies.contains(cacheKey.get())) {
+        return;
+      }
+      if (invalidTypeHierarchies.containsKey(cacheKey.get())) {
+        throw invalidTypeHierarchies.get(cacheKey.get()).copy().append(desc, toJavac(type));
+      }
+    }
     try {
       type.getSuperTypes().forEach(supertype -> validateTypeHierarchy("supertype", supertype));
     } catch (RuntimeException exception) {
-      throw ValidationException.from(exception).append(desc, toJavac(type));
+      ValidationException validationException = ValidationException.from(exception);
+      if (cacheKey.isPresent()
+          && validationException instanceof ValidationException.KnownErrorType) {
+        // Cache the exception before the message for this type is appended, since the description
+        // of the type depends on the caller.
+        invalidTypeHierarchies.put(
+            cacheKey.get(), ((ValidationException.KnownErrorType) validationException).copy());
+      }
+      throw validationException.append(desc, toJavac(type));
+    }
+    if (cacheKey.isPresent()) {
+      if (isFromClasspath(toJavac(type))) {
+        validatedClasspathTypeHierarchies.add(cacheKey.get());
+      } else {
+        validatedTypeHierarchies.add(cacheKey.get());
+      }
+    }
+  }
+
+  /**
+   * Returns true if the given type, and any types it references, are compiled classes rather than
+   * sources in the current compilation.
+   */
+  private boolean isFromClasspath(TypeMirror type) {
+    if (!trees.isPresent()) {
+      return false;
+    }
+    switch (type.getKind()) {
+      case DECLARED:
+        DeclaredType declaredType = asDeclared(type);
+        return trees.get().getTree(declaredType.asElement()) == null
+            && declaredType.getTypeArguments().stream().allMatch(this::isFromClasspath);
+      case ARRAY:
+        return isFromClasspath(((ArrayType) type).getComponentType());
+      case WILDCARD:
+        WildcardType wildcardType = (WildcardType) type;
+        return (wildcardType.getExtendsBound() == null
+                || isFromClasspath(wildcardType.getExtendsBound()))
+            && (wildcardType.getSuperBound() == null
+                || isFromClasspath(wildcardType.getSuperBound()));
+      default:
+        return type.getKind().isPrimitive();
     }
   }
 
@@ -755,6 +835,15 @@ public final class DaggerSuperficialValidation {
       public String getErrorTypeName() {
         return errorTypeName;
       }
+
+      /** Returns a copy of this exception, including the messages appended so far. */
+      private KnownErrorType copy() {
+        ValidationException copy = new KnownErrorType(errorTypeName);
+        ValidationException original = this;
+        copy.lastReportedElement = original.lastReportedElement;
+        copy.messages.addAll(original.messages);
+        return (KnownErrorType) copy;
+      }
     }
 
     /** A {@link ValidationException} that originated from an unknown error type. */
@@ -88,6 +88,15 @@ public abstract class SourceFileGenerator<T> {
   private JavaFile buildJavaFile(T input, TypeSpec.Builder typeSpecBuilder) {
     XElement originatingElement = originatingElement(input);
     addOriginatingElement(typeSpecBuilder, originatingElement);
+    // Isolating processors under Gradle's incremental javac support must have exactly one
+    // originating element, but KSP tracks every source file that an isolating output depends on.
+    if (processingEnv.getBackend() == XProcessingEnv.Backend.KSP) {
+      for (XElement element : additionalOriginatingElements(input)) {
+        if (!element.equals(originatingElement)) {
+          addOriginatingElement(typeSpecBuilder, element);
+        }
+      }
+    }
     typeSpecBuilder.addAnnotation(DaggerGenerated.class);
     Optional<AnnotationSpec> generatedAnnotation =
         Optional.ofNullable(processingEnv.findGeneratedAnnotation())
@@ -119,6 +128,14 @@ public abstract class SourceFileGenerator<T> {
   /** Returns the originating element of the generating type. */
   public abstract XElement originatingElement(T input);
 
+  /**
+   * Returns the elements, other than {@link #originatingElement}, whose sources the generated types
+   * depend on. These are only reported when running with KSP.
+   */
+  protected ImmutableSet<XElement> additionalOriginatingElements(T input) {
+    return ImmutableSet.of();
+  }
+
   /**
    * Returns {@link TypeSpec.Builder types} be generated for {@code T}, or an empty list if no types
    * should be generated.
@@ -220,6 +220,9 @@ public final class BindingFactory {
             .thrownTypes(producesMethod.getThrownTypes())
             .executorRequest(dependencyRequestFactory.forProductionImplementationExecutor())
             .monitorRequest(dependencyRequestFactory.forProductionComponentMonitor());
+    if (producesMethod.hasAnnotation(TypeNames.CACHEABLE)) {
+      builder.resultCacheRequest(dependencyRequestFactory.forProducerResultCache());
+    }
     return builder.build();
   }
 
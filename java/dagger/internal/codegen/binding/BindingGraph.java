@@ -125,6 +125,20 @@ public abstract class BindingGraph {
       return super.nodesByClass();
     }
 
+    // This overrides dagger.spi.model.BindingGraph to memoize the output.
+    @Override
+    @Memoized
+    public ImmutableNetwork<Node, DependencyEdge> dependencyGraph() {
+      return super.dependencyGraph();
+    }
+
+    // This overrides dagger.spi.model.BindingGraph to memoize the output.
+    @Override
+    @Memoized
+    public ImmutableSet<DependencyEdge> entryPointEdges() {
+      return super.entryPointEdges();
+    }
+
     /**
      * Returns an index of each {@link BindingNode} by its {@link ComponentPath}. Accessing this for
      * a component and its parent components is faster than doing a graph traversal.
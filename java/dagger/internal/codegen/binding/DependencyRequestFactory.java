@@ -203,6 +203,13 @@ public final class DependencyRequestFactory {
         .build();
   }
 
+  DependencyRequest forProducerResultCache() {
+    return DependencyRequest.builder()
+        .kind(PROVIDER)
+        .key(keyFactory.forProducerResultCache())
+        .build();
+  }
+
   /**
    * Returns a synthetic request for the present value of an optional binding generated from a
    * {@link dagger.BindsOptionalOf} declaration.
@@ -41,6 +41,7 @@ import com.google.common.collect.ImmutableSet;
 import com.squareup.javapoet.ClassName;
 import dagger.Binds;
 import dagger.BindsOptionalOf;
+import dagger.internal.codegen.base.ClearableCache;
 import dagger.internal.codegen.base.ContributionType;
 import dagger.internal.codegen.base.FrameworkTypes;
 import dagger.internal.codegen.base.MapType;
@@ -56,15 +57,25 @@ import dagger.spi.model.DaggerType;
 import dagger.spi.model.DaggerTypeElement;
 import dagger.spi.model.Key;
 import dagger.spi.model.RequestKind;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 import javax.inject.Inject;
+import javax.inject.Singleton;
 
-/** A factory for {@link Key}s. */
-public final class KeyFactory {
+/**
+ * A factory for {@link Key}s.
+ *
+ * <p>Equal keys created by this factory within a processing round are the same instance, so that
+ * the many requests, bindings and maps that refer to a key share it, and so that most equality
+ * checks between keys succeed on identity.
+ */
+@Singleton
+public final class KeyFactory implements ClearableCache {
   private final XProcessingEnv processingEnv;
   private final InjectionAnnotations injectionAnnotations;
+  private final Map<Key, Key> internedKeys = new HashMap<>();
 
   @Inject
   KeyFactory(XProcessingEnv processingEnv, InjectionAnnotations injectionAnnotations) {
@@ -72,6 +83,16 @@ public final class KeyFactory {
     this.injectionAnnotations = injectionAnnotations;
   }
 
+  private Key intern(Key key) {
+    Key internedKey = internedKeys.putIfAbsent(key, key);
+    return internedKey == null ? key : internedKey;
+  }
+
+  @Override
+  public void clearCache() {
+    internedKeys.clear();
+  }
+
   private XType setOf(XType elementType) {
     return processingEnv.getDeclaredType(
         processingEnv.requireTypeElement(TypeNames.SET), elementType.boxed());
@@ -105,11 +126,11 @@ public final class KeyFactory {
       XMethodElement subcomponentCreatorMethod, XType declaredContainer) {
     checkArgument(isDeclared(declaredContainer));
     XMethodType resolvedMethod = subcomponentCreatorMethod.asMemberOf(declaredContainer);
-    return Key.builder(DaggerType.from(resolvedMethod.getReturnType())).build();
+    return intern(Key.builder(DaggerType.from(resolvedMethod.getReturnType())).build());
   }
 
   public Key forSubcomponentCreator(XType creatorType) {
-    return Key.builder(DaggerType.from(creatorType)).build();
+    return intern(Key.builder(DaggerType.from(creatorType)).build());
   }
 
   public Key forProvidesMethod(XMethodElement method, XTypeElement contributingModule) {
@@ -154,8 +175,9 @@ public final class KeyFactory {
     Key key = forMethod(method, keyType);
     return contributionType.equals(ContributionType.UNIQUE)
         ? key
-        : key.withMultibindingContributionIdentifier(
-            DaggerTypeElement.from(contributingModule), DaggerExecutableElement.from(method));
+        : intern(
+            key.withMultibindingContributionIdentifier(
+                DaggerTypeElement.from(contributingModule), DaggerExecutableElement.from(method)));
   }
 
   /**
@@ -234,40 +256,50 @@ public final class KeyFactory {
   }
 
   public Key forInjectConstructorWithResolvedType(XType type) {
-    return Key.builder(DaggerType.from(type)).build();
+    return intern(Key.builder(DaggerType.from(type)).build());
   }
 
   // TODO(ronshapiro): Remove these conveniences which are simple wrappers around Key.Builder
   Key forType(XType type) {
-    return Key.builder(DaggerType.from(type)).build();
+    return intern(Key.builder(DaggerType.from(type)).build());
   }
 
   public Key forMembersInjectedType(XType type) {
-    return Key.builder(DaggerType.from(type)).build();
+    return intern(Key.builder(DaggerType.from(type)).build());
   }
 
   Key forQualifiedType(Optional<XAnnotation> qualifier, XType type) {
-    return Key.builder(DaggerType.from(type.boxed()))
-        .qualifier(qualifier.map(DaggerAnnotation::from))
-        .build();
+    return intern(
+        Key.builder(DaggerType.from(type.boxed()))
+            .qualifier(qualifier.map(DaggerAnnotation::from))
+            .build());
   }
 
   public Key forProductionExecutor() {
-    return Key.builder(DaggerType.from(processingEnv.requireType(TypeNames.EXECUTOR)))
-        .qualifier(DaggerAnnotation.from(productionQualifier(processingEnv)))
-        .build();
+    return intern(
+        Key.builder(DaggerType.from(processingEnv.requireType(TypeNames.EXECUTOR)))
+            .qualifier(DaggerAnnotation.from(productionQualifier(processingEnv)))
+            .build());
   }
 
   public Key forProductionImplementationExecutor() {
-    return Key.builder(DaggerType.from(processingEnv.requireType(TypeNames.EXECUTOR)))
-        .qualifier(DaggerAnnotation.from(productionImplementationQualifier(processingEnv)))
-        .build();
+    return intern(
+        Key.builder(DaggerType.from(processingEnv.requireType(TypeNames.EXECUTOR)))
+            .qualifier(DaggerAnnotation.from(productionImplementationQualifier(processingEnv)))
+            .build());
   }
 
   public Key forProductionComponentMonitor() {
-    return Key.builder(
-            DaggerType.from(processingEnv.requireType(TypeNames.PRODUCTION_COMPONENT_MONITOR)))
-        .build();
+    return intern(
+        Key.builder(
+                DaggerType.from(processingEnv.requireType(TypeNames.PRODUCTION_COMPONENT_MONITOR)))
+            .build());
+  }
+
+  public Key forProducerResultCache() {
+    return intern(
+        Key.builder(DaggerType.from(processingEnv.requireType(TypeNames.PRODUCER_RESULT_CACHE)))
+            .build());
   }
 
   /**
@@ -318,9 +350,10 @@ public final class KeyFactory {
         for (ClassName frameworkClass :
             asList(TypeNames.PROVIDER, TypeNames.PRODUCER, TypeNames.PRODUCED)) {
           if (mapType.valuesAreTypeOf(frameworkClass)) {
-            return key.withType(
-                DaggerType.from(
-                    mapOf(mapType.keyType(), mapType.unwrappedValueType(frameworkClass))));
+            return intern(
+                key.withType(
+                    DaggerType.from(
+                        mapOf(mapType.keyType(), mapType.unwrappedValueType(frameworkClass)))));
           }
         }
       }
@@ -360,7 +393,9 @@ public final class KeyFactory {
             processingEnv.getDeclaredType(
                 wrappingElement, mapType.unwrappedValueType(currentWrappingClassName));
         return Optional.of(
-            possibleMapKey.withType(DaggerType.from(mapOf(mapType.keyType(), wrappedValueType))));
+            intern(
+                possibleMapKey.withType(
+                    DaggerType.from(mapOf(mapType.keyType(), wrappedValueType)))));
       }
     }
     return Optional.empty();
@@ -386,7 +421,9 @@ public final class KeyFactory {
         XType wrappedValueType =
             processingEnv.getDeclaredType(wrappingElement, mapType.valueType());
         return Optional.of(
-            possibleMapKey.withType(DaggerType.from(mapOf(mapType.keyType(), wrappedValueType))));
+            intern(
+                possibleMapKey.withType(
+                    DaggerType.from(mapOf(mapType.keyType(), wrappedValueType)))));
       }
     }
     return Optional.empty();
@@ -401,7 +438,9 @@ public final class KeyFactory {
       SetType setType = SetType.from(key);
       if (!setType.isRawType() && setType.elementsAreTypeOf(wrappingClassName)) {
         return Optional.of(
-            key.withType(DaggerType.from(setOf(setType.unwrappedElementType(wrappingClassName)))));
+            intern(
+                key.withType(
+                    DaggerType.from(setOf(setType.unwrappedElementType(wrappingClassName))))));
       }
     }
     return Optional.empty();
@@ -418,6 +457,6 @@ public final class KeyFactory {
     }
 
     XType optionalValueType = OptionalType.from(key).valueType();
-    return Optional.of(key.withType(DaggerType.from(extractKeyType(optionalValueType))));
+    return Optional.of(intern(key.withType(DaggerType.from(extractKeyType(optionalValueType)))));
   }
 }
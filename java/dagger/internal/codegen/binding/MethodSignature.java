@@ -19,6 +19,7 @@ package dagger.internal.codegen.binding;
 import static dagger.internal.codegen.extension.DaggerStreams.toImmutableList;
 import static dagger.internal.codegen.xprocessing.XElements.getSimpleName;
 
+import androidx.room.compiler.processing.XMethodElement;
 import androidx.room.compiler.processing.XMethodType;
 import androidx.room.compiler.processing.XProcessingEnv;
 import androidx.room.compiler.processing.XType;
@@ -41,14 +42,19 @@ public abstract class MethodSignature {
       ComponentMethodDescriptor componentMethod,
       XType componentType,
       XProcessingEnv processingEnv) {
-    XMethodType methodType = componentMethod.methodElement().asMemberOf(componentType);
+    return forComponentMethod(componentMethod.methodElement(), componentType, processingEnv);
+  }
+
+  public static MethodSignature forComponentMethod(
+      XMethodElement componentMethod, XType componentType, XProcessingEnv processingEnv) {
+    XMethodType methodType = componentMethod.asMemberOf(componentType);
     return new AutoValue_MethodSignature(
-        getSimpleName(componentMethod.methodElement()),
+        getSimpleName(componentMethod),
         methodType.getParameterTypes().stream().map(XType::getTypeName).collect(toImmutableList()),
         // Using the thrown types of the method element, which should be the same as the method type
         // since thrown types can't use type variables.
         // TODO(bcorso): Support getting thrown types from XExecutableType in XProcessing.
-        componentMethod.methodElement().getThrownTypes().stream()
+        componentMethod.getThrownTypes().stream()
             .map(XType::getTypeName)
             .collect(toImmutableList()));
   }
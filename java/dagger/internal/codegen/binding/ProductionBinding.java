@@ -49,7 +49,7 @@ public abstract class ProductionBinding extends ContributionBinding {
 
   @Override
   public ImmutableSet<DependencyRequest> implicitDependencies() {
-    return Stream.of(executorRequest(), monitorRequest())
+    return Stream.of(executorRequest(), monitorRequest(), resultCacheRequest())
         .filter(Optional::isPresent)
         .map(Optional::get)
         .collect(toImmutableSet());
@@ -101,6 +101,13 @@ public abstract class ProductionBinding extends ContributionBinding {
    */
   abstract Optional<DependencyRequest> monitorRequest();
 
+  /**
+   * If this production's results are cached, this will be the request for the cache. Only
+   * production bindings from {@link dagger.producers.Cacheable @Cacheable} methods will have a
+   * result cache request.
+   */
+  public abstract Optional<DependencyRequest> resultCacheRequest();
+
   // Profiling determined that this method is called enough times that memoizing it had a measurable
   // performance improvement for large components.
   @Memoized
@@ -149,5 +156,7 @@ public abstract class ProductionBinding extends ContributionBinding {
     abstract Builder executorRequest(DependencyRequest executorRequest);
 
     abstract Builder monitorRequest(DependencyRequest monitorRequest);
+
+    abstract Builder resultCacheRequest(DependencyRequest resultCacheRequest);
   }
 }
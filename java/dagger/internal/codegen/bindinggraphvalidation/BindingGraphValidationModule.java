@@ -42,7 +42,8 @@ public interface BindingGraphValidationModule {
       NullableBindingValidator validation8,
       ProvisionDependencyOnProducerBindingValidator validation9,
       SetMultibindingValidator validation10,
-      SubcomponentFactoryMethodValidator validation11) {
+      SubcomponentFactoryMethodValidator validation11,
+      PerformanceAdvisor performanceAdvisor) {
     ImmutableSet<BindingGraphPlugin> plugins = ImmutableSet.of(
         validation1,
         validation2,
@@ -56,9 +57,16 @@ public interface BindingGraphValidationModule {
         validation10,
         validation11);
     if (compilerOptions.experimentalDaggerErrorMessages()) {
-      return ImmutableSet.of(factory.create(plugins));
-    } else {
-      return plugins;
+      plugins = ImmutableSet.of(factory.create(plugins));
     }
+    if (compilerOptions.performanceAdvisor()) {
+      // The advisor only reports notes, so it is kept out of the composite error messages.
+      plugins =
+          ImmutableSet.<BindingGraphPlugin>builder()
+              .addAll(plugins)
+              .add(performanceAdvisor)
+              .build();
+    }
+    return plugins;
   }
 }
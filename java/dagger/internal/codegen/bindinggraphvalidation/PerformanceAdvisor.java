@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen.bindinggraphvalidation;
+
+import static com.google.common.collect.Sets.immutableEnumSet;
+import static dagger.internal.codegen.extension.DaggerStreams.instancesOf;
+import static dagger.internal.codegen.extension.DaggerStreams.toImmutableList;
+import static dagger.internal.codegen.extension.DaggerStreams.toImmutableSet;
+import static java.util.Comparator.comparing;
+import static javax.tools.Diagnostic.Kind.NOTE;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultiset;
+import com.google.common.collect.Multiset;
+import com.google.common.graph.ImmutableNetwork;
+import dagger.internal.codegen.base.TarjanSCCs;
+import dagger.spi.model.Binding;
+import dagger.spi.model.BindingGraph;
+import dagger.spi.model.BindingGraph.ChildFactoryMethodEdge;
+import dagger.spi.model.BindingGraph.ComponentNode;
+import dagger.spi.model.BindingGraph.DependencyEdge;
+import dagger.spi.model.BindingGraph.Edge;
+import dagger.spi.model.BindingGraph.Node;
+import dagger.spi.model.BindingGraph.SubcomponentCreatorBindingEdge;
+import dagger.spi.model.BindingGraphPlugin;
+import dagger.spi.model.BindingKind;
+import dagger.spi.model.ComponentPath;
+import dagger.spi.model.DiagnosticReporter;
+import dagger.spi.model.RequestKind;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.inject.Inject;
+
+/**
+ * Reports binding graph shapes that are costly at runtime, when the {@code
+ * dagger.performanceAdvisor} option is enabled.
+ *
+ * <p>Each finding is weighted by the number of dependency edges into the binding it is about, so
+ * that the most widely requested bindings come first. The findings for a component are reported as
+ * a single JSON note on the root component, with the following checks:
+ *
+ * <ul>
+ *   <li>{@code UNSCOPED_FAN_IN}: an unscoped binding with many dependencies that is requested from
+ *       many sites, so that it is constructed again for each of them.
+ *   <li>{@code WRAPPED_SCOPED_BINDING}: a {@code Provider} or {@code Lazy} of a scoped binding,
+ *       which is already memoized by the component.
+ *   <li>{@code LARGE_MULTIBINDING}: an unscoped multibinding with many contributions, so that its
+ *       collection is built again for each request.
+ *   <li>{@code LARGE_SUBCOMPONENT}: a subcomponent with many bindings of its own, weighted by the
+ *       number of places that create it.
+ *   <li>{@code DELEGATE_FACTORY_CYCLE}: a binding in a dependency cycle that is broken by a {@code
+ *       Provider} or {@code Lazy}, which requires a {@code DelegateFactory} at runtime.
+ * </ul>
+ */
+final class PerformanceAdvisor implements BindingGraphPlugin {
+  private static final int UNSCOPED_FAN_IN_THRESHOLD = 5;
+  private static final int UNSCOPED_DEPENDENCIES_THRESHOLD = 3;
+  private static final int LARGE_MULTIBINDING_THRESHOLD = 16;
+  private static final int LARGE_SUBCOMPONENT_THRESHOLD = 100;
+
+  private static final ImmutableSet<RequestKind> WRAPPING_REQUEST_KINDS =
+      immutableEnumSet(RequestKind.PROVIDER, RequestKind.LAZY, RequestKind.PROVIDER_OF_LAZY);
+
+  private static final ImmutableSet<BindingKind> CONSTRUCTED_BINDING_KINDS =
+      immutableEnumSet(BindingKind.INJECTION, BindingKind.PROVISION);
+
+  private static final ImmutableSet<BindingKind> MULTIBINDING_KINDS =
+      immutableEnumSet(BindingKind.MULTIBOUND_SET, BindingKind.MULTIBOUND_MAP);
+
+  @Inject
+  PerformanceAdvisor() {}
+
+  @Override
+  public String pluginName() {
+    return "Dagger/PerformanceAdvisor";
+  }
+
+  @Override
+  public void visitGraph(BindingGraph bindingGraph, DiagnosticReporter diagnosticReporter) {
+    if (bindingGraph.isFullBindingGraph()) {
+      // Only the bindings that are actually used by a component have a runtime cost.
+      return;
+    }
+    ImmutableNetwork<Node, Edge> network = bindingGraph.network();
+    Multiset<Node> fanIn = LinkedHashMultiset.create();
+    for (DependencyEdge edge : bindingGraph.dependencyEdges()) {
+      fanIn.add(network.incidentNodes(edge).target());
+    }
+
+    List<Finding> findings = new ArrayList<>();
+    addUnscopedBindingFindings(bindingGraph, fanIn, findings);
+    addWrappedScopedBindingFindings(bindingGraph, findings);
+    addLargeSubcomponentFindings(bindingGraph, fanIn, findings);
+    addDelegateFactoryCycleFindings(bindingGraph, fanIn, findings);
+
+    if (!findings.isEmpty()) {
+      diagnosticReporter.reportComponent(
+          NOTE, bindingGraph.rootComponentNode(), report(bindingGraph, findings));
+    }
+  }
+
+  /**
+   * Adds unscoped bindings that are constructed again for each of many requests, either because
+   * they have many dependencies or because they are multibindings with many contributions.
+   */
+  private static void addUnscopedBindingFindings(
+      BindingGraph bindingGraph, Multiset<Node> fanIn, List<Finding> findings) {
+    for (Binding binding : bindingGraph.bindings()) {
+      if (binding.scope().isPresent()) {
+        continue;
+      }
+      int requests = fanIn.count(binding);
+      int dependencies = binding.dependencies().size();
+      if (CONSTRUCTED_BINDING_KINDS.contains(binding.kind())
+          && requests >= UNSCOPED_FAN_IN_THRESHOLD
+          && dependencies >= UNSCOPED_DEPENDENCIES_THRESHOLD) {
+        findings.add(
+            Finding.create("UNSCOPED_FAN_IN", binding, requests * (dependencies + 1), requests));
+      } else if (MULTIBINDING_KINDS.contains(binding.kind())
+          && dependencies >= LARGE_MULTIBINDING_THRESHOLD) {
+        findings.add(
+            Finding.create(
+                "LARGE_MULTIBINDING", binding, Math.max(requests, 1) * dependencies, dependencies));
+      }
+    }
+  }
+
+  /** Adds scoped bindings that are requested as a {@code Provider} or {@code Lazy}. */
+  private static void addWrappedScopedBindingFindings(
+      BindingGraph bindingGraph, List<Finding> findings) {
+    ImmutableNetwork<Node, Edge> network = bindingGraph.network();
+    Multiset<Binding> wrappedScopedBindings = LinkedHashMultiset.create();
+    for (DependencyEdge edge : bindingGraph.dependencyEdges()) {
+      Node target = network.incidentNodes(edge).target();
+      if (WRAPPING_REQUEST_KINDS.contains(edge.dependencyRequest().kind())
+          && target instanceof Binding
+          && ((Binding) target).scope().isPresent()) {
+        wrappedScopedBindings.add((Binding) target);
+      }
+    }
+    for (Multiset.Entry<Binding> entry : wrappedScopedBindings.entrySet()) {
+      findings.add(
+          Finding.create(
+              "WRAPPED_SCOPED_BINDING", entry.getElement(), entry.getCount(), entry.getCount()));
+    }
+  }
+
+  /** Adds subcomponents with many bindings of their own. */
+  private static void addLargeSubcomponentFindings(
+      BindingGraph bindingGraph, Multiset<Node> fanIn, List<Finding> findings) {
+    ImmutableNetwork<Node, Edge> network = bindingGraph.network();
+    Multiset<ComponentPath> bindingsPerComponent = HashMultiset.create();
+    for (Binding binding : bindingGraph.bindings()) {
+      bindingsPerComponent.add(binding.componentPath());
+    }
+    for (ComponentNode component : bindingGraph.componentNodes()) {
+      if (!component.isSubcomponent()) {
+        continue;
+      }
+      int localBindings = bindingsPerComponent.count(component.componentPath());
+      if (localBindings >= LARGE_SUBCOMPONENT_THRESHOLD) {
+        int creationSites = creationSites(network, fanIn, component);
+        findings.add(
+            Finding.create(
+                "LARGE_SUBCOMPONENT",
+                component.componentPath().toString(),
+                component.componentPath().toString(),
+                Math.max(creationSites, 1) * localBindings,
+                localBindings));
+      }
+    }
+  }
+
+  /**
+   * Adds bindings that are requested as a {@code Provider} or {@code Lazy} by one of their own
+   * transitive dependencies.
+   */
+  private static void addDelegateFactoryCycleFindings(
+      BindingGraph bindingGraph, Multiset<Node> fanIn, List<Finding> findings) {
+    ImmutableNetwork<Node, Edge> network = bindingGraph.network();
+    // A dependency edge is part of a cycle iff its source and target are in the same strongly
+    // connected component of the dependency graph.
+    Map<Node, ImmutableSet<Node>> stronglyConnectedComponents = new HashMap<>();
+    for (ImmutableSet<Node> component :
+        TarjanSCCs.compute(
+            ImmutableSet.copyOf(network.nodes()),
+            node ->
+                network.outEdges(node).stream()
+                    .flatMap(instancesOf(DependencyEdge.class))
+                    .map(edge -> network.incidentNodes(edge).target())
+                    .collect(toImmutableSet()))) {
+      for (Node node : component) {
+        stronglyConnectedComponents.put(node, component);
+      }
+    }
+    Set<Binding> cycleBindings = new LinkedHashSet<>();
+    for (DependencyEdge edge : bindingGraph.dependencyEdges()) {
+      Node source = network.incidentNodes(edge).source();
+      Node target = network.incidentNodes(edge).target();
+      if (WRAPPING_REQUEST_KINDS.contains(edge.dependencyRequest().kind())
+          && target instanceof Binding
+          && stronglyConnectedComponents.get(source).contains(target)) {
+        cycleBindings.add((Binding) target);
+      }
+    }
+    for (Binding binding : cycleBindings) {
+      int requests = fanIn.count(binding);
+      findings.add(Finding.create("DELEGATE_FACTORY_CYCLE", binding, requests, requests));
+    }
+  }
+
+  /**
+   * Returns the number of places that create the subcomponent: its factory methods on the parent,
+   * and the requests for its creator.
+   */
+  private static int creationSites(
+      ImmutableNetwork<Node, Edge> network, Multiset<Node> fanIn, ComponentNode subcomponent) {
+    int creationSites = 0;
+    for (Edge edge : network.inEdges(subcomponent)) {
+      if (edge instanceof ChildFactoryMethodEdge) {
+        creationSites++;
+      } else if (edge instanceof SubcomponentCreatorBindingEdge) {
+        creationSites += fanIn.count(network.incidentNodes(edge).source());
+      }
+    }
+    return creationSites;
+  }
+
+  /** Returns the findings as a JSON object, with the heaviest findings first. */
+  private static String report(BindingGraph bindingGraph, List<Finding> findings) {
+    ImmutableList<Finding> sortedFindings =
+        findings.stream()
+            .sorted(comparing(Finding::weight).reversed().thenComparing(Finding::subject))
+            .collect(toImmutableList());
+    StringBuilder report = new StringBuilder("{\"component\":");
+    appendJsonString(report, bindingGraph.rootComponentNode().componentPath().toString());
+    report.append(",\"findings\":[");
+    for (int i = 0; i < sortedFindings.size(); i++) {
+      Finding finding = sortedFindings.get(i);
+      report.append(i == 0 ? "\n" : ",\n").append("{\"check\":");
+      appendJsonString(report, finding.check());
+      report.append(",\"subject\":");
+      appendJsonString(report, finding.subject());
+      report.append(",\"componentPath\":");
+      appendJsonString(report, finding.componentPath());
+      report
+          .append(",\"weight\":")
+          .append(finding.weight())
+          .append(",\"count\":")
+          .append(finding.count())
+          .append("}");
+    }
+    return report.append("]}").toString();
+  }
+
+  private static void appendJsonString(StringBuilder json, String value) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        json.append('\\').append(c);
+      } else if (c < 0x20) {
+        json.append(String.format("\\u%04x", (int) c));
+      } else {
+        json.append(c);
+      }
+    }
+    json.append('"');
+  }
+
+  /** A costly graph shape. */
+  @AutoValue
+  abstract static class Finding {
+    /** The name of the check that found this. */
+    abstract String check();
+
+    /** The key of the binding, or the path of the subcomponent, that this finding is about. */
+    abstract String subject();
+
+    abstract String componentPath();
+
+    /** The estimated cost of this finding, relative to the others. */
+    abstract long weight();
+
+    /**
+     * The number that triggered the check: requests, contributions, wrapping requests or local
+     * bindings.
+     */
+    abstract int count();
+
+    static Finding create(String check, Binding binding, long weight, int count) {
+      return create(
+          check, binding.key().toString(), binding.componentPath().toString(), weight, count);
+    }
+
+    static Finding create(
+        String check, String subject, String componentPath, long weight, int count) {
+      return new AutoValue_PerformanceAdvisor_Finding(check, subject, componentPath, weight, count);
+    }
+  }
+}
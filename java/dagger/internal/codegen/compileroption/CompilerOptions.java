@@ -43,6 +43,44 @@ public abstract class CompilerOptions {
    */
   public abstract boolean fastInit(XTypeElement element);
 
+  /**
+   * Returns true if the experimental warm-up flag, {@code experimentalWarmUp}, is enabled.
+   *
+   * <p>If enabled, the generated class of each root {@code @Component} gets a static {@code
+   * warmUp(Component, Executor)} method that instantiates all of the component's scoped bindings,
+   * constructing bindings that do not depend on each other concurrently. No such method is
+   * generated for subcomponents or production components.
+   */
+  public abstract boolean experimentalWarmUp();
+
+  /**
+   * Returns true if the experimental scoped instance table flag, {@code
+   * experimentalScopedInstanceTable}, is enabled.
+   *
+   * <p>If enabled in fastInit mode, the instances of scoped {@code @Inject} and {@code @Provides}
+   * bindings are memoized in a single table per component (or shard) rather than a {@code
+   * DoubleCheck} and a {@code Provider} field per binding.
+   */
+  public abstract boolean experimentalScopedInstanceTable();
+
+  /**
+   * Returns true if the experimental inline field injection flag, {@code
+   * experimentalInlineFieldInjection}, is enabled.
+   *
+   * <p>If enabled, the members injection methods of a component assign the {@code @Inject} fields
+   * that are accessible from the component directly rather than calling the static injection
+   * method on the {@code MembersInjector} for each field.
+   */
+  public abstract boolean experimentalInlineFieldInjection();
+
+  /**
+   * Returns true if the performance advisor flag, {@code performanceAdvisor}, is enabled.
+   *
+   * <p>If enabled, Dagger reports a note for each root component that lists, as JSON, the bindings
+   * and subcomponents whose shape is likely to be costly at runtime.
+   */
+  public abstract boolean performanceAdvisor();
+
   public abstract boolean formatGeneratedSource();
 
   public abstract boolean writeProducerNameInToken();
@@ -139,6 +177,14 @@ public abstract class CompilerOptions {
    */
   public abstract boolean generatedClassExtendsComponent();
 
+  /**
+   * Returns the maximum length, in characters, of a generated source that is formatted when {@link
+   * #formatGeneratedSource()} is enabled. Longer sources are written without formatting.
+   */
+  public int formatGeneratedSourceMaxLength() {
+    return Integer.MAX_VALUE;
+  }
+
   /** Returns the number of bindings allowed per shard. */
   public int keysPerComponentShard(XTypeElement component) {
     return 3500;
@@ -26,12 +26,16 @@ import static dagger.internal.codegen.compileroption.FeatureStatus.ENABLED;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.EXPERIMENTAL_AHEAD_OF_TIME_SUBCOMPONENTS;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.EXPERIMENTAL_ANDROID_MODE;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.EXPERIMENTAL_DAGGER_ERROR_MESSAGES;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.EXPERIMENTAL_INLINE_FIELD_INJECTION;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.EXPERIMENTAL_SCOPED_INSTANCE_TABLE;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.EXPERIMENTAL_WARM_UP;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.FAST_INIT;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.FLOATING_BINDS_METHODS;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.FORMAT_GENERATED_SOURCE;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.GENERATED_CLASS_EXTENDS_COMPONENT;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.IGNORE_PRIVATE_AND_STATIC_INJECTION_FOR_COMPONENT;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.INCLUDE_STACKTRACE_WITH_DEFERRED_ERROR_MESSAGES;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.PERFORMANCE_ADVISOR;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.PLUGINS_VISIT_FULL_BINDING_GRAPHS;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.STRICT_MULTIBINDING_VALIDATION;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.STRICT_SUPERFICIAL_VALIDATION;
@@ -76,6 +80,8 @@ import javax.tools.Diagnostic;
 public final class ProcessingEnvironmentCompilerOptions extends CompilerOptions {
   // EnumOption<T> doesn't support integer inputs so just doing this as a 1-off for now.
   private static final String KEYS_PER_COMPONENT_SHARD = "dagger.keysPerComponentShard";
+  private static final String FORMAT_GENERATED_SOURCE_MAX_LENGTH =
+      "dagger.formatGeneratedSourceMaxLength";
 
   private final XProcessingEnv processingEnv;
   private final XMessager messager;
@@ -137,6 +143,26 @@ public final class ProcessingEnvironmentCompilerOptions extends CompilerOptions
     return false;
   }
 
+  @Override
+  public boolean experimentalWarmUp() {
+    return isEnabled(EXPERIMENTAL_WARM_UP);
+  }
+
+  @Override
+  public boolean experimentalScopedInstanceTable() {
+    return isEnabled(EXPERIMENTAL_SCOPED_INSTANCE_TABLE);
+  }
+
+  @Override
+  public boolean experimentalInlineFieldInjection() {
+    return isEnabled(EXPERIMENTAL_INLINE_FIELD_INJECTION);
+  }
+
+  @Override
+  public boolean performanceAdvisor() {
+    return isEnabled(PERFORMANCE_ADVISOR);
+  }
+
   @Override
   public boolean formatGeneratedSource() {
     return isEnabled(FORMAT_GENERATED_SOURCE);
@@ -227,6 +253,12 @@ public final class ProcessingEnvironmentCompilerOptions extends CompilerOptions
     return isEnabled(GENERATED_CLASS_EXTENDS_COMPONENT);
   }
 
+  @Override
+  public int formatGeneratedSourceMaxLength() {
+    return parsePositiveInt(FORMAT_GENERATED_SOURCE_MAX_LENGTH)
+        .orElse(super.formatGeneratedSourceMaxLength());
+  }
+
   @Override
   public int keysPerComponentShard(XTypeElement component) {
     if (options.containsKey(KEYS_PER_COMPONENT_SHARD)) {
@@ -262,9 +294,37 @@ public final class ProcessingEnvironmentCompilerOptions extends CompilerOptions
     noLongerRecognized(FLOATING_BINDS_METHODS);
     noLongerRecognized(EXPERIMENTAL_AHEAD_OF_TIME_SUBCOMPONENTS);
     noLongerRecognized(USE_GRADLE_INCREMENTAL_PROCESSING);
+    checkPositiveInt(FORMAT_GENERATED_SOURCE_MAX_LENGTH);
     return this;
   }
 
+  private void checkPositiveInt(String key) {
+    if (options.containsKey(key) && !parsePositiveInt(key).isPresent()) {
+      messager.printMessage(
+          Diagnostic.Kind.ERROR,
+          String.format(
+              "Processor option -A%s must be a positive integer, found: %s",
+              key, options.get(key)));
+    }
+  }
+
+  /**
+   * Returns the value of the option with the given key, or empty if it is not set or is not a
+   * positive integer.
+   */
+  private Optional<Integer> parsePositiveInt(String key) {
+    String stringValue = options.get(key);
+    if (stringValue == null) {
+      return Optional.empty();
+    }
+    try {
+      int value = Integer.parseInt(stringValue);
+      return value > 0 ? Optional.of(value) : Optional.empty();
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+
   private void noLongerRecognized(CommandLineOption commandLineOption) {
     if (options.containsKey(commandLineOption.toString())) {
       messager.printMessage(
@@ -353,7 +413,15 @@ public final class ProcessingEnvironmentCompilerOptions extends CompilerOptions
 
     GENERATED_CLASS_EXTENDS_COMPONENT,
 
-    VALIDATE_TRANSITIVE_COMPONENT_DEPENDENCIES(ENABLED)
+    VALIDATE_TRANSITIVE_COMPONENT_DEPENDENCIES(ENABLED),
+
+    EXPERIMENTAL_WARM_UP,
+
+    EXPERIMENTAL_SCOPED_INSTANCE_TABLE,
+
+    EXPERIMENTAL_INLINE_FIELD_INJECTION,
+
+    PERFORMANCE_ADVISOR
     ;
 
     final FeatureStatus defaultValue;
@@ -456,6 +524,7 @@ public final class ProcessingEnvironmentCompilerOptions extends CompilerOptions
             .flatMap(CommandLineOption::allNames)
             .collect(toImmutableSet()))
         .add(KEYS_PER_COMPONENT_SHARD)
+        .add(FORMAT_GENERATED_SOURCE_MAX_LENGTH)
         .build();
   }
 
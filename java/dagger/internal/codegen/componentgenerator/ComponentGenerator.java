@@ -20,10 +20,14 @@ import androidx.room.compiler.processing.XElement;
 import androidx.room.compiler.processing.XFiler;
 import androidx.room.compiler.processing.XProcessingEnv;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.squareup.javapoet.TypeSpec;
 import dagger.Component;
 import dagger.internal.codegen.base.SourceFileGenerator;
+import dagger.internal.codegen.binding.BindingDeclaration;
 import dagger.internal.codegen.binding.BindingGraph;
+import dagger.internal.codegen.binding.BindingNode;
+import dagger.internal.codegen.binding.ComponentDescriptor;
 import dagger.internal.codegen.writing.ComponentImplementation;
 import java.util.Optional;
 import javax.inject.Inject;
@@ -46,6 +50,34 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
     return input.componentTypeElement();
   }
 
+  /**
+   * Returns the components, modules, and binding types of the whole graph, since the generated
+   * component, including its subcomponent implementations, changes when any of them changes.
+   */
+  @Override
+  protected ImmutableSet<XElement> additionalOriginatingElements(BindingGraph bindingGraph) {
+    ImmutableSet.Builder<XElement> elements = ImmutableSet.builder();
+    for (ComponentDescriptor componentDescriptor :
+        bindingGraph.componentDescriptorsByPath().values()) {
+      elements.add(componentDescriptor.typeElement());
+      elements.addAll(componentDescriptor.moduleTypes());
+    }
+    for (dagger.spi.model.Binding binding : bindingGraph.topLevelBindingGraph().bindings()) {
+      BindingNode bindingNode = (BindingNode) binding;
+      addDeclarationElements(bindingNode.delegate(), elements);
+      for (BindingDeclaration declaration : bindingNode.associatedDeclarations()) {
+        addDeclarationElements(declaration, elements);
+      }
+    }
+    return elements.build();
+  }
+
+  private static void addDeclarationElements(
+      BindingDeclaration declaration, ImmutableSet.Builder<XElement> elements) {
+    declaration.bindingTypeElement().ifPresent(elements::add);
+    declaration.contributingModule().ifPresent(elements::add);
+  }
+
   @Override
   public ImmutableList<TypeSpec.Builder> topLevelTypes(BindingGraph bindingGraph) {
     ComponentImplementation componentImplementation =
@@ -16,11 +16,12 @@
 
 package dagger.internal.codegen.componentgenerator;
 
+import androidx.room.compiler.processing.XTypeElement;
 import dagger.Binds;
 import dagger.Module;
 import dagger.internal.codegen.base.SourceFileGenerator;
 import dagger.internal.codegen.binding.BindingGraph;
-import dagger.internal.codegen.binding.ComponentDescriptor;
+import dagger.internal.codegen.writing.HjarComponentGenerator;
 
 /** Provides bindings needed to generated the component. */
 @Module(subcomponents = TopLevelImplementationComponent.class)
@@ -37,6 +38,7 @@ public interface ComponentGeneratorModule {
   // ComponentHjarGenerator, for when generating hjars for components, which can avoid generating
   // the parts of the component that would have been stripped out by the HjarSourceFileGenerator.
   @Binds
-  abstract SourceFileGenerator<ComponentDescriptor> componentHjarGenerator(
+  @HjarComponentGenerator
+  abstract SourceFileGenerator<XTypeElement> componentHjarGenerator(
       ComponentHjarGenerator hjarGenerator);
 }
@@ -18,10 +18,14 @@ package dagger.internal.codegen.componentgenerator;
 
 import static com.google.common.base.CaseFormat.LOWER_CAMEL;
 import static com.google.common.base.CaseFormat.UPPER_CAMEL;
-import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.squareup.javapoet.MethodSpec.constructorBuilder;
+import static dagger.internal.codegen.base.ComponentAnnotation.rootComponentAnnotation;
+import static dagger.internal.codegen.base.ComponentCreatorAnnotation.creatorAnnotationsFor;
+import static dagger.internal.codegen.base.ComponentCreatorAnnotation.getCreatorAnnotations;
 import static dagger.internal.codegen.base.ComponentCreatorKind.BUILDER;
+import static dagger.internal.codegen.base.ModuleAnnotation.moduleAnnotation;
+import static dagger.internal.codegen.extension.DaggerStreams.toImmutableList;
 import static dagger.internal.codegen.javapoet.TypeSpecs.addSupertype;
 import static dagger.internal.codegen.langmodel.Accessibility.isElementAccessibleFrom;
 import static dagger.internal.codegen.writing.ComponentNames.getTopLevelClassName;
@@ -40,20 +44,24 @@ import androidx.room.compiler.processing.XType;
 import androidx.room.compiler.processing.XTypeElement;
 import com.google.common.base.Ascii;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import com.google.common.graph.Traverser;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import dagger.internal.codegen.base.ComponentAnnotation;
 import dagger.internal.codegen.base.ComponentCreatorKind;
+import dagger.internal.codegen.base.DaggerSuperficialValidation;
 import dagger.internal.codegen.base.SourceFileGenerator;
-import dagger.internal.codegen.binding.ComponentCreatorDescriptor;
-import dagger.internal.codegen.binding.ComponentDescriptor;
 import dagger.internal.codegen.binding.ComponentRequirement;
 import dagger.internal.codegen.binding.MethodSignature;
 import dagger.internal.codegen.compileroption.CompilerOptions;
 import dagger.internal.codegen.javapoet.TypeNames;
 import dagger.internal.codegen.xprocessing.MethodSpecs;
+import java.util.LinkedHashSet;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 import javax.inject.Inject;
@@ -70,54 +78,75 @@ import javax.inject.Inject;
  *
  * <p>The components emitted by this processing step include all of the API elements exposed by the
  * normal step. Method bodies are omitted as Turbine ignores them entirely.
+ *
+ * <p>The API is derived directly from the declarations of the component and its creator rather than
+ * from a {@code ComponentDescriptor}, so that header compilation never validates the component or
+ * resolves its component methods and subcomponents.
  */
-final class ComponentHjarGenerator extends SourceFileGenerator<ComponentDescriptor> {
+final class ComponentHjarGenerator extends SourceFileGenerator<XTypeElement> {
   private final XProcessingEnv processingEnv;
   private final CompilerOptions compilerOptions;
+  private final DaggerSuperficialValidation superficialValidation;
 
   @Inject
   ComponentHjarGenerator(
-      XFiler filer, XProcessingEnv processingEnv, CompilerOptions compilerOptions) {
+      XFiler filer,
+      XProcessingEnv processingEnv,
+      CompilerOptions compilerOptions,
+      DaggerSuperficialValidation superficialValidation) {
     super(filer, processingEnv);
     this.processingEnv = processingEnv;
     this.compilerOptions = compilerOptions;
+    this.superficialValidation = superficialValidation;
   }
 
   @Override
-  public XElement originatingElement(ComponentDescriptor input) {
-    return input.typeElement();
+  public XElement originatingElement(XTypeElement componentElement) {
+    return componentElement;
   }
 
   @Override
-  public ImmutableList<TypeSpec.Builder> topLevelTypes(ComponentDescriptor componentDescriptor) {
-    ClassName generatedTypeName = getTopLevelClassName(componentDescriptor);
+  public ImmutableList<TypeSpec.Builder> topLevelTypes(XTypeElement componentElement) {
+    ComponentAnnotation componentAnnotation =
+        rootComponentAnnotation(componentElement, superficialValidation).get();
+    ClassName generatedTypeName = getTopLevelClassName(componentElement);
     TypeSpec.Builder generatedComponent =
         TypeSpec.classBuilder(generatedTypeName)
             .addModifiers(FINAL)
             .addMethod(privateConstructor());
-    if (componentDescriptor.typeElement().isPublic()) {
+    if (componentElement.isPublic()) {
       generatedComponent.addModifiers(PUBLIC);
     }
 
-    XTypeElement componentElement = componentDescriptor.typeElement();
     if (compilerOptions.generatedClassExtendsComponent()) {
       addSupertype(generatedComponent, componentElement);
     }
 
+    ImmutableList<XTypeElement> creators = creators(componentElement, componentAnnotation);
+    if (creators.size() > 1) {
+      // The full compilation reports that the component has more than one creator. Choosing one
+      // here would make the header API depend on declaration order, so nothing is generated.
+      return ImmutableList.of();
+    }
+    Optional<XTypeElement> creator = creators.stream().findFirst();
     TypeName builderMethodReturnType;
     ComponentCreatorKind creatorKind;
     boolean noArgFactoryMethod;
-    if (componentDescriptor.creatorDescriptor().isPresent()) {
-      ComponentCreatorDescriptor creatorDescriptor = componentDescriptor.creatorDescriptor().get();
-      builderMethodReturnType = creatorDescriptor.typeElement().getClassName();
-      creatorKind = creatorDescriptor.kind();
-      noArgFactoryMethod = creatorDescriptor.factoryParameters().isEmpty();
+    if (creator.isPresent()) {
+      ImmutableList<XMethodElement> factoryMethods = factoryMethods(creator.get());
+      if (factoryMethods.size() != 1) {
+        // The full compilation reports a creator without exactly one factory or build method.
+        return ImmutableList.of();
+      }
+      builderMethodReturnType = creator.get().getClassName();
+      creatorKind = getCreatorAnnotations(creator.get()).asList().get(0).creatorKind();
+      noArgFactoryMethod = getOnlyElement(factoryMethods).getParameters().isEmpty();
     } else {
       TypeSpec.Builder builder =
           TypeSpec.classBuilder("Builder")
               .addModifiers(STATIC, FINAL)
               .addMethod(privateConstructor());
-      if (componentDescriptor.typeElement().isPublic()) {
+      if (componentElement.isPublic()) {
         builder.addModifiers(PUBLIC);
       }
 
@@ -125,38 +154,38 @@ final class ComponentHjarGenerator extends SourceFileGenerator<ComponentDescript
       builderMethodReturnType = builderClassName;
       creatorKind = BUILDER;
       noArgFactoryMethod = true;
-      componentRequirements(componentDescriptor)
+      componentRequirements(componentElement, componentAnnotation)
           .map(requirement -> builderSetterMethod(requirement.typeElement(), builderClassName))
           .forEach(builder::addMethod);
-      builder.addMethod(builderBuildMethod(componentDescriptor));
+      builder.addMethod(builderBuildMethod(componentElement));
       generatedComponent.addType(builder.build());
     }
 
     generatedComponent.addMethod(staticCreatorMethod(builderMethodReturnType, creatorKind));
 
     if (noArgFactoryMethod
-        && !hasBindsInstanceMethods(componentDescriptor)
-        && componentRequirements(componentDescriptor)
+        && !hasBindsInstanceMethods(creator)
+        && componentRequirements(componentElement, componentAnnotation)
             .noneMatch(ComponentRequirement::requiresAPassedInstance)) {
-      generatedComponent.addMethod(createMethod(componentDescriptor));
+      generatedComponent.addMethod(createMethod(componentElement));
     }
 
     if (compilerOptions.generatedClassExtendsComponent()) {
       XType componentType = componentElement.getType();
+      ImmutableList<XMethodElement> componentMethods = getAllUnimplementedMethods(componentElement);
       // TODO(ronshapiro): unify with ComponentImplementationBuilder
       Set<MethodSignature> methodSignatures =
-          Sets.newHashSetWithExpectedSize(componentDescriptor.componentMethods().size());
-      componentDescriptor.componentMethods().stream()
+          Sets.newHashSetWithExpectedSize(componentMethods.size());
+      componentMethods.stream()
           .filter(
               method ->
                   methodSignatures.add(
                       MethodSignature.forComponentMethod(method, componentType, processingEnv)))
           .forEach(
               method ->
-                  generatedComponent.addMethod(
-                      emptyComponentMethod(componentElement, method.methodElement())));
+                  generatedComponent.addMethod(emptyComponentMethod(componentElement, method)));
 
-      if (componentDescriptor.isProduction()) {
+      if (componentAnnotation.isProduction()) {
         generatedComponent
             .addSuperinterface(TypeNames.CANCELLATION_LISTENER)
             .addMethod(onProducerFutureCancelledMethod());
@@ -174,31 +203,77 @@ final class ComponentHjarGenerator extends SourceFileGenerator<ComponentDescript
     return constructorBuilder().addModifiers(PRIVATE).build();
   }
 
+  /** Returns the creator types nested in the component. A valid component has at most one. */
+  private static ImmutableList<XTypeElement> creators(
+      XTypeElement componentElement, ComponentAnnotation componentAnnotation) {
+    ImmutableSet<ClassName> creatorAnnotations = creatorAnnotationsFor(componentAnnotation);
+    return componentElement.getEnclosedTypeElements().stream()
+        .filter(type -> creatorAnnotations.stream().anyMatch(type::hasAnnotation))
+        .collect(toImmutableList());
+  }
+
+  /**
+   * Returns the creator's factory or build methods: the methods that return the component type or
+   * one of its supertypes, as in {@code ComponentCreatorDescriptor}. A valid creator has exactly
+   * one.
+   */
+  private static ImmutableList<XMethodElement> factoryMethods(XTypeElement creator) {
+    XType componentType = creator.getEnclosingTypeElement().getType();
+    return getAllUnimplementedMethods(creator).stream()
+        .filter(
+            method -> {
+              XType returnType = method.asMemberOf(creator.getType()).getReturnType();
+              return returnType.isAssignableFrom(componentType);
+            })
+        .collect(toImmutableList());
+  }
+
   /**
-   * Returns the {@link ComponentRequirement}s for a component that does not have a {@link
-   * ComponentDescriptor#creatorDescriptor()}.
+   * Returns the {@link ComponentRequirement}s for a component that does not have a creator.
+   *
+   * <p>The modules are collected from the {@code includes} of the component's modules and their
+   * superclasses, without building a {@code ModuleDescriptor} for each one.
    */
-  private static Stream<ComponentRequirement> componentRequirements(ComponentDescriptor component) {
+  private Stream<ComponentRequirement> componentRequirements(
+      XTypeElement componentElement, ComponentAnnotation componentAnnotation) {
     // TODO(b/152802759): See if you can merge logics that normal component processing and hjar
     // component processing use. So that there would't be a duplicated logic (like the lines below)
     // everytime we modify the generated code for the component.
-    checkArgument(!component.isSubcomponent());
     return Stream.concat(
-        component.dependencies().stream(),
-        component.modules().stream()
+        componentAnnotation.dependencyTypes().stream().map(ComponentRequirement::forDependency),
+        transitiveModules(componentAnnotation.modules()).stream()
             .filter(
                 module ->
-                    !module.moduleElement().isAbstract()
+                    !module.isAbstract()
                         && isElementAccessibleFrom(
-                            module.moduleElement(),
-                            component.typeElement().getClassName().packageName()))
-            .map(module -> ComponentRequirement.forModule(module.moduleElement().getType())));
+                            module, componentElement.getClassName().packageName()))
+            .map(module -> ComponentRequirement.forModule(module.getType())));
+  }
+
+  private ImmutableSet<XTypeElement> transitiveModules(ImmutableSet<XTypeElement> modules) {
+    // Traverse as a graph to automatically handle modules with cyclic includes.
+    return ImmutableSet.copyOf(
+        Traverser.forGraph(this::includedModules).depthFirstPreOrder(modules));
+  }
+
+  private ImmutableSet<XTypeElement> includedModules(XTypeElement module) {
+    return ImmutableSet.copyOf(collectIncludedModules(new LinkedHashSet<>(), module));
+  }
+
+  private Set<XTypeElement> collectIncludedModules(
+      Set<XTypeElement> includedModules, XTypeElement moduleElement) {
+    XType superclass = moduleElement.getSuperType();
+    if (superclass != null && !TypeName.OBJECT.equals(superclass.getTypeName())) {
+      collectIncludedModules(includedModules, superclass.getTypeElement());
+    }
+    moduleAnnotation(moduleElement, superficialValidation)
+        .ifPresent(moduleAnnotation -> includedModules.addAll(moduleAnnotation.includes()));
+    return includedModules;
   }
 
-  private boolean hasBindsInstanceMethods(ComponentDescriptor componentDescriptor) {
-    return componentDescriptor.creatorDescriptor().isPresent()
-        && getAllUnimplementedMethods(componentDescriptor.creatorDescriptor().get().typeElement())
-            .stream()
+  private static boolean hasBindsInstanceMethods(Optional<XTypeElement> creator) {
+    return creator.isPresent()
+        && getAllUnimplementedMethods(creator.get()).stream()
             .anyMatch(method -> isBindsInstance(method));
   }
 
@@ -218,10 +293,10 @@ final class ComponentHjarGenerator extends SourceFileGenerator<ComponentDescript
         .build();
   }
 
-  private static MethodSpec builderBuildMethod(ComponentDescriptor component) {
+  private static MethodSpec builderBuildMethod(XTypeElement componentElement) {
     return MethodSpec.methodBuilder("build")
         .addModifiers(PUBLIC)
-        .returns(component.typeElement().getClassName())
+        .returns(componentElement.getClassName())
         .build();
   }
 
@@ -233,10 +308,10 @@ final class ComponentHjarGenerator extends SourceFileGenerator<ComponentDescript
         .build();
   }
 
-  private static MethodSpec createMethod(ComponentDescriptor componentDescriptor) {
+  private static MethodSpec createMethod(XTypeElement componentElement) {
     return MethodSpec.methodBuilder("create")
         .addModifiers(PUBLIC, STATIC)
-        .returns(componentDescriptor.typeElement().getClassName())
+        .returns(componentElement.getClassName())
         .build();
   }
 
@@ -46,6 +46,26 @@ final class JavacPluginCompilerOptions extends CompilerOptions {
     return false;
   }
 
+  @Override
+  public boolean experimentalWarmUp() {
+    return false;
+  }
+
+  @Override
+  public boolean experimentalScopedInstanceTable() {
+    return false;
+  }
+
+  @Override
+  public boolean experimentalInlineFieldInjection() {
+    return false;
+  }
+
+  @Override
+  public boolean performanceAdvisor() {
+    return false;
+  }
+
   @Override
   public boolean formatGeneratedSource() {
     return false;
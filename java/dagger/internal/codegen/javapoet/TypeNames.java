@@ -53,6 +53,10 @@ public final class TypeNames {
   public static final ClassName SUBCOMPONENT_FACTORY = SUBCOMPONENT.nestedClass("Factory");
 
   // Dagger Internal classnames
+  public static final ClassName COMPONENT_WARM_UP =
+      ClassName.get("dagger.internal", "ComponentWarmUp");
+  public static final ClassName COMPONENT_WARM_UP_INSTANTIATOR =
+      COMPONENT_WARM_UP.nestedClass("Instantiator");
   public static final ClassName DELEGATE_FACTORY =
       ClassName.get("dagger.internal", "DelegateFactory");
   public static final ClassName DOUBLE_CHECK = ClassName.get("dagger.internal", "DoubleCheck");
@@ -67,10 +71,14 @@ public final class TypeNames {
   public static final ClassName MEMBERS_INJECTOR = ClassName.get("dagger", "MembersInjector");
   public static final ClassName MEMBERS_INJECTORS =
       ClassName.get("dagger.internal", "MembersInjectors");
+  public static final ClassName MEMOIZED_PROVIDER =
+      ClassName.get("dagger.internal", "MemoizedProvider");
   public static final ClassName PROVIDER = ClassName.get("javax.inject", "Provider");
   public static final ClassName PROVIDER_OF_LAZY =
       ClassName.get("dagger.internal", "ProviderOfLazy");
   public static final ClassName SCOPE_METADATA = ClassName.get("dagger.internal", "ScopeMetadata");
+  public static final ClassName SCOPED_INSTANCE_TABLE =
+      ClassName.get("dagger.internal", "ScopedInstanceTable");
   public static final ClassName QUALIFIER_METADATA =
       ClassName.get("dagger.internal", "QualifierMetadata");
   public static final ClassName SET_FACTORY = ClassName.get("dagger.internal", "SetFactory");
@@ -80,6 +88,7 @@ public final class TypeNames {
   // Dagger Producers classnames
   public static final ClassName ABSTRACT_PRODUCER =
       ClassName.get("dagger.producers.internal", "AbstractProducer");
+  public static final ClassName CACHEABLE = ClassName.get("dagger.producers", "Cacheable");
   public static final ClassName CANCELLATION_LISTENER =
       ClassName.get("dagger.producers.internal", "CancellationListener");
   public static final ClassName CANCELLATION_POLICY =
@@ -88,6 +97,7 @@ public final class TypeNames {
       ClassName.get("dagger.producers.internal", "DelegateProducer");
   public static final ClassName DEPENDENCY_METHOD_PRODUCER =
       ClassName.get("dagger.producers.internal", "DependencyMethodProducer");
+  public static final ClassName LATENCY_POLICY = ClassName.get("dagger.producers", "LatencyPolicy");
   public static final ClassName MAP_OF_PRODUCED_PRODUCER =
       ClassName.get("dagger.producers.internal", "MapOfProducedProducer");
   public static final ClassName MAP_OF_PRODUCER_PRODUCER =
@@ -119,6 +129,8 @@ public final class TypeNames {
       PRODUCTION_SUBCOMPONENT.nestedClass("Builder");
   public static final ClassName PRODUCTION_SUBCOMPONENT_FACTORY =
       PRODUCTION_SUBCOMPONENT.nestedClass("Factory");
+  public static final ClassName PRODUCER_RESULT_CACHE =
+      ClassName.get("dagger.producers", "ProducerResultCache");
   public static final ClassName PRODUCER_TOKEN =
       ClassName.get("dagger.producers.monitoring", "ProducerToken");
   public static final ClassName PRODUCTION_COMPONENT_MONITOR =
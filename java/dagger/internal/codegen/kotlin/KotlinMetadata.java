@@ -16,6 +16,7 @@
 
 package dagger.internal.codegen.kotlin;
 
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static dagger.internal.codegen.extension.DaggerStreams.toImmutableMap;
 import static dagger.internal.codegen.xprocessing.XElements.getFieldDescriptor;
 import static dagger.internal.codegen.xprocessing.XElements.getSimpleName;
@@ -28,9 +29,10 @@ import com.google.auto.value.AutoValue;
 import com.google.auto.value.extension.memoized.Memoized;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import dagger.internal.codegen.extension.DaggerCollectors;
+import com.google.common.collect.Multimaps;
 import dagger.internal.codegen.javapoet.TypeNames;
 import dagger.internal.codegen.xprocessing.XElements;
 import java.util.HashMap;
@@ -143,10 +145,8 @@ abstract class KotlinMetadata {
       return classMetadata().propertiesByFieldSignature().get(fieldDescriptor);
     } else {
       // Fallback to finding property by name, see: https://youtrack.jetbrains.com/issue/KT-35124
-      final String propertyName = getPropertyNameFromField(field);
-      return classMetadata().propertiesByFieldSignature().values().stream()
-          .filter(property -> propertyName.contentEquals(property.name()))
-          .collect(DaggerCollectors.onlyElement());
+      return getOnlyElement(
+          classMetadata().propertiesByName().get(getPropertyNameFromField(field)));
     }
   }
 
@@ -161,8 +161,17 @@ abstract class KotlinMetadata {
 
   /** Parse Kotlin class metadata from a given type element * */
   static KotlinMetadata from(XTypeElement typeElement) {
-    return new AutoValue_KotlinMetadata(
-        typeElement, ClassVisitor.createClassMetadata(metadataOf(typeElement)));
+    return create(typeElement, decodeClassMetadata(typeElement));
+  }
+
+  /** Returns the metadata of a type element whose class metadata was already decoded. */
+  static KotlinMetadata create(XTypeElement typeElement, ClassMetadata classMetadata) {
+    return new AutoValue_KotlinMetadata(typeElement, classMetadata);
+  }
+
+  /** Decodes the Kotlin class metadata stored in the {@code @Metadata} of a type element. */
+  static ClassMetadata decodeClassMetadata(XTypeElement typeElement) {
+    return ClassVisitor.createClassMetadata(metadataOf(typeElement));
   }
 
   private static KotlinClassMetadata.Class metadataOf(XTypeElement typeElement) {
@@ -327,6 +336,12 @@ abstract class KotlinMetadata {
 
     abstract ImmutableMap<String, PropertyMetadata> propertiesByFieldSignature();
 
+    /** Returns the properties with a backing field, indexed by property name. */
+    @Memoized
+    ImmutableListMultimap<String, PropertyMetadata> propertiesByName() {
+      return Multimaps.index(propertiesByFieldSignature().values(), PropertyMetadata::name);
+    }
+
     static Builder builder() {
       return new AutoValue_KotlinMetadata_ClassMetadata.Builder();
     }
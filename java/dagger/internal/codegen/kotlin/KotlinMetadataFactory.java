@@ -16,14 +16,21 @@
 
 package dagger.internal.codegen.kotlin;
 
+import static androidx.room.compiler.processing.compat.XConverters.toJavac;
 import static dagger.internal.codegen.xprocessing.XElements.closestEnclosingTypeElement;
+import static dagger.internal.codegen.xprocessing.XProcessingEnvs.javacTrees;
 
 import androidx.room.compiler.processing.XElement;
+import androidx.room.compiler.processing.XProcessingEnv;
 import androidx.room.compiler.processing.XTypeElement;
+import com.squareup.javapoet.ClassName;
+import com.sun.source.util.Trees;
 import dagger.internal.codegen.base.ClearableCache;
 import dagger.internal.codegen.javapoet.TypeNames;
+import dagger.internal.codegen.kotlin.KotlinMetadata.ClassMetadata;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -31,14 +38,19 @@ import javax.inject.Singleton;
  * Factory creating Kotlin metadata data objects.
  *
  * <p>The metadata is cache since it can be expensive to parse the information stored in a proto
- * binary string format in the metadata annotation values.
+ * binary string format in the metadata annotation values. The decoded metadata of classes from the
+ * classpath cannot change, so it is kept across processing rounds.
  */
 @Singleton
 public final class KotlinMetadataFactory implements ClearableCache {
+  private final Optional<Trees> trees;
+  private final Map<ClassName, ClassMetadata> classpathMetadataCache = new HashMap<>();
   private final Map<XTypeElement, KotlinMetadata> metadataCache = new HashMap<>();
 
   @Inject
-  KotlinMetadataFactory() {}
+  KotlinMetadataFactory(XProcessingEnv processingEnv) {
+    this.trees = javacTrees(processingEnv);
+  }
 
   /**
    * Parses and returns the {@link KotlinMetadata} out of a given element.
@@ -52,7 +64,22 @@ public final class KotlinMetadataFactory implements ClearableCache {
     if (!enclosingElement.hasAnnotation(TypeNames.KOTLIN_METADATA)) {
       throw new IllegalStateException("Missing @Metadata for: " + enclosingElement);
     }
-    return metadataCache.computeIfAbsent(enclosingElement, KotlinMetadata::from);
+    return metadataCache.computeIfAbsent(enclosingElement, this::createUncached);
+  }
+
+  private KotlinMetadata createUncached(XTypeElement typeElement) {
+    if (!isFromClasspath(typeElement)) {
+      return KotlinMetadata.from(typeElement);
+    }
+    return KotlinMetadata.create(
+        typeElement,
+        classpathMetadataCache.computeIfAbsent(
+            typeElement.getClassName(),
+            unused -> KotlinMetadata.decodeClassMetadata(typeElement)));
+  }
+
+  private boolean isFromClasspath(XTypeElement typeElement) {
+    return trees.isPresent() && trees.get().getTree(toJavac(typeElement)) == null;
   }
 
   @Override
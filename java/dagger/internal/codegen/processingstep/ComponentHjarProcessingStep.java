@@ -16,10 +16,7 @@
 
 package dagger.internal.codegen.processingstep;
 
-import static com.google.common.collect.Sets.union;
 import static dagger.internal.codegen.base.ComponentAnnotation.rootComponentAnnotations;
-import static dagger.internal.codegen.base.ComponentCreatorAnnotation.rootComponentCreatorAnnotations;
-import static java.util.Collections.disjoint;
 
 import androidx.room.compiler.processing.XMessager;
 import androidx.room.compiler.processing.XTypeElement;
@@ -28,10 +25,7 @@ import com.squareup.javapoet.ClassName;
 import dagger.internal.codegen.base.SourceFileGenerator;
 import dagger.internal.codegen.binding.BindingGraph;
 import dagger.internal.codegen.binding.ComponentDescriptor;
-import dagger.internal.codegen.binding.ComponentDescriptorFactory;
-import dagger.internal.codegen.validation.ComponentCreatorValidator;
-import dagger.internal.codegen.validation.ComponentValidator;
-import dagger.internal.codegen.validation.ValidationReport;
+import dagger.internal.codegen.writing.HjarComponentGenerator;
 import java.util.Set;
 import javax.inject.Inject;
 
@@ -46,58 +40,30 @@ import javax.inject.Inject;
  * compilation succeeded.
  *
  * <p>The components emitted by this processing step include all of the API elements exposed by the
- * normal step. Method bodies are omitted as Turbine ignores them entirely.
+ * normal step. Method bodies are omitted as Turbine ignores them entirely. Neither the component
+ * nor its creator is validated, and no {@link ComponentDescriptor} is built.
  */
 final class ComponentHjarProcessingStep extends TypeCheckingProcessingStep<XTypeElement> {
   private final XMessager messager;
-  private final ComponentValidator componentValidator;
-  private final ComponentCreatorValidator creatorValidator;
-  private final ComponentDescriptorFactory componentDescriptorFactory;
-  private final SourceFileGenerator<ComponentDescriptor> componentGenerator;
+  private final SourceFileGenerator<XTypeElement> componentGenerator;
 
   @Inject
   ComponentHjarProcessingStep(
       XMessager messager,
-      ComponentValidator componentValidator,
-      ComponentCreatorValidator creatorValidator,
-      ComponentDescriptorFactory componentDescriptorFactory,
-      SourceFileGenerator<ComponentDescriptor> componentGenerator) {
+      @HjarComponentGenerator SourceFileGenerator<XTypeElement> componentGenerator) {
     this.messager = messager;
-    this.componentValidator = componentValidator;
-    this.creatorValidator = creatorValidator;
-    this.componentDescriptorFactory = componentDescriptorFactory;
     this.componentGenerator = componentGenerator;
   }
 
   @Override
   public Set<ClassName> annotationClassNames() {
-    return union(rootComponentAnnotations(), rootComponentCreatorAnnotations());
+    return rootComponentAnnotations();
   }
 
-  // TODO(ronshapiro): Validation might not even be necessary. We should measure it and figure out
-  // if it's worth seeing if removing it will still work. We could potentially add a new catch
-  // clause for any exception that's not TypeNotPresentException and ignore the component entirely
-  // in that case.
+  // The component and its creator are not validated here: any errors will be reported by the full
+  // compilation, which fails the build even if header compilation succeeded.
   @Override
   protected void process(XTypeElement element, ImmutableSet<ClassName> annotations) {
-    if (!disjoint(annotations, rootComponentAnnotations())) {
-      processRootComponent(element);
-    }
-    if (!disjoint(annotations, rootComponentCreatorAnnotations())) {
-      processRootCreator(element);
-    }
-  }
-
-  private void processRootComponent(XTypeElement element) {
-    ValidationReport validationReport = componentValidator.validate(element);
-    validationReport.printMessagesTo(messager);
-    if (validationReport.isClean()) {
-      componentGenerator.generate(
-          componentDescriptorFactory.rootComponentDescriptor(element), messager);
-    }
-  }
-
-  private void processRootCreator(XTypeElement creator) {
-    creatorValidator.validate(creator).printMessagesTo(messager);
+    componentGenerator.generate(element, messager);
   }
 }
@@ -37,6 +37,7 @@ public interface ProcessingStepsModule {
       AssistedProcessingStep assistedProcessingStep,
       MonitoringModuleProcessingStep monitoringModuleProcessingStep,
       MultibindingAnnotationsProcessingStep multibindingAnnotationsProcessingStep,
+      ProducesMethodAnnotationsProcessingStep producesMethodAnnotationsProcessingStep,
       BindsInstanceProcessingStep bindsInstanceProcessingStep,
       ModuleProcessingStep moduleProcessingStep,
       ComponentProcessingStep componentProcessingStep,
@@ -51,6 +52,7 @@ public interface ProcessingStepsModule {
         assistedProcessingStep,
         monitoringModuleProcessingStep,
         multibindingAnnotationsProcessingStep,
+        producesMethodAnnotationsProcessingStep,
         bindsInstanceProcessingStep,
         moduleProcessingStep,
         compilerOptions.headerCompilation()
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen.processingstep;
+
+import static javax.tools.Diagnostic.Kind.ERROR;
+
+import androidx.room.compiler.processing.XExecutableElement;
+import androidx.room.compiler.processing.XMessager;
+import com.google.common.collect.ImmutableSet;
+import com.squareup.javapoet.ClassName;
+import dagger.internal.codegen.javapoet.TypeNames;
+import javax.inject.Inject;
+
+/**
+ * Processing step that verifies that {@link dagger.producers.Cacheable} and {@link
+ * dagger.producers.LatencyPolicy} are not present on methods other than {@link
+ * dagger.producers.Produces} methods.
+ */
+final class ProducesMethodAnnotationsProcessingStep
+    extends TypeCheckingProcessingStep<XExecutableElement> {
+  private final XMessager messager;
+
+  @Inject
+  ProducesMethodAnnotationsProcessingStep(XMessager messager) {
+    this.messager = messager;
+  }
+
+  @Override
+  public ImmutableSet<ClassName> annotationClassNames() {
+    return ImmutableSet.of(TypeNames.CACHEABLE, TypeNames.LATENCY_POLICY);
+  }
+
+  @Override
+  protected void process(XExecutableElement method, ImmutableSet<ClassName> annotations) {
+    if (!method.hasAnnotation(TypeNames.PRODUCES)) {
+      annotations.forEach(
+          annotation ->
+              messager.printMessage(
+                  ERROR,
+                  String.format("@%s may only be on @Produces methods", annotation.simpleName()),
+                  method,
+                  method.getAnnotation(annotation)));
+    }
+  }
+}
@@ -44,11 +44,9 @@ import androidx.room.compiler.processing.XTypeElement;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Table;
 import dagger.internal.codegen.base.ElementFormatter;
 import dagger.internal.codegen.base.Formatter;
 import dagger.internal.codegen.binding.DependencyRequestFormatter;
@@ -60,8 +58,12 @@ import dagger.spi.model.BindingGraph.MaybeBinding;
 import dagger.spi.model.BindingGraph.Node;
 import dagger.spi.model.ComponentPath;
 import dagger.spi.model.DaggerElement;
+import java.util.ArrayDeque;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.function.Function;
 import javax.inject.Inject;
@@ -95,9 +97,11 @@ public final class DiagnosticMessageGenerator {
   /** A cached function from type to all of its supertypes in breadth-first order. */
   private final Function<XTypeElement, Iterable<XTypeElement>> supertypes;
 
-  /** The shortest path (value) from an entry point (column) to a binding (row). */
-  private final Table<MaybeBinding, DependencyEdge, ImmutableList<Node>> shortestPaths =
-      HashBasedTable.create();
+  /**
+   * A cached function from a binding to the number of nodes in the shortest path from each node
+   * that depends on it.
+   */
+  private final Function<MaybeBinding, Map<Node, Integer>> shortestPathLengthsToBinding;
 
   private static <K, V> Function<K, V> memoize(Function<K, V> uncached) {
     // If Android Guava is on the processor path, then c.g.c.b.Function (which LoadingCache
@@ -128,6 +132,7 @@ public final class DiagnosticMessageGenerator {
     this.elementFormatter = elementFormatter;
     supertypes =
         memoize(component -> transform(component.getType().getSuperTypes(), XType::getTypeElement));
+    shortestPathLengthsToBinding = memoize(this::shortestPathLengthsToBindingUncached);
   }
 
   public String getMessage(MaybeBinding binding) {
@@ -330,21 +335,39 @@ public final class DiagnosticMessageGenerator {
    * is shortest first.
    */
   private Comparator<DependencyEdge> shortestDependencyPathFirst(MaybeBinding binding) {
-    return comparing(entryPoint -> shortestPathFromEntryPoint(entryPoint, binding).size());
+    Map<Node, Integer> shortestPathLengths = shortestPathLengthsToBinding.apply(binding);
+    return comparingInt(
+        entryPoint ->
+            shortestPathLengths.getOrDefault(
+                graph.network().incidentNodes(entryPoint).target(), Integer.MAX_VALUE));
+  }
+
+  private Map<Node, Integer> shortestPathLengthsToBindingUncached(MaybeBinding binding) {
+    // Traverse the graph backwards from the binding once, which finds the shortest path lengths
+    // for all entry points rather than doing a separate traversal for each entry point.
+    Map<Node, Integer> shortestPathLengths = new HashMap<>();
+    Queue<Node> queue = new ArrayDeque<>();
+    shortestPathLengths.put(binding, 1);
+    queue.add(binding);
+    while (!queue.isEmpty()) {
+      Node node = queue.remove();
+      for (Node predecessor :
+          filter(graph.network().predecessors(node), MaybeBinding.class::isInstance)) {
+        if (!shortestPathLengths.containsKey(predecessor)) {
+          shortestPathLengths.put(predecessor, shortestPathLengths.get(node) + 1);
+          queue.add(predecessor);
+        }
+      }
+    }
+    return shortestPathLengths;
   }
 
   private ImmutableList<Node> shortestPathFromEntryPoint(
       DependencyEdge entryPoint, MaybeBinding binding) {
-    return shortestPaths
-        .row(binding)
-        .computeIfAbsent(
-            entryPoint,
-            ep ->
-                shortestPath(
-                    node ->
-                        filter(graph.network().successors(node), MaybeBinding.class::isInstance),
-                    graph.network().incidentNodes(ep).target(),
-                    binding));
+    return shortestPath(
+        node -> filter(graph.network().successors(node), MaybeBinding.class::isInstance),
+        graph.network().incidentNodes(entryPoint).target(),
+        binding);
   }
 
   /**
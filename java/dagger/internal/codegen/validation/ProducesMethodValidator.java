@@ -17,6 +17,7 @@
 package dagger.internal.codegen.validation;
 
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static dagger.internal.codegen.base.RequestKinds.getRequestKind;
 import static dagger.internal.codegen.binding.ConfigurationAnnotations.getNullableAnnotation;
 import static dagger.internal.codegen.validation.BindingElementValidator.AllowsMultibindings.ALLOWS_MULTIBINDINGS;
 import static dagger.internal.codegen.validation.BindingElementValidator.AllowsScoping.NO_SCOPING;
@@ -24,12 +25,15 @@ import static dagger.internal.codegen.validation.BindingMethodValidator.Abstract
 import static dagger.internal.codegen.validation.BindingMethodValidator.ExceptionSuperclass.EXCEPTION;
 import static dagger.internal.codegen.xprocessing.XTypes.isTypeOf;
 
+import androidx.room.compiler.processing.XAnnotation;
+import androidx.room.compiler.processing.XExecutableParameterElement;
 import androidx.room.compiler.processing.XMethodElement;
 import androidx.room.compiler.processing.XProcessingEnv;
 import androidx.room.compiler.processing.XType;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.internal.codegen.binding.InjectionAnnotations;
 import dagger.internal.codegen.javapoet.TypeNames;
+import dagger.spi.model.RequestKind;
 import java.util.Optional;
 import java.util.Set;
 import javax.inject.Inject;
@@ -81,6 +85,8 @@ final class ProducesMethodValidator extends BindingMethodValidator {
     @Override
     protected void checkAdditionalMethodProperties() {
       checkNullable();
+      checkLatencyPolicy();
+      checkCacheable();
     }
 
     /**
@@ -93,6 +99,51 @@ final class ProducesMethodValidator extends BindingMethodValidator {
       }
     }
 
+    /**
+     * Adds an error if the durations of a {@link dagger.producers.LatencyPolicy @LatencyPolicy} are
+     * negative, or if the producer would be hedged after it has already timed out.
+     */
+    private void checkLatencyPolicy() {
+      if (!method.hasAnnotation(TypeNames.LATENCY_POLICY)) {
+        return;
+      }
+      XAnnotation latencyPolicy = method.getAnnotation(TypeNames.LATENCY_POLICY);
+      long timeout = latencyPolicy.getAsLong("timeout");
+      long hedgeAfter = latencyPolicy.getAsLong("hedgeAfter");
+      if (timeout < 0 || hedgeAfter < 0) {
+        report.addError("@LatencyPolicy durations cannot be negative", method, latencyPolicy);
+      } else if (timeout > 0 && hedgeAfter >= timeout) {
+        report.addError(
+            "@LatencyPolicy.hedgeAfter must be less than @LatencyPolicy.timeout",
+            method,
+            latencyPolicy);
+      }
+    }
+
+    /**
+     * Adds an error if a {@link dagger.producers.Cacheable @Cacheable} method has inputs that are
+     * not part of its cache key: its module's state, or dependencies that are not values.
+     */
+    private void checkCacheable() {
+      if (!method.hasAnnotation(TypeNames.CACHEABLE)) {
+        return;
+      }
+      XAnnotation cacheable = method.getAnnotation(TypeNames.CACHEABLE);
+      if (!method.isStatic()) {
+        report.addError("@Cacheable methods must be static", method, cacheable);
+      }
+      for (XExecutableParameterElement parameter : method.getParameters()) {
+        RequestKind requestKind = getRequestKind(parameter.getType());
+        if (!requestKind.equals(RequestKind.INSTANCE)
+            && !requestKind.equals(RequestKind.PRODUCED)) {
+          report.addError(
+              "@Cacheable methods may only depend on values or Produced values, since only "
+                  + "those are part of the cache key",
+              parameter);
+        }
+      }
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -22,10 +22,12 @@ import static com.google.common.base.CaseFormat.UPPER_UNDERSCORE;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Suppliers.memoize;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.squareup.javapoet.MethodSpec.constructorBuilder;
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
 import static com.squareup.javapoet.TypeSpec.classBuilder;
 import static dagger.internal.codegen.base.ComponentCreatorKind.BUILDER;
+import static dagger.internal.codegen.binding.BindingRequest.bindingRequest;
 import static dagger.internal.codegen.binding.SourceFiles.simpleVariableName;
 import static dagger.internal.codegen.extension.DaggerStreams.instancesOf;
 import static dagger.internal.codegen.extension.DaggerStreams.toImmutableList;
@@ -40,6 +42,7 @@ import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
+import static java.util.stream.Collectors.joining;
 import static javax.tools.Diagnostic.Kind.ERROR;
 
 import androidx.room.compiler.processing.XMessager;
@@ -63,19 +66,23 @@ import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import dagger.internal.Preconditions;
 import dagger.internal.codegen.base.ComponentCreatorKind;
 import dagger.internal.codegen.base.UniqueNameSet;
 import dagger.internal.codegen.binding.Binding;
 import dagger.internal.codegen.binding.BindingGraph;
+import dagger.internal.codegen.binding.BindingGraph.TopLevelBindingGraph;
 import dagger.internal.codegen.binding.BindingNode;
 import dagger.internal.codegen.binding.BindingRequest;
+import dagger.internal.codegen.binding.BindingType;
 import dagger.internal.codegen.binding.ComponentCreatorDescriptor;
 import dagger.internal.codegen.binding.ComponentDescriptor;
 import dagger.internal.codegen.binding.ComponentDescriptor.CancellationPolicy;
 import dagger.internal.codegen.binding.ComponentDescriptor.ComponentMethodDescriptor;
 import dagger.internal.codegen.binding.ComponentRequirement;
+import dagger.internal.codegen.binding.ContributionBinding;
 import dagger.internal.codegen.binding.KeyVariableNamer;
 import dagger.internal.codegen.binding.MethodSignature;
 import dagger.internal.codegen.compileroption.CompilerOptions;
@@ -85,6 +92,7 @@ import dagger.internal.codegen.javapoet.TypeSpecs;
 import dagger.internal.codegen.langmodel.Accessibility;
 import dagger.internal.codegen.xprocessing.XTypeElements;
 import dagger.spi.model.BindingGraph.Node;
+import dagger.spi.model.BindingKind;
 import dagger.spi.model.Key;
 import dagger.spi.model.RequestKind;
 import java.util.ArrayList;
@@ -133,6 +141,9 @@ public final class ComponentImplementation {
     /** A framework field for type T, e.g. {@code Provider<T>}. */
     FRAMEWORK_FIELD,
 
+    /** A field for the table that memoizes the instances of scoped bindings. */
+    SCOPED_INSTANCE_TABLE_FIELD,
+
     /** A static field that always returns an absent {@code Optional} value for the binding. */
     ABSENT_OPTIONAL_FIELD
   }
@@ -166,7 +177,10 @@ public final class ComponentImplementation {
      * The {@link dagger.producers.internal.CancellationListener#onProducerFutureCancelled(boolean)}
      * method for a production component.
      */
-    CANCELLATION_LISTENER_METHOD
+    CANCELLATION_LISTENER_METHOD,
+
+    /** A method that instantiates the scoped bindings of the component ahead of time. */
+    WARM_UP_METHOD
   }
 
   /** A type of nested class that this component can contain. */
@@ -238,6 +252,58 @@ public final class ComponentImplementation {
     return partitions.build();
   }
 
+  /**
+   * Returns the scoped bindings owned by this component, grouped for the generated {@code
+   * warmUp(Executor)} method.
+   *
+   * <p>Each element of the returned list is a level, and each level is a list of groups of bindings
+   * that belong to the same strongly connected component. Bindings only depend (directly or
+   * transitively) on scoped bindings in earlier levels, so all groups within a level can be
+   * instantiated concurrently once the previous levels have been instantiated. Bindings that are
+   * part of the same cycle are kept in the same group so that they are always instantiated on the
+   * same thread.
+   */
+  private static ImmutableList<ImmutableList<ImmutableList<Binding>>> warmUpLevels(
+      BindingGraph graph) {
+    TopLevelBindingGraph topLevelBindingGraph = graph.topLevelBindingGraph();
+    Map<Node, Integer> depths = new HashMap<>();
+    ListMultimap<Integer, ImmutableList<Binding>> groupsByDepth =
+        MultimapBuilder.treeKeys().arrayListValues().build();
+    // The strongly connected nodes are in reverse topological order, so the depth of every
+    // dependency has already been computed by the time a set of nodes is visited.
+    for (ImmutableSet<Node> nodes : topLevelBindingGraph.stronglyConnectedNodes()) {
+      int dependencyDepth = 0;
+      for (Node node : nodes) {
+        for (Node dependency : topLevelBindingGraph.network().successors(node)) {
+          if (!nodes.contains(dependency)) {
+            dependencyDepth = Math.max(dependencyDepth, depths.get(dependency));
+          }
+        }
+      }
+      ImmutableList<Binding> group =
+          nodes.stream()
+              .flatMap(instancesOf(BindingNode.class))
+              .filter(bindingNode -> bindingNode.componentPath().equals(graph.componentPath()))
+              .map(BindingNode::delegate)
+              .filter(ComponentImplementation::isWarmUpBinding)
+              .collect(toImmutableList());
+      int depth = group.isEmpty() ? dependencyDepth : dependencyDepth + 1;
+      nodes.forEach(node -> depths.put(node, depth));
+      if (!group.isEmpty()) {
+        groupsByDepth.put(depth, group);
+      }
+    }
+    return groupsByDepth.asMap().values().stream()
+        .map(ImmutableList::copyOf)
+        .collect(toImmutableList());
+  }
+
+  private static boolean isWarmUpBinding(Binding binding) {
+    return binding.bindingType().equals(BindingType.PROVISION)
+        && binding.scope().isPresent()
+        && !binding.scope().get().isReusable();
+  }
+
   /** The boolean parameter of the onProducerFutureCancelled method. */
   public static final ParameterSpec MAY_INTERRUPT_IF_RUNNING_PARAM =
       ParameterSpec.builder(boolean.class, "mayInterruptIfRunning").build();
@@ -250,6 +316,11 @@ public final class ComponentImplementation {
    */
   private static final int STATEMENTS_PER_METHOD = 100;
 
+  /** How many switch cases per {@code warmUpInstance()} method before they get partitioned. */
+  private static final int WARM_UP_CASES_PER_SWITCH = 100;
+
+  private static final String WARM_UP_METHOD_NAME = "warmUp";
+
   private final ShardImplementation componentShard;
   private final Supplier<ImmutableMap<Binding, ShardImplementation>> shardsByBinding;
   private final Map<ShardImplementation, FieldSpec> shardFieldsByImplementation = new HashMap<>();
@@ -416,6 +487,24 @@ public final class ComponentImplementation {
     return compilerMode;
   }
 
+  /**
+   * Returns {@code true} if the instance of the given binding is memoized in the scoped instance
+   * table of its shard rather than in a {@code DoubleCheck}.
+   *
+   * <p>This is only supported in fastInit mode, where a {@code Provider} for the binding can be a
+   * {@code SwitchingProvider} that calls back into the component. Nullable bindings are excluded
+   * because a {@code null} slot means that the instance hasn't been created yet.
+   */
+  boolean usesScopedInstanceTable(ContributionBinding binding) {
+    return compilerOptions.experimentalScopedInstanceTable()
+        && compilerMode.isFastInit()
+        && binding.scope().isPresent()
+        && !binding.scope().get().isReusable()
+        && !binding.isNullable()
+        && (binding.kind().equals(BindingKind.INJECTION)
+            || binding.kind().equals(BindingKind.PROVISION));
+  }
+
   /** Returns whether or not the implementation is nested within another class. */
   private boolean isNested() {
     return name().enclosingClassName() != null;
@@ -457,6 +546,7 @@ public final class ComponentImplementation {
     private final List<CodeBlock> initializations = new ArrayList<>();
     private final SwitchingProviders switchingProviders;
     private final ExperimentalSwitchingProviders experimentalSwitchingProviders;
+    private final ScopedInstanceSlots scopedInstanceSlots;
     private final Map<Key, CodeBlock> cancellations = new LinkedHashMap<>();
     private final Map<XVariableElement, String> uniqueAssistedName = new LinkedHashMap<>();
     private final List<CodeBlock> componentRequirementInitializations = new ArrayList<>();
@@ -475,6 +565,7 @@ public final class ComponentImplementation {
       this.switchingProviders = new SwitchingProviders(this);
       this.experimentalSwitchingProviders =
           new ExperimentalSwitchingProviders(this, componentRequestRepresentationsProvider);
+      this.scopedInstanceSlots = new ScopedInstanceSlots(this);
 
       if (graph.componentDescriptor().isProduction()) {
         claimMethodName(CANCELLATION_LISTENER_METHOD_NAME);
@@ -514,6 +605,11 @@ public final class ComponentImplementation {
       return experimentalSwitchingProviders;
     }
 
+    /** Returns the {@link ScopedInstanceSlots} for this shard. */
+    ScopedInstanceSlots getScopedInstanceSlots() {
+      return scopedInstanceSlots;
+    }
+
     /** Returns the {@link ComponentImplementation} that owns this shard. */
     public ComponentImplementation getComponentImplementation() {
       return ComponentImplementation.this;
@@ -711,6 +807,11 @@ public final class ComponentImplementation {
         addCreator();
         addFactoryMethods();
         addInterfaceMethods();
+        if (compilerOptions.experimentalWarmUp()
+            && graph.componentPath().atRoot()
+            && !graph.componentDescriptor().isProduction()) {
+          addWarmUpMethods();
+        }
         addChildComponents();
         addShards();
       }
@@ -725,6 +826,10 @@ public final class ComponentImplementation {
         }
       }
 
+      scopedInstanceSlots
+          .fieldSpec()
+          .ifPresent(field -> addField(FieldSpecKind.SCOPED_INSTANCE_TABLE_FIELD, field));
+
       modifiers().forEach(builder::addModifiers);
       fieldSpecsMap.asMap().values().forEach(builder::addFields);
       methodSpecsMap.asMap().values().forEach(builder::addMethods);
@@ -879,6 +984,139 @@ public final class ComponentImplementation {
       }
     }
 
+    /**
+     * Adds a {@code warmUp(Executor)} method that instantiates all scoped bindings owned by the
+     * component, along with a static method on the top-level class to call it.
+     */
+    private void addWarmUpMethods() {
+      ImmutableList<ImmutableList<ImmutableList<Binding>>> levels = warmUpLevels(graph);
+      if (levels.isEmpty()) {
+        return;
+      }
+      List<CodeBlock> switchCases = new ArrayList<>();
+      List<Integer> levelOffsets = new ArrayList<>();
+      for (ImmutableList<ImmutableList<Binding>> level : levels) {
+        levelOffsets.add(switchCases.size());
+        for (ImmutableList<Binding> group : level) {
+          switchCases.add(warmUpSwitchCase(switchCases.size(), group));
+        }
+      }
+      levelOffsets.add(switchCases.size());
+
+      ParameterSpec executor = ParameterSpec.builder(TypeNames.EXECUTOR, "executor").build();
+      MethodSpec instantiateMethod = warmUpInstanceMethod(switchCases);
+      TypeSpec instantiator =
+          TypeSpec.anonymousClassBuilder("")
+              .addSuperinterface(TypeNames.COMPONENT_WARM_UP_INSTANTIATOR)
+              .addMethod(
+                  methodBuilder("instantiate")
+                      .addAnnotation(Override.class)
+                      .addModifiers(PUBLIC)
+                      .addParameter(TypeName.INT, "id")
+                      .returns(TypeName.OBJECT)
+                      .addStatement("return $N(id)", instantiateMethod)
+                      .build())
+              .build();
+      MethodSpec warmUpMethod =
+          methodBuilder(getUniqueMethodName(WARM_UP_METHOD_NAME))
+              .addModifiers(PRIVATE)
+              .addParameter(executor)
+              .addException(InterruptedException.class)
+              .addStatement(
+                  "$T.warmUp($N, new int[] {$L}, $L)",
+                  TypeNames.COMPONENT_WARM_UP,
+                  executor,
+                  levelOffsets.stream()
+                      .map(offset -> CodeBlock.of("$L", offset))
+                      .collect(CodeBlocks.toParametersCodeBlock()),
+                  instantiator)
+              .build();
+      addMethod(MethodSpecKind.WARM_UP_METHOD, warmUpMethod);
+
+      ParameterSpec component =
+          ParameterSpec.builder(graph.componentTypeElement().getClassName(), "component").build();
+      topLevelImplementation()
+          .addMethod(
+              MethodSpecKind.WARM_UP_METHOD,
+              methodBuilder(WARM_UP_METHOD_NAME)
+                  .addJavadoc(
+                      "Instantiates all scoped bindings of {@code component}, running independent "
+                          + "bindings concurrently\non {@code executor}. Returns once every "
+                          + "binding has been instantiated.\n")
+                  .addModifiers(PUBLIC, STATIC)
+                  .addParameter(component)
+                  .addParameter(executor)
+                  .addException(InterruptedException.class)
+                  .addStatement("(($T) $N).$N($N)", name(), component, warmUpMethod, executor)
+                  .build());
+    }
+
+    private CodeBlock warmUpSwitchCase(int id, ImmutableList<Binding> group) {
+      ImmutableList<CodeBlock> instances =
+          group.stream()
+              .map(
+                  binding ->
+                      componentRequestRepresentationsProvider
+                          .get()
+                          .getDependencyExpression(
+                              bindingRequest(binding.key(), RequestKind.INSTANCE), name())
+                          .codeBlock())
+              .collect(toImmutableList());
+      return CodeBlock.builder()
+          .add(
+              "case $L: // $L\n",
+              id,
+              group.stream().map(binding -> binding.key().toString()).collect(joining(", ")))
+          .addStatement(
+              instances.size() == 1
+                  ? CodeBlock.of("return $L", getOnlyElement(instances))
+                  // Bindings in a cycle are instantiated together on the same thread.
+                  : CodeBlock.of(
+                      "return new Object[] {$L}", CodeBlocks.makeParametersCodeBlock(instances)))
+          .build();
+    }
+
+    /**
+     * Returns the method that instantiates the bindings for a given warm-up id, partitioning the
+     * switch cases into separate methods when necessary.
+     */
+    private MethodSpec warmUpInstanceMethod(List<CodeBlock> switchCases) {
+      String methodName = getUniqueMethodName("warmUpInstance");
+      List<List<CodeBlock>> partitions = Lists.partition(switchCases, WARM_UP_CASES_PER_SWITCH);
+      if (partitions.size() == 1) {
+        MethodSpec method = warmUpSwitchMethod(methodName, getOnlyElement(partitions));
+        addMethod(MethodSpecKind.WARM_UP_METHOD, method);
+        return method;
+      }
+      MethodSpec.Builder routerMethod =
+          methodBuilder(methodName)
+              .addModifiers(PRIVATE)
+              .addParameter(TypeName.INT, "id")
+              .returns(TypeName.OBJECT)
+              .beginControlFlow("switch (id / $L)", WARM_UP_CASES_PER_SWITCH);
+      for (int i = 0; i < partitions.size(); i++) {
+        MethodSpec method = warmUpSwitchMethod(methodName + i, partitions.get(i));
+        addMethod(MethodSpecKind.WARM_UP_METHOD, method);
+        routerMethod.addStatement("case $L: return $N(id)", i, method);
+      }
+      routerMethod.addStatement("default: throw new $T(id)", AssertionError.class).endControlFlow();
+      MethodSpec method = routerMethod.build();
+      addMethod(MethodSpecKind.WARM_UP_METHOD, method);
+      return method;
+    }
+
+    private MethodSpec warmUpSwitchMethod(String methodName, List<CodeBlock> switchCases) {
+      return methodBuilder(methodName)
+          .addModifiers(PRIVATE)
+          .addParameter(TypeName.INT, "id")
+          .returns(TypeName.OBJECT)
+          .beginControlFlow("switch (id)")
+          .addCode(CodeBlocks.concat(switchCases))
+          .addStatement("default: throw new $T(id)", AssertionError.class)
+          .endControlFlow()
+          .build();
+    }
+
     private void addChildComponents() {
       for (BindingGraph subgraph : graph.subgraphs()) {
         topLevelImplementation()
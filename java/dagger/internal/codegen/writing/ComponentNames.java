@@ -22,6 +22,7 @@ import static dagger.internal.codegen.binding.SourceFiles.classFileName;
 import static dagger.internal.codegen.extension.DaggerCollectors.onlyElement;
 import static java.lang.String.format;
 
+import androidx.room.compiler.processing.XTypeElement;
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableMap;
@@ -52,7 +53,12 @@ public final class ComponentNames {
   /** Returns the class name for the top-level generated class. */
   public static ClassName getTopLevelClassName(ComponentDescriptor componentDescriptor) {
     checkState(!componentDescriptor.isSubcomponent());
-    ClassName componentName = componentDescriptor.typeElement().getClassName();
+    return getTopLevelClassName(componentDescriptor.typeElement());
+  }
+
+  /** Returns the class name for the top-level generated class of the given root component. */
+  public static ClassName getTopLevelClassName(XTypeElement rootComponent) {
+    ClassName componentName = rootComponent.getClassName();
     return ClassName.get(componentName.packageName(), "Dagger" + classFileName(componentName));
   }
 
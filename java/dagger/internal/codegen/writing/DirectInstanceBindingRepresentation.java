@@ -43,6 +43,8 @@ final class DirectInstanceBindingRepresentation {
       immediateFutureRequestRepresentationFactory;
   private final PrivateMethodRequestRepresentation.Factory
       privateMethodRequestRepresentationFactory;
+  private final ScopedInstanceMethodRequestRepresentation.Factory
+      scopedInstanceMethodRequestRepresentationFactory;
   private final UnscopedDirectInstanceRequestRepresentationFactory
       unscopedDirectInstanceRequestRepresentationFactory;
   private final Map<BindingRequest, RequestRepresentation> requestRepresentations = new HashMap<>();
@@ -55,6 +57,8 @@ final class DirectInstanceBindingRepresentation {
       ComponentMethodRequestRepresentation.Factory componentMethodRequestRepresentationFactory,
       ImmediateFutureRequestRepresentation.Factory immediateFutureRequestRepresentationFactory,
       PrivateMethodRequestRepresentation.Factory privateMethodRequestRepresentationFactory,
+      ScopedInstanceMethodRequestRepresentation.Factory
+          scopedInstanceMethodRequestRepresentationFactory,
       UnscopedDirectInstanceRequestRepresentationFactory
           unscopedDirectInstanceRequestRepresentationFactory) {
     this.binding = binding;
@@ -63,6 +67,8 @@ final class DirectInstanceBindingRepresentation {
     this.componentMethodRequestRepresentationFactory = componentMethodRequestRepresentationFactory;
     this.immediateFutureRequestRepresentationFactory = immediateFutureRequestRepresentationFactory;
     this.privateMethodRequestRepresentationFactory = privateMethodRequestRepresentationFactory;
+    this.scopedInstanceMethodRequestRepresentationFactory =
+        scopedInstanceMethodRequestRepresentationFactory;
     this.unscopedDirectInstanceRequestRepresentationFactory =
         unscopedDirectInstanceRequestRepresentationFactory;
   }
@@ -75,6 +81,10 @@ final class DirectInstanceBindingRepresentation {
   private RequestRepresentation getRequestRepresentationUncached(BindingRequest request) {
     switch (request.requestKind()) {
       case INSTANCE:
+        if (componentImplementation.usesScopedInstanceTable(binding)) {
+          return scopedInstanceMethodRequestRepresentationFactory.create(
+              binding, unscopedDirectInstanceRequestRepresentationFactory.create(binding));
+        }
         return requiresMethodEncapsulation(binding)
             ? wrapInMethod(unscopedDirectInstanceRequestRepresentationFactory.create(binding))
             : unscopedDirectInstanceRequestRepresentationFactory.create(binding);
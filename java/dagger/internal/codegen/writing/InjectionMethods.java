@@ -22,6 +22,7 @@ import static androidx.room.compiler.processing.XTypeKt.isVoid;
 import static com.google.common.base.CaseFormat.LOWER_CAMEL;
 import static com.google.common.base.CaseFormat.UPPER_CAMEL;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
 import static dagger.internal.codegen.binding.AssistedInjectionAnnotations.isAssistedParameter;
 import static dagger.internal.codegen.binding.ConfigurationAnnotations.getNullableType;
@@ -47,6 +48,7 @@ import static dagger.internal.codegen.xprocessing.XElements.asTypeElement;
 import static dagger.internal.codegen.xprocessing.XElements.getSimpleName;
 import static dagger.internal.codegen.xprocessing.XProcessingEnvs.erasure;
 import static dagger.internal.codegen.xprocessing.XProcessingEnvs.isSubtype;
+import static dagger.internal.codegen.xprocessing.XTypeElements.hasTypeParameters;
 import static dagger.internal.codegen.xprocessing.XTypeElements.typeVariableNames;
 import static java.util.stream.Collectors.toList;
 import static javax.lang.model.element.Modifier.PUBLIC;
@@ -84,6 +86,7 @@ import dagger.spi.model.DependencyRequest;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import javax.lang.model.SourceVersion;
 
 /** Convenience methods for creating and invoking {@link InjectionMethod}s. */
@@ -284,12 +287,49 @@ final class InjectionMethods {
         XType instanceType,
         Function<DependencyRequest, CodeBlock> dependencyUsage,
         XProcessingEnv processingEnv) {
+      return invokeAll(
+          injectionSites,
+          generatedTypeName,
+          instanceCodeBlock,
+          instanceType,
+          dependencyUsage,
+          injectionSite -> false,
+          processingEnv);
+    }
+
+    /**
+     * Invokes each of the injection methods for {@code injectionSites}, with the dependencies
+     * transformed using the {@code dependencyUsage} function. {@code @Inject} fields that match
+     * {@code assignFieldDirectly} are assigned directly instead of through their injection method
+     * if they are accessible from {@code generatedTypeName}.
+     *
+     * @param instanceType the type of the {@code instance} parameter
+     */
+    static CodeBlock invokeAll(
+        ImmutableSet<InjectionSite> injectionSites,
+        ClassName generatedTypeName,
+        CodeBlock instanceCodeBlock,
+        XType instanceType,
+        Function<DependencyRequest, CodeBlock> dependencyUsage,
+        Predicate<InjectionSite> assignFieldDirectly,
+        XProcessingEnv processingEnv) {
       return injectionSites.stream()
           .map(
               injectionSite -> {
                 XType injectSiteType =
                     erasure(injectionSite.enclosingTypeElement().getType(), processingEnv);
 
+                if (assignFieldDirectly.test(injectionSite)
+                    && isFieldAssignableFrom(injectionSite, generatedTypeName)) {
+                  return assignField(
+                      injectionSite,
+                      instanceCodeBlock,
+                      instanceType,
+                      injectSiteType,
+                      dependencyUsage,
+                      processingEnv);
+                }
+
                 // If instance has been declared as Object because it is not accessible from the
                 // component, but the injectionSite is in a supertype of instanceType that is
                 // publicly accessible, the InjectionSiteMethod will request the actual type and not
@@ -328,6 +368,43 @@ final class InjectionMethods {
       return invokeMethod(methodSpec, arguments.build(), enclosingClass, generatedTypeName);
     }
 
+    /**
+     * Returns {@code true} if the {@code @Inject} field for {@code injectionSite} can be assigned
+     * directly from {@code generatedTypeName}.
+     */
+    private static boolean isFieldAssignableFrom(
+        InjectionSite injectionSite, ClassName generatedTypeName) {
+      if (!injectionSite.kind().equals(InjectionSite.Kind.FIELD)
+          // The instance is cast to the erased type that declares the field, which would make the
+          // assignment unchecked for a generic type.
+          || hasTypeParameters(injectionSite.enclosingTypeElement())) {
+        return false;
+      }
+      XFieldElement field = asField(injectionSite.element());
+      return isElementAccessibleFrom(field, generatedTypeName.packageName())
+          && isTypeAccessibleFrom(field.getType(), generatedTypeName.packageName());
+    }
+
+    private static CodeBlock assignField(
+        InjectionSite injectionSite,
+        CodeBlock instanceCodeBlock,
+        XType instanceType,
+        XType injectSiteType,
+        Function<DependencyRequest, CodeBlock> dependencyUsage,
+        XProcessingEnv processingEnv) {
+      // Unless the instance is of the type that declares the field, cast it to that type since a
+      // field with the same name in a subtype would hide it.
+      CodeBlock instance =
+          erasure(instanceType, processingEnv).isSameType(injectSiteType)
+              ? instanceCodeBlock
+              : CodeBlock.of("(($T) $L)", injectSiteType.getTypeName(), instanceCodeBlock);
+      return CodeBlock.of(
+          "$L.$N = $L;",
+          instance,
+          getSimpleName(injectionSite.element()),
+          dependencyUsage.apply(getOnlyElement(injectionSite.dependencies())));
+    }
+
     /*
      * TODO(ronshapiro): this isn't perfect, as collisions could still exist. Some examples:
      *
@@ -40,7 +40,9 @@ import dagger.internal.codegen.binding.BindingGraph;
 import dagger.internal.codegen.binding.MembersInjectionBinding;
 import dagger.internal.codegen.binding.MembersInjectionBinding.InjectionSite;
 import dagger.internal.codegen.binding.ProvisionBinding;
+import dagger.internal.codegen.compileroption.CompilerOptions;
 import dagger.internal.codegen.javapoet.Expression;
+import dagger.internal.codegen.kotlin.KotlinMetadataUtil;
 import dagger.internal.codegen.writing.ComponentImplementation.ShardImplementation;
 import dagger.internal.codegen.writing.InjectionMethods.InjectionSiteMethod;
 import dagger.spi.model.Key;
@@ -57,17 +59,23 @@ final class MembersInjectionMethods {
   private final ComponentRequestRepresentations bindingExpressions;
   private final BindingGraph graph;
   private final XProcessingEnv processingEnv;
+  private final CompilerOptions compilerOptions;
+  private final KotlinMetadataUtil metadataUtil;
 
   @Inject
   MembersInjectionMethods(
       ComponentImplementation componentImplementation,
       ComponentRequestRepresentations bindingExpressions,
       BindingGraph graph,
-      XProcessingEnv processingEnv) {
+      XProcessingEnv processingEnv,
+      CompilerOptions compilerOptions,
+      KotlinMetadataUtil metadataUtil) {
     this.componentImplementation = componentImplementation;
     this.bindingExpressions = bindingExpressions;
     this.graph = graph;
     this.processingEnv = processingEnv;
+    this.compilerOptions = compilerOptions;
+    this.metadataUtil = metadataUtil;
   }
 
   /**
@@ -163,6 +171,7 @@ final class MembersInjectionMethods {
                         : bindingExpressions.getDependencyArgumentExpression(
                             request, shardImplementation.name()))
                     .codeBlock(),
+            injectionSite -> !useStaticInjectionMethod && assignFieldDirectly(injectionSite),
             processingEnv));
     methodBuilder.addStatement("return $L", instance);
 
@@ -171,6 +180,18 @@ final class MembersInjectionMethods {
     return Expression.create(membersInjectedType, CodeBlock.of("$N", method));
   }
 
+  /**
+   * Returns {@code true} if the {@code @Inject} field for the given injection site should be
+   * assigned directly in the members injection method, rather than through its {@code
+   * MembersInjector}.
+   */
+  private boolean assignFieldDirectly(InjectionSite injectionSite) {
+    // The backing fields of Kotlin properties don't necessarily have the property's visibility, so
+    // always go through the MembersInjector for them.
+    return compilerOptions.experimentalInlineFieldInjection()
+        && !metadataUtil.hasMetadata(injectionSite.element());
+  }
+
   private static ImmutableSet<InjectionSite> injectionSites(Binding binding) {
     if (binding instanceof ProvisionBinding) {
       return ((ProvisionBinding) binding).injectionSites();
@@ -48,6 +48,7 @@ import static javax.lang.model.element.Modifier.PROTECTED;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
 
+import androidx.room.compiler.processing.XAnnotation;
 import androidx.room.compiler.processing.XElement;
 import androidx.room.compiler.processing.XFiler;
 import androidx.room.compiler.processing.XProcessingEnv;
@@ -84,6 +85,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 
 /** Generates {@link Producer} implementations from {@link ProductionBinding} instances. */
@@ -142,6 +144,7 @@ public final class ProducerFactoryGenerator extends SourceFileGenerator<Producti
 
     String executorParameterName = null;
     String monitorParameterName = null;
+    String resultCacheParameterName = null;
     ImmutableMap<DependencyRequest, FrameworkField> bindingFieldsForDependencies =
         generateBindingFieldsForDependencies(binding);
     for (Entry<DependencyRequest, FrameworkField> entry : bindingFieldsForDependencies.entrySet()) {
@@ -155,6 +158,9 @@ public final class ProducerFactoryGenerator extends SourceFileGenerator<Producti
       } else if (key.equals(keyFactory.forProductionComponentMonitor())) {
         monitorParameterName = fieldName;
         constructorBuilder.addParameter(bindingField.type(), monitorParameterName);
+      } else if (binding.resultCacheRequest().equals(Optional.of(dependency))) {
+        resultCacheParameterName = fieldName;
+        constructorBuilder.addParameter(bindingField.type(), resultCacheParameterName);
       } else {
         FieldSpec field =
             addFieldAndConstructorParameter(
@@ -165,11 +171,20 @@ public final class ProducerFactoryGenerator extends SourceFileGenerator<Producti
     }
     ImmutableMap<DependencyRequest, FieldSpec> fields = fieldsBuilder.build();
 
-    constructorBuilder.addStatement(
-        "super($N, $L, $N)",
-        verifyNotNull(monitorParameterName),
-        producerTokenConstruction(generatedTypeName, binding),
-        verifyNotNull(executorParameterName));
+    if (resultCacheParameterName == null) {
+      constructorBuilder.addStatement(
+          "super($N, $L, $N)",
+          verifyNotNull(monitorParameterName),
+          producerTokenConstruction(generatedTypeName, binding),
+          verifyNotNull(executorParameterName));
+    } else {
+      constructorBuilder.addStatement(
+          "super($N, $L, $N, $N)",
+          verifyNotNull(monitorParameterName),
+          producerTokenConstruction(generatedTypeName, binding),
+          verifyNotNull(executorParameterName),
+          resultCacheParameterName);
+    }
 
     if (binding.requiresModuleInstance()) {
       assignField(constructorBuilder, moduleField.get(), null);
@@ -223,6 +238,7 @@ public final class ProducerFactoryGenerator extends SourceFileGenerator<Producti
         .addMethod(staticFactoryMethod(binding, constructor))
         .addMethod(collectDependenciesBuilder.build())
         .addMethod(callProducesMethod.build());
+    addLatencyPolicyMethods(factoryBuilder, binding);
 
     gwtIncompatibleAnnotation(binding).ifPresent(factoryBuilder::addAnnotation);
 
@@ -230,6 +246,37 @@ public final class ProducerFactoryGenerator extends SourceFileGenerator<Producti
     return ImmutableList.of(factoryBuilder);
   }
 
+  /**
+   * Overrides the timeout and hedge delay of the producer if its method is annotated with {@code
+   * LatencyPolicy}.
+   */
+  private static void addLatencyPolicyMethods(
+      TypeSpec.Builder factoryBuilder, ProductionBinding binding) {
+    XElement bindingElement = binding.bindingElement().get();
+    if (!bindingElement.hasAnnotation(TypeNames.LATENCY_POLICY)) {
+      return;
+    }
+    XAnnotation latencyPolicy = bindingElement.getAnnotation(TypeNames.LATENCY_POLICY);
+    TimeUnit unit = TimeUnit.valueOf(getSimpleName(latencyPolicy.getAsEnum("unit")));
+    long timeoutNanos = unit.toNanos(latencyPolicy.getAsLong("timeout"));
+    if (timeoutNanos > 0) {
+      factoryBuilder.addMethod(nanosMethod("timeoutNanos", timeoutNanos));
+    }
+    long hedgeDelayNanos = unit.toNanos(latencyPolicy.getAsLong("hedgeAfter"));
+    if (hedgeDelayNanos > 0) {
+      factoryBuilder.addMethod(nanosMethod("hedgeDelayNanos", hedgeDelayNanos));
+    }
+  }
+
+  private static MethodSpec nanosMethod(String methodName, long nanos) {
+    return methodBuilder(methodName)
+        .addAnnotation(Override.class)
+        .addModifiers(PROTECTED)
+        .returns(TypeName.LONG)
+        .addStatement("return $LL", nanos)
+        .build();
+  }
+
   private MethodSpec staticFactoryMethod(ProductionBinding binding, MethodSpec constructor) {
     return MethodSpec.methodBuilder("create")
         .addModifiers(PUBLIC, STATIC)
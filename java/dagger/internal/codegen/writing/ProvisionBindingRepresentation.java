@@ -36,6 +36,7 @@ import dagger.spi.model.RequestKind;
 final class ProvisionBindingRepresentation implements BindingRepresentation {
   private final BindingGraph graph;
   private final CompilerMode compilerMode;
+  private final boolean usesScopedInstanceTable;
   private final ProvisionBinding binding;
   private final DirectInstanceBindingRepresentation directInstanceBindingRepresentation;
   private final FrameworkInstanceBindingRepresentation frameworkInstanceBindingRepresentation;
@@ -54,6 +55,7 @@ final class ProvisionBindingRepresentation implements BindingRepresentation {
     this.binding = binding;
     this.graph = graph;
     this.compilerMode = componentImplementation.compilerMode();
+    this.usesScopedInstanceTable = componentImplementation.usesScopedInstanceTable(binding);
     this.directInstanceBindingRepresentation =
         directInstanceBindingRepresentationFactory.create(binding);
     FrameworkInstanceSupplier frameworkInstanceSupplier = null;
@@ -88,6 +90,12 @@ final class ProvisionBindingRepresentation implements BindingRepresentation {
       return false;
     }
 
+    // Instances memoized in the scoped instance table are always requested directly, and the
+    // framework instance (if any) is a SwitchingProvider that delegates to the direct instance.
+    if (usesScopedInstanceTable) {
+      return true;
+    }
+
     // In fast init mode, we can avoid generating direct instance expressions if a framework
     // instance expression already exists in the graph. Default mode has more edge cases, so can not
     // be handled with simple pre-check in the graph. For example, a provider for a subcomponent
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen.writing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static dagger.internal.codegen.binding.BindingRequest.bindingRequest;
+import static dagger.internal.codegen.javapoet.AnnotationSpecs.Suppression.UNCHECKED;
+import static dagger.internal.codegen.javapoet.AnnotationSpecs.suppressWarnings;
+import static dagger.internal.codegen.langmodel.Accessibility.accessibleType;
+import static dagger.internal.codegen.writing.ComponentImplementation.MethodSpecKind.PRIVATE_METHOD;
+import static javax.lang.model.element.Modifier.PRIVATE;
+
+import androidx.room.compiler.processing.XProcessingEnv;
+import androidx.room.compiler.processing.XType;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import dagger.assisted.Assisted;
+import dagger.assisted.AssistedFactory;
+import dagger.assisted.AssistedInject;
+import dagger.internal.codegen.binding.BindingRequest;
+import dagger.internal.codegen.binding.ProvisionBinding;
+import dagger.internal.codegen.writing.ComponentImplementation.ShardImplementation;
+import dagger.spi.model.RequestKind;
+
+/**
+ * A binding expression for a scoped binding whose instance is memoized in the {@code
+ * dagger.internal.ScopedInstanceTable} of its shard.
+ *
+ * <p>The double-check is written out in a private, no-arg method, so dependents of this binding
+ * expression will just call that method.
+ */
+final class ScopedInstanceMethodRequestRepresentation extends MethodRequestRepresentation {
+  private final ShardImplementation shardImplementation;
+  private final ProvisionBinding binding;
+  private final BindingRequest request;
+  private final RequestRepresentation unscopedInstanceRequestRepresentation;
+  private final XProcessingEnv processingEnv;
+  private String methodName;
+
+  @AssistedInject
+  ScopedInstanceMethodRequestRepresentation(
+      @Assisted ProvisionBinding binding,
+      @Assisted RequestRepresentation unscopedInstanceRequestRepresentation,
+      ComponentImplementation componentImplementation,
+      XProcessingEnv processingEnv) {
+    super(componentImplementation.shardImplementation(binding), processingEnv);
+    this.binding = checkNotNull(binding);
+    this.request = bindingRequest(binding.key(), RequestKind.INSTANCE);
+    this.unscopedInstanceRequestRepresentation =
+        checkNotNull(unscopedInstanceRequestRepresentation);
+    this.shardImplementation = componentImplementation.shardImplementation(binding);
+    this.processingEnv = processingEnv;
+  }
+
+  @Override
+  protected CodeBlock methodCall() {
+    return CodeBlock.of("$N()", methodName());
+  }
+
+  @Override
+  protected XType returnType() {
+    // The instance is always boxed in the table, so never return the contributed primitive type.
+    XType requestedType = request.requestedType(binding.contributedType(), processingEnv);
+    return accessibleType(requestedType, shardImplementation.name(), processingEnv);
+  }
+
+  private String methodName() {
+    if (methodName == null) {
+      // Have to set methodName field before implementing the method in order to handle recursion.
+      methodName = shardImplementation.getUniqueMethodName(request);
+
+      ScopedInstanceSlots scopedInstanceSlots = shardImplementation.getScopedInstanceSlots();
+      int slot = scopedInstanceSlots.slot(binding.key());
+      String table = scopedInstanceSlots.fieldName();
+      TypeName returnType = returnType().getTypeName();
+      MethodSpec.Builder method =
+          methodBuilder(methodName)
+              .addModifiers(PRIVATE)
+              .returns(returnType)
+              .beginControlFlow("if ($N.get($L) == null)", table, slot)
+              .beginControlFlow("synchronized ($N.lock($L))", table, slot)
+              .beginControlFlow("if ($N.get($L) == null)", table, slot)
+              .addStatement(
+                  "$N.memoize($L, $L)",
+                  table,
+                  slot,
+                  unscopedInstanceRequestRepresentation
+                      .getDependencyExpression(shardImplementation.name())
+                      .box()
+                      .codeBlock())
+              .endControlFlow()
+              .endControlFlow()
+              .endControlFlow()
+              .addStatement("return ($T) $N.get($L)", returnType, table, slot);
+      if (returnType instanceof ParameterizedTypeName) {
+        method.addAnnotation(suppressWarnings(UNCHECKED));
+      }
+      shardImplementation.addMethod(PRIVATE_METHOD, method.build());
+    }
+    return methodName;
+  }
+
+  @AssistedFactory
+  static interface Factory {
+    ScopedInstanceMethodRequestRepresentation create(
+        ProvisionBinding binding, RequestRepresentation unscopedInstanceRequestRepresentation);
+  }
+}
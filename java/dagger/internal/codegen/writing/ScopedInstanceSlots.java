@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen.writing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+
+import com.squareup.javapoet.FieldSpec;
+import dagger.internal.codegen.javapoet.TypeNames;
+import dagger.internal.codegen.writing.ComponentImplementation.ShardImplementation;
+import dagger.spi.model.Key;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps track of the slots in the {@code dagger.internal.ScopedInstanceTable} of a shard.
+ *
+ * <p>Each scoped binding that is memoized in the table is assigned its own slot, and the table
+ * field is only added to the shard if at least one slot was assigned.
+ */
+final class ScopedInstanceSlots {
+  private final Map<Key, Integer> slots = new LinkedHashMap<>();
+  private final ShardImplementation shardImplementation;
+  private String fieldName;
+
+  ScopedInstanceSlots(ShardImplementation shardImplementation) {
+    this.shardImplementation = checkNotNull(shardImplementation);
+  }
+
+  /** Returns the slot for the given key, assigning a new one if needed. */
+  int slot(Key key) {
+    return slots.computeIfAbsent(key, unused -> slots.size());
+  }
+
+  /** Returns the name of the table field in the shard. */
+  String fieldName() {
+    if (fieldName == null) {
+      fieldName = shardImplementation.getUniqueFieldName("scopedInstances");
+    }
+    return fieldName;
+  }
+
+  /** Returns the table field, or {@link Optional#empty()} if no slots were assigned. */
+  Optional<FieldSpec> fieldSpec() {
+    if (slots.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        FieldSpec.builder(TypeNames.SCOPED_INSTANCE_TABLE, fieldName(), PRIVATE, FINAL)
+            .initializer("new $T($L)", TypeNames.SCOPED_INSTANCE_TABLE, slots.size())
+            .build());
+  }
+}
@@ -16,7 +16,9 @@
 
 package dagger.internal.codegen.writing;
 
+import static dagger.internal.codegen.binding.BindingRequest.bindingRequest;
 import static dagger.internal.codegen.javapoet.TypeNames.DOUBLE_CHECK;
+import static dagger.internal.codegen.javapoet.TypeNames.MEMOIZED_PROVIDER;
 import static dagger.internal.codegen.javapoet.TypeNames.SINGLE_CHECK;
 
 import com.squareup.javapoet.CodeBlock;
@@ -29,6 +31,7 @@ import dagger.internal.codegen.binding.ProvisionBinding;
 import dagger.internal.codegen.writing.ComponentImplementation.ShardImplementation;
 import dagger.internal.codegen.writing.FrameworkFieldInitializer.FrameworkInstanceCreationExpression;
 import dagger.spi.model.BindingKind;
+import dagger.spi.model.RequestKind;
 
 /**
  * An object that initializes a framework-type component field for a binding using instances created
@@ -42,9 +45,32 @@ final class SwitchingProviderInstanceSupplier implements FrameworkInstanceSuppli
       @Assisted ProvisionBinding binding,
       BindingGraph graph,
       ComponentImplementation componentImplementation,
+      ComponentRequestRepresentations componentRequestRepresentations,
       UnscopedDirectInstanceRequestRepresentationFactory
           unscopedDirectInstanceRequestRepresentationFactory) {
     ShardImplementation shardImplementation = componentImplementation.shardImplementation(binding);
+    if (componentImplementation.usesScopedInstanceTable(binding)) {
+      // The instance is already memoized by the scoped instance table, so the SwitchingProvider
+      // just delegates to the direct instance rather than being wrapped in a DoubleCheck. It is
+      // wrapped in a MemoizedProvider instead so that Lazy requests can share it. The direct
+      // instance is looked up lazily since its binding representation is being created.
+      this.frameworkInstanceSupplier =
+          new FrameworkFieldInitializer(
+              componentImplementation,
+              binding,
+              () ->
+                  CodeBlock.of(
+                      "$T.provider($L)",
+                      MEMOIZED_PROVIDER,
+                      shardImplementation
+                          .getSwitchingProviders()
+                          .newFrameworkInstanceCreationExpression(
+                              binding,
+                              componentRequestRepresentations.getRequestRepresentation(
+                                  bindingRequest(binding.key(), RequestKind.INSTANCE)))
+                          .creationExpression()));
+      return;
+    }
     FrameworkInstanceCreationExpression frameworkInstanceCreationExpression =
         componentImplementation.compilerMode().isExperimentalMergedMode()
             ? shardImplementation.getExperimentalSwitchingProviders()
@@ -27,6 +27,7 @@ import androidx.room.compiler.processing.XType;
 import androidx.room.compiler.processing.XTypeElement;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.TypeName;
+import com.sun.source.util.Trees;
 import java.util.Optional;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.type.TypeKind;
@@ -55,6 +56,22 @@ public final class XProcessingEnvs {
     throw new AssertionError("Unexpected backend: " + processingEnv.getBackend());
   }
 
+  /**
+   * Returns the javac {@link Trees} of the current compilation, or an empty optional if the sources
+   * are not being compiled with javac.
+   */
+  public static Optional<Trees> javacTrees(XProcessingEnv processingEnv) {
+    if (processingEnv.getBackend() != XProcessingEnv.Backend.JAVAC) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(Trees.instance(toJavac(processingEnv)));
+    } catch (IllegalArgumentException e) {
+      // The processing environment is not javac's own, so its trees aren't available.
+      return Optional.empty();
+    }
+  }
+
   /**
    * Returns {@code true} if {@code overrider} overrides {@code overridden} from within {@code type}
    */
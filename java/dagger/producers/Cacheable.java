@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+import dagger.internal.Beta;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Annotates a static {@linkplain Produces producer method} whose result is determined by the
+ * values of its dependencies, so that its results can be shared through a {@link
+ * ProducerResultCache}.
+ *
+ * <p>The component must bind a {@link ProducerResultCache}. When the producer runs, the values of
+ * its dependencies are looked up in the cache, along with the identity of the producer method. If
+ * another component that sees the same cache has already called the method with equal values, its
+ * result is reused instead of calling the method again.
+ *
+ * <p>Since only dependency values are part of the key, the method must be static, and it may only
+ * request its dependencies as values or as {@link Produced} values, not as {@link
+ * javax.inject.Provider}, {@link dagger.Lazy} or {@link Producer}.
+ */
+@Documented
+@Target(METHOD)
+@Retention(CLASS)
+@Beta
+public @interface Cacheable {}
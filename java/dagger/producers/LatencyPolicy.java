@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+import dagger.internal.Beta;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotates a {@linkplain Produces producer method} to bound its latency.
+ *
+ * <p>If the producer has not completed within {@link #timeout()} of being requested, its future
+ * fails with a {@link java.util.concurrent.TimeoutException}. Producers that depend on it fail as
+ * well, unless they tolerate its failure by requesting it as {@link Produced}. The timeout cancels
+ * the future returned by the producer method, but it does not interrupt a producer method that is
+ * still running; that method runs until it returns, and its result is ignored.
+ *
+ * <p>Hedging only applies to producer methods that return a {@link
+ * com.google.common.util.concurrent.ListenableFuture}. If the future returned by the method has
+ * not completed within {@link #hedgeAfter()} of the method returning it, the method is called a
+ * second time, on the component's {@linkplain Production executor} and with the same inputs. The
+ * producer takes the result of whichever call completes first, and the other call's future is
+ * cancelled. A method that returns its value directly, or blocks until its future is done, is
+ * never hedged, however long it takes. Hedging therefore only makes sense for methods that are
+ * safe to call twice, e.g. idempotent calls to a backend with a long latency tail. A typical value
+ * is a high percentile of the latency of the method's future, as recorded by a {@link
+ * dagger.producers.monitoring.ProducerTimingRecorder}.
+ */
+@Documented
+@Target(METHOD)
+@Retention(CLASS)
+@Beta
+public @interface LatencyPolicy {
+  /**
+   * The time after which the producer fails with a {@link java.util.concurrent.TimeoutException},
+   * or {@code 0} for no timeout.
+   */
+  long timeout() default 0;
+
+  /**
+   * The time after which the producer method is called a second time if the future returned by its
+   * first call has not completed, or {@code 0} to never hedge. Must be less than {@link #timeout()}
+   * if both are set.
+   */
+  long hedgeAfter() default 0;
+
+  /** The unit of {@link #timeout()} and {@link #hedgeAfter()}. */
+  TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
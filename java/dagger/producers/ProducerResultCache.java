@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.internal.Beta;
+import dagger.producers.monitoring.ProducerToken;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A bounded cache of the results of {@link Cacheable @Cacheable} producer methods, keyed by the
+ * producer and the values of its dependencies.
+ *
+ * <p>Every {@code @Cacheable} producer in a component that binds a {@code ProducerResultCache}
+ * uses it, and every component that sees the same cache instance shares its results. For example,
+ * binding a cache in a {@link ProductionScope @ProductionScope} of a parent component lets sibling
+ * {@linkplain ProductionSubcomponent subcomponents} created in the same request reuse each other's
+ * results: <pre><code>
+ *   {@literal @Module}
+ *   final class ResultCacheModule {
+ *     {@literal @Provides @ProductionScope}
+ *     static ProducerResultCache resultCache() {
+ *       return ProducerResultCache.create(1000);
+ *     }
+ *   }
+ * </code></pre>
+ *
+ * <p>Failed and cancelled results are not cached. A cached result is reported to producer monitors
+ * with {@link dagger.producers.monitoring.ProducerMonitor#cacheHit()} instead of {@link
+ * dagger.producers.monitoring.ProducerMonitor#methodStarting()} and {@link
+ * dagger.producers.monitoring.ProducerMonitor#methodFinished()}.
+ *
+ * <p>Instances may only be created with {@link #create(long)}.
+ */
+@Beta
+public final class ProducerResultCache {
+  /** Returns a new cache that holds at most {@code maximumSize} results. */
+  public static ProducerResultCache create(long maximumSize) {
+    checkArgument(maximumSize > 0, "maximumSize must be positive: %s", maximumSize);
+    return new ProducerResultCache(maximumSize);
+  }
+
+  private final ConcurrentMap<CacheKey, ListenableFuture<?>> results;
+
+  private ProducerResultCache(long maximumSize) {
+    this.results =
+        CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .<CacheKey, ListenableFuture<?>>build()
+            .asMap();
+  }
+
+  /**
+   * Returns the cached result of the producer for the given dependencies, or stores {@code result}
+   * and returns {@code null} if there is none. {@code result} is evicted if it fails or is
+   * cancelled.
+   *
+   * <p>This is only intended to be called by the framework!
+   */
+  @NullableDecl
+  @SuppressWarnings("unchecked") // Results are only cached under the token of their producer.
+  public <T> ListenableFuture<T> putIfAbsent(
+      ProducerToken token, @NullableDecl Object dependencies, final ListenableFuture<T> result) {
+    final CacheKey key = new CacheKey(token, dependencies);
+    ListenableFuture<?> cached = results.putIfAbsent(key, result);
+    if (cached != null) {
+      return (ListenableFuture<T>) cached;
+    }
+    result.addListener(
+        new Runnable() {
+          @Override
+          public void run() {
+            if (!isSuccessful(result)) {
+              results.remove(key, result);
+            }
+          }
+        },
+        directExecutor());
+    return null;
+  }
+
+  private static boolean isSuccessful(ListenableFuture<?> future) {
+    if (future.isCancelled()) {
+      return false;
+    }
+    try {
+      future.get();
+      return true;
+    } catch (ExecutionException | InterruptedException e) {
+      // The future is done, so this can only be an ExecutionException.
+      return false;
+    }
+  }
+
+  private static final class CacheKey {
+    private final ProducerToken token;
+    @NullableDecl private final Object dependencies;
+
+    CacheKey(ProducerToken token, @NullableDecl Object dependencies) {
+      this.token = token;
+      this.dependencies = dependencies;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o == this) {
+        return true;
+      } else if (o instanceof CacheKey) {
+        CacheKey that = (CacheKey) o;
+        return this.token.equals(that.token)
+            && Objects.equals(this.dependencies, that.dependencies);
+      } else {
+        return false;
+      }
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * token.hashCode() + Objects.hashCode(dependencies);
+    }
+  }
+}
@@ -31,6 +31,12 @@ import java.lang.annotation.Target;
  * to the value that the future produces; otherwise, the return type is bound to the returned value.
  * The production component will pass dependencies to the method as parameters.
  *
+ * <p>If the binding's future is cancelled with {@code mayInterruptIfRunning} set while the method
+ * is running, the thread running it is interrupted. Long-running methods can check {@link
+ * Thread#isInterrupted()} to stop early; the interrupt is cleared once the method returns. {@link
+ * Cacheable @Cacheable} methods are never interrupted, since other producers may share their
+ * result.
+ *
  * @since 2.0
  */
 @Documented
@@ -29,6 +29,18 @@ import javax.inject.Qualifier;
  * <p>The only type that may be so qualified is {@link java.util.concurrent.Executor}. In this case,
  * the resulting executor is used to schedule {@linkplain Produces producer methods} in a
  * {@link ProductionComponent} or {@link ProductionSubcomponent}.
+ *
+ * <p>Each producer method is submitted to the executor as its own task once all of its
+ * dependencies are available, so a producer method may block without holding up other producers
+ * as long as the executor does not limit the number of threads. On JDK 21 and later, binding
+ * {@code Executors.newVirtualThreadPerTaskExecutor()} runs every producer method on its own
+ * virtual thread, which makes blocking producer methods cheap.
+ *
+ * <p>A running producer method is interrupted only when a future returned from an entry point of
+ * its component is cancelled with {@code cancel(true)}, which cancels every producer in that
+ * component and, as allowed by {@link CancellationPolicy}, in its ancestors. Nothing else
+ * interrupts it: not a failed sibling or dependent, not a {@link LatencyPolicy} timeout, and not a
+ * result that is never used. Those methods run until they return.
  */
 @Documented
 @Retention(RUNTIME)
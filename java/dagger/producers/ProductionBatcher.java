@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import dagger.internal.Beta;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces concurrent requests for single values into one call to a {@link BatchLoader}.
+ *
+ * <p>A batch starts with the first call to {@link #load} after the previous batch was dispatched,
+ * and is dispatched either when its dispatch delay has elapsed or when {@link #flush()} is called,
+ * whichever comes first. Every key that is loaded in the meantime joins the same batch, so
+ * producers that become ready together, such as the elements of a {@code Set<Producer<T>>}
+ * fan-out, share a single backend call. The batch boundaries therefore only depend on when keys
+ * are loaded, not on how the producers' executor schedules its tasks. A batcher is typically bound
+ * in {@link ProductionScope} and used from {@link Produces @Produces} methods:
+ *
+ * <pre><code>
+ *   {@literal @Provides @ProductionScope}
+ *   static {@literal ProductionBatcher<UserId, User>} userBatcher(
+ *       ScheduledExecutorService scheduler, UserBackend backend) {
+ *     return ProductionBatcher.create(scheduler, 2, MILLISECONDS, backend::lookUpUsers);
+ *   }
+ *
+ *   {@literal @Produces}
+ *   static {@literal ListenableFuture<User>} user(
+ *       UserId id, {@literal ProductionBatcher<UserId, User>} userBatcher) {
+ *     return userBatcher.load(id);
+ *   }
+ * </code></pre>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the loaded values
+ */
+@Beta
+public final class ProductionBatcher<K, V> {
+  /** Loads the values for a batch of keys. */
+  public interface BatchLoader<K, V> {
+    /**
+     * Returns a future for the values of the given distinct keys. The map must contain a value for
+     * every key; a missing key fails that key's future.
+     */
+    ListenableFuture<? extends Map<K, ? extends V>> load(ImmutableList<K> keys) throws Exception;
+  }
+
+  private final ScheduledExecutorService scheduler;
+  private final long dispatchDelay;
+  private final TimeUnit unit;
+  private final BatchLoader<K, V> loader;
+  private final Object lock = new Object();
+  // Guarded by lock. Null when no batch has been started since the last dispatch.
+  private Map<K, SettableFuture<V>> pending = null;
+
+  /**
+   * Returns a batcher that dispatches each batch to {@code loader} once {@code dispatchDelay} has
+   * elapsed after its first key was loaded, from a task run on {@code scheduler}, unless {@link
+   * #flush()} dispatches it first.
+   */
+  public static <K, V> ProductionBatcher<K, V> create(
+      ScheduledExecutorService scheduler,
+      long dispatchDelay,
+      TimeUnit unit,
+      BatchLoader<K, V> loader) {
+    checkArgument(dispatchDelay >= 0, "dispatchDelay cannot be negative: %s", dispatchDelay);
+    return new ProductionBatcher<>(scheduler, dispatchDelay, unit, loader);
+  }
+
+  private ProductionBatcher(
+      ScheduledExecutorService scheduler,
+      long dispatchDelay,
+      TimeUnit unit,
+      BatchLoader<K, V> loader) {
+    this.scheduler = checkNotNull(scheduler);
+    this.dispatchDelay = dispatchDelay;
+    this.unit = checkNotNull(unit);
+    this.loader = checkNotNull(loader);
+  }
+
+  /**
+   * Returns a future for the value of {@code key}, which is loaded along with the other keys in the
+   * current batch. Loading the same key more than once in a batch only loads it once.
+   */
+  public ListenableFuture<V> load(K key) {
+    checkNotNull(key);
+    Map<K, SettableFuture<V>> newBatch = null;
+    SettableFuture<V> future;
+    synchronized (lock) {
+      if (pending == null) {
+        pending = new LinkedHashMap<>();
+        newBatch = pending;
+      }
+      future = pending.get(key);
+      if (future == null) {
+        future = SettableFuture.create();
+        pending.put(key, future);
+      }
+    }
+    if (newBatch != null) {
+      scheduleDispatch(newBatch);
+    }
+    // The future may be shared by several callers, so cancelling one view must not cancel it.
+    return Futures.nonCancellationPropagating(future);
+  }
+
+  /**
+   * Dispatches the current batch, if any, from the calling thread instead of waiting for its
+   * dispatch delay. Keys loaded after this call start a new batch.
+   */
+  public void flush() {
+    Map<K, SettableFuture<V>> batch;
+    synchronized (lock) {
+      batch = pending;
+      pending = null;
+    }
+    dispatch(batch);
+  }
+
+  private void scheduleDispatch(final Map<K, SettableFuture<V>> batch) {
+    try {
+      scheduler.schedule(
+          new Runnable() {
+            @Override
+            public void run() {
+              dispatch(takePending(batch));
+            }
+          },
+          dispatchDelay,
+          unit);
+    } catch (RuntimeException e) {
+      failAll(takePending(batch), e);
+    }
+  }
+
+  /**
+   * Returns {@code batch} and starts a new batch, or returns {@code null} if {@code batch} was
+   * already dispatched by {@link #flush()}.
+   */
+  private Map<K, SettableFuture<V>> takePending(Map<K, SettableFuture<V>> batch) {
+    synchronized (lock) {
+      if (pending != batch) {
+        return null;
+      }
+      pending = null;
+      return batch;
+    }
+  }
+
+  private void dispatch(final Map<K, SettableFuture<V>> batch) {
+    if (batch == null) {
+      return;
+    }
+    ListenableFuture<? extends Map<K, ? extends V>> values;
+    try {
+      values = checkNotNull(loader.load(ImmutableList.copyOf(batch.keySet())));
+    } catch (Throwable t) {
+      failAll(batch, t);
+      return;
+    }
+    Futures.addCallback(
+        values,
+        new FutureCallback<Map<K, ? extends V>>() {
+          @Override
+          public void onSuccess(Map<K, ? extends V> result) {
+            for (Map.Entry<K, SettableFuture<V>> entry : batch.entrySet()) {
+              V value = result == null ? null : result.get(entry.getKey());
+              if (value == null) {
+                entry
+                    .getValue()
+                    .setException(
+                        new IllegalStateException(
+                            "Batch result has no value for key " + entry.getKey()));
+              } else {
+                entry.getValue().set(value);
+              }
+            }
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            failAll(batch, t);
+          }
+        },
+        directExecutor());
+  }
+
+  private void failAll(Map<K, SettableFuture<V>> batch, Throwable t) {
+    if (batch == null) {
+      return;
+    }
+    for (SettableFuture<V> future : batch.values()) {
+      future.setException(t);
+    }
+  }
+}
@@ -44,9 +44,17 @@ public abstract class AbstractProducer<T> implements CancellableProducer<T> {
   @Override
   public final void cancel(boolean mayInterruptIfRunning) {
     requested.set(true); // Avoid potentially starting the task later only to cancel it immediately.
-    future.doCancel(mayInterruptIfRunning);
+    if (future.doCancel(mayInterruptIfRunning) && mayInterruptIfRunning) {
+      interruptTask();
+    }
   }
 
+  /**
+   * Called when this producer is cancelled with {@code mayInterruptIfRunning} set, so that work
+   * which has already started can stop early. This implementation does nothing.
+   */
+  protected void interruptTask() {}
+
   @Override
   public Producer<T> newDependencyView() {
     return new NonCancellationPropagatingView();
@@ -107,9 +115,9 @@ public abstract class AbstractProducer<T> implements CancellableProducer<T> {
       return false;
     }
 
-    /** Actually cancels this future. */
-    void doCancel(boolean mayInterruptIfRunning) {
-      super.cancel(mayInterruptIfRunning);
+    /** Actually cancels this future, returning whether it was cancelled by this call. */
+    boolean doCancel(boolean mayInterruptIfRunning) {
+      return super.cancel(mayInterruptIfRunning);
     }
   }
 
@@ -16,15 +16,28 @@
 
 package dagger.producers.internal;
 
+import static com.google.common.util.concurrent.Futures.getDone;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static dagger.internal.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
+import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dagger.producers.ProducerResultCache;
 import dagger.producers.monitoring.ProducerMonitor;
 import dagger.producers.monitoring.ProducerToken;
 import dagger.producers.monitoring.ProductionComponentMonitor;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.inject.Provider;
 import org.checkerframework.checker.nullness.compatqual.NullableDecl;
 
@@ -43,7 +56,15 @@ public abstract class AbstractProducesMethodProducer<D, T> extends AbstractProdu
   private final Provider<ProductionComponentMonitor> monitorProvider;
   @NullableDecl private final ProducerToken token;
   private final Provider<Executor> executorProvider;
+  @NullableDecl private final Provider<ProducerResultCache> resultCacheProvider;
   private volatile ProducerMonitor monitor = null;
+  @NullableDecl private volatile ProducerResultCache resultCache = null;
+
+  // Guards runningThread and interrupted, so that a thread is never interrupted after it has
+  // finished calling the @Produces method.
+  private final Object runningThreadLock = new Object();
+  @NullableDecl private Thread runningThread = null;
+  private boolean interrupted = false;
 
   protected AbstractProducesMethodProducer(
       Provider<ProductionComponentMonitor> monitorProvider,
@@ -52,17 +73,64 @@ public abstract class AbstractProducesMethodProducer<D, T> extends AbstractProdu
     this.monitorProvider = checkNotNull(monitorProvider);
     this.token = token;
     this.executorProvider = checkNotNull(executorProvider);
+    this.resultCacheProvider = null;
+  }
+
+  /**
+   * Creates a producer for a {@link dagger.producers.Cacheable @Cacheable} method, whose results
+   * are cached in the {@link ProducerResultCache} under its {@code token} and the values of its
+   * dependencies.
+   */
+  protected AbstractProducesMethodProducer(
+      Provider<ProductionComponentMonitor> monitorProvider,
+      ProducerToken token,
+      Provider<Executor> executorProvider,
+      Provider<ProducerResultCache> resultCacheProvider) {
+    this.monitorProvider = checkNotNull(monitorProvider);
+    this.token = checkNotNull(token);
+    this.executorProvider = checkNotNull(executorProvider);
+    this.resultCacheProvider = checkNotNull(resultCacheProvider);
   }
 
   @Override
   protected final ListenableFuture<T> compute() {
     monitor = monitorProvider.get().producerMonitorFor(token);
+    if (resultCacheProvider != null) {
+      resultCache = resultCacheProvider.get();
+    }
     monitor.requested();
-    ListenableFuture<T> result = Futures.transformAsync(collectDependencies(), this, this);
+    ListenableFuture<D> dependencies;
+    try {
+      dependencies = collectDependencies();
+    } finally {
+      // Monitors may keep per-thread state from requested() until this call.
+      monitor.dependenciesRequested();
+    }
+    ListenableFuture<T> result = Futures.transformAsync(dependencies, this, this);
+    long timeoutNanos = timeoutNanos();
+    if (timeoutNanos > 0) {
+      result = Futures.withTimeout(result, timeoutNanos, NANOSECONDS, Timer.INSTANCE);
+    }
     monitor.addCallbackTo(result);
     return result;
   }
 
+  /**
+   * Returns the {@link dagger.producers.LatencyPolicy#timeout()} of the producer, in nanoseconds,
+   * or {@code 0} if it has none.
+   */
+  protected long timeoutNanos() {
+    return 0;
+  }
+
+  /**
+   * Returns the {@link dagger.producers.LatencyPolicy#hedgeAfter()} delay of the producer, in
+   * nanoseconds, or {@code 0} if it is never hedged.
+   */
+  protected long hedgeDelayNanos() {
+    return 0;
+  }
+
   /**
    * Collects the asynchronous dependencies to be passed to {@link
    * Futures#transformAsync(ListenableFuture, AsyncFunction, Executor)}.
@@ -73,17 +141,86 @@ public abstract class AbstractProducesMethodProducer<D, T> extends AbstractProdu
   @Deprecated
   @Override
   public final ListenableFuture<T> apply(D asyncDependencies) throws Exception {
+    ProducerResultCache resultCache = this.resultCache;
+    if (resultCache == null) {
+      return callHedgedProducesMethod(asyncDependencies, /* interruptible= */ true);
+    }
+    SettableFuture<T> result = SettableFuture.create();
+    ListenableFuture<T> cached = resultCache.putIfAbsent(token, asyncDependencies, result);
+    if (cached != null) {
+      monitor.cacheHit();
+      // Another producer owns the cached result, so cancelling this one must not cancel it.
+      return Futures.nonCancellationPropagating(cached);
+    }
+    try {
+      // Other producers may already be waiting for the result, so cancelling this one must not
+      // interrupt the method.
+      result.setFuture(callHedgedProducesMethod(asyncDependencies, /* interruptible= */ false));
+    } catch (Throwable t) {
+      result.setException(t);
+    }
+    // Other producers may share the cached result, so cancelling this one must not cancel it.
+    return Futures.nonCancellationPropagating(result);
+  }
+
+  private ListenableFuture<T> callHedgedProducesMethod(D asyncDependencies, boolean interruptible)
+      throws Exception {
+    ListenableFuture<T> result = callMonitoredProducesMethod(asyncDependencies, interruptible);
+    long hedgeDelayNanos = hedgeDelayNanos();
+    if (hedgeDelayNanos <= 0 || result.isDone()) {
+      return result;
+    }
+    return new HedgedFuture(asyncDependencies, result, hedgeDelayNanos);
+  }
+
+  /**
+   * Calls the {@link dagger.producers.Produces} method, which {@link #interruptTask()} interrupts
+   * only if {@code interruptible} is set.
+   */
+  private ListenableFuture<T> callMonitoredProducesMethod(
+      D asyncDependencies, boolean interruptible) throws Exception {
     // NOTE(beder): We don't worry about catching exceptions from the monitor methods themselves
     // because we'll wrap all monitoring in non-throwing monitors before we pass them to the
     // factories.
     monitor.methodStarting();
+    if (interruptible) {
+      synchronized (runningThreadLock) {
+        runningThread = Thread.currentThread();
+      }
+    }
     try {
       return callProducesMethod(asyncDependencies);
     } finally {
+      if (interruptible) {
+        synchronized (runningThreadLock) {
+          runningThread = null;
+          if (interrupted) {
+            // Don't leak the interrupt to whatever the executor runs next on this thread.
+            Thread.interrupted();
+            interrupted = false;
+          }
+        }
+      }
       monitor.methodFinished();
     }
   }
 
+  /**
+   * Interrupts the thread that is calling the {@link dagger.producers.Produces} method, if any, so
+   * that methods which check {@link Thread#isInterrupted()} or block interruptibly can stop early
+   * when the producer is cancelled. A method whose result is stored in the {@link
+   * ProducerResultCache} is not interrupted, since other producers may share that result.
+   */
+  @Override
+  protected final void interruptTask() {
+    synchronized (runningThreadLock) {
+      if (runningThread != null) {
+        interrupted = true;
+        runningThread.interrupt();
+      }
+    }
+  }
+
   /**
    * Calls the {@link dagger.producers.Produces} method. This will always be called on the {@link
    * Executor} provided to this producer.
@@ -97,4 +234,115 @@ public abstract class AbstractProducesMethodProducer<D, T> extends AbstractProdu
     monitor.ready();
     executorProvider.get().execute(runnable);
   }
+
+  /**
+   * The result of a producer method that is called a second time if its first call has not
+   * completed after the {@link #hedgeDelayNanos()}. The first call to succeed provides the result,
+   * and the other call is cancelled; if both calls fail, the last failure is the result.
+   *
+   * <p>The second call is not reported to the {@link ProducerMonitor}, and is not interrupted when
+   * the producer is cancelled.
+   */
+  private final class HedgedFuture extends AbstractFuture<T> implements Runnable {
+    private final D asyncDependencies;
+    private final ListenableFuture<T> first;
+    private final ScheduledFuture<?> scheduledHedge;
+    @NullableDecl private volatile ListenableFuture<T> second = null;
+    // The number of calls that have not failed. Once it reaches 0, no more calls are started.
+    private final AtomicInteger pendingCalls = new AtomicInteger(1);
+
+    HedgedFuture(D asyncDependencies, ListenableFuture<T> first, long hedgeDelayNanos) {
+      this.asyncDependencies = asyncDependencies;
+      this.first = first;
+      // Scheduled first, since afterDone() may run as soon as the listener is added.
+      scheduledHedge = Timer.INSTANCE.schedule(this, hedgeDelayNanos, NANOSECONDS);
+      first.addListener(new CallListener(first), directExecutor());
+    }
+
+    /** Schedules the second call on the producer's executor once the hedge delay has elapsed. */
+    @Override
+    public void run() {
+      if (isDone()) {
+        return;
+      }
+      executorProvider
+          .get()
+          .execute(
+              new Runnable() {
+                @Override
+                public void run() {
+                  callAgain();
+                }
+              });
+    }
+
+    private void callAgain() {
+      int pending;
+      do {
+        pending = pendingCalls.get();
+        if (pending == 0 || isDone()) {
+          return;
+        }
+      } while (!pendingCalls.compareAndSet(pending, pending + 1));
+      ListenableFuture<T> call;
+      try {
+        call = callProducesMethod(asyncDependencies);
+      } catch (Throwable t) {
+        callFailed(t);
+        return;
+      }
+      second = call;
+      call.addListener(new CallListener(call), directExecutor());
+      if (isDone()) {
+        call.cancel(false);
+      }
+    }
+
+    private void callFailed(Throwable t) {
+      if (pendingCalls.decrementAndGet() == 0) {
+        setException(t);
+      }
+    }
+
+    @Override
+    protected void afterDone() {
+      scheduledHedge.cancel(false);
+      // Cancels the call that did not provide the result; the other one is already done.
+      boolean mayInterruptIfRunning = wasInterrupted();
+      first.cancel(mayInterruptIfRunning);
+      ListenableFuture<T> second = this.second;
+      if (second != null) {
+        second.cancel(mayInterruptIfRunning);
+      }
+    }
+
+    private final class CallListener implements Runnable {
+      private final ListenableFuture<T> call;
+
+      CallListener(ListenableFuture<T> call) {
+        this.call = call;
+      }
+
+      @Override
+      public void run() {
+        try {
+          set(getDone(call));
+        } catch (ExecutionException e) {
+          callFailed(e.getCause());
+        } catch (CancellationException e) {
+          callFailed(e);
+        }
+      }
+    }
+  }
+
+  /** The timer for {@link dagger.producers.LatencyPolicy} timeouts and hedges. */
+  private static final class Timer {
+    static final ScheduledExecutorService INSTANCE =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("dagger-producers-timer")
+                .build());
+  }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.internal;
+
+import static com.google.common.util.concurrent.Futures.getDone;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A future that combines the results of its input futures once all of them are done.
+ *
+ * <p>Unlike chaining {@link com.google.common.util.concurrent.Futures#transform} and {@link
+ * com.google.common.util.concurrent.Futures#allAsList}, this adds a single listener per input and
+ * counts down the inputs that are not yet done, so that a multibinding with many contributions
+ * allocates one aggregate future and builds its collection exactly once, in {@link
+ * #combine(List)}.
+ *
+ * <p>Cancelling this future cancels all of the inputs.
+ *
+ * @param <O> the combined type
+ */
+abstract class FanInFuture<O> extends AbstractFuture<O> {
+  private final List<? extends ListenableFuture<?>> inputs;
+  private final boolean failFast;
+  private final AtomicInteger remaining;
+
+  /**
+   * @param failFast if {@code true}, this future fails (or is cancelled) as soon as any input fails
+   *     (or is cancelled), as with {@link com.google.common.util.concurrent.Futures#allAsList}.
+   *     Otherwise, {@link #combine(List)} is called once every input is done, whether or not it
+   *     succeeded.
+   */
+  FanInFuture(List<? extends ListenableFuture<?>> inputs, boolean failFast) {
+    this.inputs = inputs;
+    this.failFast = failFast;
+    this.remaining = new AtomicInteger(inputs.size());
+  }
+
+  /** Starts listening to the inputs. Must be called exactly once, after construction. */
+  final ListenableFuture<O> start() {
+    if (inputs.isEmpty()) {
+      complete();
+    }
+    for (ListenableFuture<?> input : inputs) {
+      input.addListener(new InputListener(input), directExecutor());
+    }
+    return this;
+  }
+
+  /**
+   * Combines the inputs, all of which are done, into the result of this future. If {@code failFast}
+   * was set, all of the inputs succeeded.
+   */
+  abstract O combine(List<? extends ListenableFuture<?>> inputs) throws Exception;
+
+  private void complete() {
+    if (isDone()) {
+      return;
+    }
+    try {
+      set(combine(inputs));
+    } catch (Throwable t) {
+      setException(t);
+    }
+  }
+
+  @Override
+  protected final void afterDone() {
+    if (isCancelled()) {
+      boolean mayInterruptIfRunning = wasInterrupted();
+      for (ListenableFuture<?> input : inputs) {
+        input.cancel(mayInterruptIfRunning);
+      }
+    }
+  }
+
+  private final class InputListener implements Runnable {
+    private final ListenableFuture<?> input;
+
+    InputListener(ListenableFuture<?> input) {
+      this.input = input;
+    }
+
+    @Override
+    public void run() {
+      if (failFast && !isDone()) {
+        if (input.isCancelled()) {
+          cancel(false);
+        } else {
+          try {
+            getDone(input);
+          } catch (ExecutionException e) {
+            setException(e.getCause());
+          }
+        }
+      }
+      if (remaining.decrementAndGet() == 0) {
+        complete();
+      }
+    }
+  }
+}
@@ -16,12 +16,9 @@
 
 package dagger.producers.internal;
 
-import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.google.common.util.concurrent.Futures.getDone;
 
-import com.google.common.base.Function;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
-import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.producers.Producer;
 import java.util.ArrayList;
@@ -76,28 +73,23 @@ public final class MapProducer<K, V> extends AbstractMapProducer<K, V, V> {
 
   @Override
   protected ListenableFuture<Map<K, V>> compute() {
-    final List<ListenableFuture<Map.Entry<K, V>>> listOfEntries = new ArrayList<>();
-    for (final Entry<K, Producer<V>> entry : contributingMap().entrySet()) {
-      listOfEntries.add(
-          Futures.transform(
-              entry.getValue().get(),
-              new Function<V, Entry<K, V>>() {
-                @Override
-                public Entry<K, V> apply(V computedValue) {
-                  return Maps.immutableEntry(entry.getKey(), computedValue);
-                }
-              },
-              directExecutor()));
+    final List<K> keys = new ArrayList<>(contributingMap().size());
+    List<ListenableFuture<V>> values = new ArrayList<>(contributingMap().size());
+    for (Entry<K, Producer<V>> entry : contributingMap().entrySet()) {
+      keys.add(entry.getKey());
+      values.add(entry.getValue().get());
     }
 
-    return Futures.transform(
-        Futures.allAsList(listOfEntries),
-        new Function<List<Map.Entry<K, V>>, Map<K, V>>() {
-          @Override
-          public Map<K, V> apply(List<Map.Entry<K, V>> entries) {
-            return ImmutableMap.copyOf(entries);
-          }
-        },
-        directExecutor());
+    return new FanInFuture<Map<K, V>>(values, true) {
+      @SuppressWarnings("unchecked") // the futures were added above with this type
+      @Override
+      Map<K, V> combine(List<? extends ListenableFuture<?>> values) throws Exception {
+        ImmutableMap.Builder<K, V> builder = ImmutableMap.builderWithExpectedSize(values.size());
+        for (int i = 0; i < values.size(); i++) {
+          builder.put(keys.get(i), (V) getDone(values.get(i)));
+        }
+        return builder.build();
+      }
+    }.start();
   }
 }
@@ -17,13 +17,11 @@
 package dagger.producers.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.google.common.util.concurrent.Futures.getDone;
 import static dagger.internal.DaggerCollections.hasDuplicates;
 import static dagger.internal.DaggerCollections.presizedList;
 
-import com.google.common.base.Function;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.producers.Produced;
 import dagger.producers.Producer;
@@ -31,6 +29,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -114,59 +113,63 @@ public final class SetOfProducedProducer<T> extends AbstractProducer<Set<Produce
    */
   @Override
   public ListenableFuture<Set<Produced<T>>> compute() {
-    List<ListenableFuture<? extends Produced<? extends Collection<T>>>> futureProducedCollections =
-        new ArrayList<ListenableFuture<? extends Produced<? extends Collection<T>>>>(
-            individualProducers.size() + collectionProducers.size());
+    final int individualSize = individualProducers.size();
+    List<ListenableFuture<?>> futures =
+        new ArrayList<ListenableFuture<?>>(individualSize + collectionProducers.size());
     for (Producer<T> producer : individualProducers) {
-      // TODO(ronshapiro): Don't require individual productions to be added to a collection just to
-      // be materialized into futureProducedCollections.
-      futureProducedCollections.add(
-          Producers.createFutureProduced(
-              Producers.createFutureSingletonSet(checkNotNull(producer.get()))));
+      futures.add(checkNotNull(producer.get()));
     }
     for (Producer<Collection<T>> producer : collectionProducers) {
-      futureProducedCollections.add(Producers.createFutureProduced(checkNotNull(producer.get())));
+      futures.add(checkNotNull(producer.get()));
     }
 
-    return Futures.transform(
-        Futures.allAsList(futureProducedCollections),
-        new Function<List<Produced<? extends Collection<T>>>, Set<Produced<T>>>() {
-          @Override
-          public Set<Produced<T>> apply(
-              List<Produced<? extends Collection<T>>> producedCollections) {
-            ImmutableSet.Builder<Produced<T>> builder = ImmutableSet.builder();
-            for (Produced<? extends Collection<T>> producedCollection : producedCollections) {
-              try {
-                Collection<T> collection = producedCollection.get();
-                if (collection == null) {
-                  // TODO(beder): This is a vague exception. Can we somehow point to the failing
-                  // producer? See the similar comment in the component writer about null
-                  // provisions.
-                  builder.add(
-                      Produced.<T>failed(
-                          new NullPointerException(
-                              "Cannot contribute a null collection into a producer set binding when"
-                                  + " it's injected as Set<Produced<T>>.")));
-                } else {
-                  for (T value : collection) {
-                    if (value == null) {
-                      builder.add(
-                          Produced.<T>failed(
-                              new NullPointerException(
-                                  "Cannot contribute a null element into a producer set binding"
-                                      + " when it's injected as Set<Produced<T>>.")));
-                    } else {
-                      builder.add(Produced.successful(value));
-                    }
-                  }
-                }
-              } catch (ExecutionException e) {
-                builder.add(Produced.<T>failed(e.getCause()));
-              }
+    return new FanInFuture<Set<Produced<T>>>(futures, false) {
+      @SuppressWarnings("unchecked") // the futures were added above with these types
+      @Override
+      Set<Produced<T>> combine(List<? extends ListenableFuture<?>> futures) {
+        ImmutableSet.Builder<Produced<T>> builder = ImmutableSet.builder();
+        for (int i = 0; i < futures.size(); i++) {
+          Object result;
+          try {
+            result = getDone(futures.get(i));
+          } catch (ExecutionException e) {
+            builder.add(Produced.<T>failed(e.getCause()));
+            continue;
+          } catch (CancellationException e) {
+            builder.add(Produced.<T>failed(e));
+            continue;
+          }
+          if (i < individualSize) {
+            addElement(builder, (T) result);
+          } else if (result == null) {
+            // TODO(beder): This is a vague exception. Can we somehow point to the failing
+            // producer? See the similar comment in the component writer about null
+            // provisions.
+            builder.add(
+                Produced.<T>failed(
+                    new NullPointerException(
+                        "Cannot contribute a null collection into a producer set binding when"
+                            + " it's injected as Set<Produced<T>>.")));
+          } else {
+            for (T value : (Collection<T>) result) {
+              addElement(builder, value);
             }
-            return builder.build();
           }
-        },
-        directExecutor());
+        }
+        return builder.build();
+      }
+    }.start();
+  }
+
+  private static <T> void addElement(ImmutableSet.Builder<Produced<T>> builder, T value) {
+    if (value == null) {
+      builder.add(
+          Produced.<T>failed(
+              new NullPointerException(
+                  "Cannot contribute a null element into a producer set binding"
+                      + " when it's injected as Set<Produced<T>>.")));
+    } else {
+      builder.add(Produced.successful(value));
+    }
   }
 }
@@ -17,14 +17,11 @@
 package dagger.producers.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.util.concurrent.Futures.transform;
-import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.google.common.util.concurrent.Futures.getDone;
 import static dagger.internal.DaggerCollections.hasDuplicates;
 import static dagger.internal.DaggerCollections.presizedList;
 
-import com.google.common.base.Function;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.producers.Producer;
 import java.util.ArrayList;
@@ -116,32 +113,30 @@ public final class SetProducer<T> extends AbstractProducer<Set<T>> {
    */
   @Override
   public ListenableFuture<Set<T>> compute() {
-    List<ListenableFuture<T>> individualFutures =
-        new ArrayList<ListenableFuture<T>>(individualProducers.size());
+    final int individualSize = individualProducers.size();
+    List<ListenableFuture<?>> futures =
+        new ArrayList<ListenableFuture<?>>(individualSize + collectionProducers.size());
     for (Producer<T> producer : individualProducers) {
-      individualFutures.add(checkNotNull(producer.get()));
+      futures.add(checkNotNull(producer.get()));
     }
-
-    // Presize the list of collections produced by the amount of collectionProducers, with one more
-    // for the consolidate individualFutures from Futures.allAsList.
-    List<ListenableFuture<? extends Collection<T>>> futureCollections =
-        new ArrayList<ListenableFuture<? extends Collection<T>>>(collectionProducers.size() + 1);
-    futureCollections.add(Futures.allAsList(individualFutures));
     for (Producer<Collection<T>> producer : collectionProducers) {
-      futureCollections.add(checkNotNull(producer.get()));
+      futures.add(checkNotNull(producer.get()));
     }
-    return transform(
-        Futures.allAsList(futureCollections),
-        new Function<List<Collection<T>>, Set<T>>() {
-          @Override
-          public Set<T> apply(List<Collection<T>> sets) {
-            ImmutableSet.Builder<T> builder = ImmutableSet.builder();
-            for (Collection<T> set : sets) {
-              builder.addAll(set);
-            }
-            return builder.build();
+    return new FanInFuture<Set<T>>(futures, true) {
+      @SuppressWarnings("unchecked") // the futures were added above with these types
+      @Override
+      Set<T> combine(List<? extends ListenableFuture<?>> futures) throws Exception {
+        ImmutableSet.Builder<T> builder = ImmutableSet.builder();
+        for (int i = 0; i < futures.size(); i++) {
+          Object result = getDone(futures.get(i));
+          if (i < individualSize) {
+            builder.add((T) result);
+          } else {
+            builder.addAll((Collection<T>) result);
           }
-        },
-        directExecutor());
+        }
+        return builder.build();
+      }
+    }.start();
   }
 }
@@ -34,6 +34,9 @@ import dagger.producers.Produces;
  *   <li>{@link #methodStarting()}
  *   <li>The method is called
  *   <li>{@link #methodFinished()}
+ *   <li>If the result was found in a {@link dagger.producers.ProducerResultCache}, then {@link
+ *       #cacheHit()} is called instead of {@link #methodStarting()}, calling the method, and
+ *       {@link #methodFinished()}
  *   <li>If the method returns a value, then:
  *   <ul>
  *     <li>{@link #succeeded(Object)} if the method returned normally; or
@@ -102,6 +105,19 @@ public abstract class ProducerMonitor {
    */
   public void requested() {}
 
+  /**
+   * Called after {@link #requested()}, once the producer has requested all of its dependencies.
+   * This will be called from the same thread as {@code requested}; any dependencies that are
+   * requested for the first time by this producer will have their {@code requested} and {@code
+   * dependenciesRequested} methods called in between.
+   *
+   * <p>When multiple monitors are installed, calls to this method will be in the reverse order from
+   * calls to {@link #requested()}.
+   *
+   * <p>This implementation is a no-op.
+   */
+  public void dependenciesRequested() {}
+
   /**
    * Called when all of the producer's inputs are available. This is called regardless of whether
    * the inputs have succeeded or not; when the inputs have succeeded, this is called prior to
@@ -137,6 +153,19 @@ public abstract class ProducerMonitor {
    */
   public void methodFinished() {}
 
+  /**
+   * Called instead of {@link #methodStarting()} and {@link #methodFinished()} when the producer's
+   * result was found in a {@link dagger.producers.ProducerResultCache}, so the producer method is
+   * not called. This will be called from the same thread that would have called the producer
+   * method.
+   *
+   * <p>When multiple monitors are installed, calls to this method will be in the reverse order from
+   * calls to {@link #requested()}.
+   *
+   * <p>This implementation is a no-op.
+   */
+  public void cacheHit() {}
+
   /**
    * Called when the producer’s future has completed successfully with a value.
    *
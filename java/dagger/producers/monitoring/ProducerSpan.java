@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.monitoring;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import dagger.internal.Beta;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A span recorded by a {@link TracingProductionComponentMonitor} for a single {@linkplain
+ * dagger.producers.Produces producer method}, from when it was requested until its future
+ * completed.
+ *
+ * <p>All times are in nanoseconds, relative to when the {@link
+ * TracingProductionComponentMonitor.Factory} was created.
+ */
+@Beta
+public final class ProducerSpan {
+  private final ProducerToken token;
+  private final long traceId;
+  private final long spanId;
+  private final long parentSpanId;
+  private final long requestedNanos;
+  private final long methodStartNanos;
+  private final long methodFinishNanos;
+  private final long methodThreadId;
+  private final long completedNanos;
+  private final boolean cacheHit;
+  @NullableDecl private final Throwable failure;
+
+  ProducerSpan(
+      ProducerToken token,
+      long traceId,
+      long spanId,
+      long parentSpanId,
+      long requestedNanos,
+      long methodStartNanos,
+      long methodFinishNanos,
+      long methodThreadId,
+      long completedNanos,
+      boolean cacheHit,
+      @NullableDecl Throwable failure) {
+    this.token = checkNotNull(token);
+    this.traceId = traceId;
+    this.spanId = spanId;
+    this.parentSpanId = parentSpanId;
+    this.requestedNanos = requestedNanos;
+    this.methodStartNanos = methodStartNanos;
+    this.methodFinishNanos = methodFinishNanos;
+    this.methodThreadId = methodThreadId;
+    this.completedNanos = completedNanos;
+    this.cacheHit = cacheHit;
+    this.failure = failure;
+  }
+
+  /** The producer method. */
+  public ProducerToken token() {
+    return token;
+  }
+
+  /**
+   * The id of the trace that this span belongs to. Spans share a trace if they belong to the same
+   * component, or if their component was requested from within a span of another trace.
+   */
+  public long traceId() {
+    return traceId;
+  }
+
+  /** The id of this span, unique among the spans of a {@link TracingProductionComponentMonitor}. */
+  public long spanId() {
+    return spanId;
+  }
+
+  /**
+   * The id of the span that requested this producer: either a producer that depends on it, or a
+   * producer method that was running when it was requested. Returns {@code 0} for a root span.
+   */
+  public long parentSpanId() {
+    return parentSpanId;
+  }
+
+  /** When the producer was requested. */
+  public long requestedNanos() {
+    return requestedNanos;
+  }
+
+  /** When the producer method started, or {@code -1} if it was never called. */
+  public long methodStartNanos() {
+    return methodStartNanos;
+  }
+
+  /** When the producer method finished, or {@code -1} if it was never called. */
+  public long methodFinishNanos() {
+    return methodFinishNanos;
+  }
+
+  /** The id of the thread that called the producer method, or {@code -1} if it was never called. */
+  public long methodThreadId() {
+    return methodThreadId;
+  }
+
+  /** When the producer's future completed. */
+  public long completedNanos() {
+    return completedNanos;
+  }
+
+  /**
+   * Returns {@code true} if the result was taken from a {@link
+   * dagger.producers.ProducerResultCache}.
+   */
+  public boolean cacheHit() {
+    return cacheHit;
+  }
+
+  /** The failure of the producer's future, or {@code null} if it succeeded. */
+  @NullableDecl
+  public Throwable failure() {
+    return failure;
+  }
+
+  @Override
+  public String toString() {
+    return "ProducerSpan{"
+        + token
+        + ", traceId="
+        + traceId
+        + ", spanId="
+        + spanId
+        + ", parentSpanId="
+        + parentSpanId
+        + (failure == null ? "" : ", failure=" + failure)
+        + "}";
+  }
+}
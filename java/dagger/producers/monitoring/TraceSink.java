@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.monitoring;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import dagger.internal.Beta;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Receives the spans recorded by a {@link TracingProductionComponentMonitor}.
+ *
+ * <p>Spans are exported from the thread that completes the producer's future, so implementations
+ * must be thread-safe.
+ */
+@Beta
+public abstract class TraceSink {
+  /** Exports a span whose producer has completed. */
+  public abstract void export(ProducerSpan span);
+
+  /** Returns a sink that keeps all spans in memory. */
+  public static InMemory inMemory() {
+    return new InMemory();
+  }
+
+  /**
+   * Returns a sink that writes spans to {@code writer} in the Chrome trace event format, which can
+   * be loaded in {@code chrome://tracing} or Perfetto.
+   *
+   * <p>The writer is flushed after each span, and is never closed. Each trace is shown as its own
+   * process. The time from a producer being requested until its future completes is written as an
+   * async event, and the producer method itself as a complete event on the thread that called it.
+   */
+  public static TraceSink chromeTrace(Writer writer) {
+    return new ChromeTrace(writer);
+  }
+
+  /** A {@link TraceSink} that keeps all spans in memory. */
+  public static final class InMemory extends TraceSink {
+    private final Queue<ProducerSpan> spans = new ConcurrentLinkedQueue<>();
+
+    private InMemory() {}
+
+    @Override
+    public void export(ProducerSpan span) {
+      spans.add(span);
+    }
+
+    /** Returns the spans exported so far, in the order that their producers completed. */
+    public ImmutableList<ProducerSpan> spans() {
+      return ImmutableList.copyOf(spans);
+    }
+
+    /** Removes all spans. */
+    public void clear() {
+      spans.clear();
+    }
+  }
+
+  private static final class ChromeTrace extends TraceSink {
+    private final Writer writer;
+    private boolean started = false;
+
+    ChromeTrace(Writer writer) {
+      this.writer = checkNotNull(writer);
+    }
+
+    @Override
+    public synchronized void export(ProducerSpan span) {
+      StringBuilder events = new StringBuilder();
+      // The closing bracket of the JSON array is optional in the trace event format, which lets the
+      // trace be read while it is still being written.
+      events.append(started ? ",\n" : "[\n");
+      String name = jsonString(span.token().toString());
+      event(events, name, "producer", "b", span.traceId(), 0, span.requestedNanos())
+          .append(",\"id\":")
+          .append(span.spanId())
+          .append(",\"args\":{\"parent\":")
+          .append(span.parentSpanId())
+          .append(",\"cacheHit\":")
+          .append(span.cacheHit())
+          .append("}},\n");
+      event(events, name, "producer", "e", span.traceId(), 0, span.completedNanos())
+          .append(",\"id\":")
+          .append(span.spanId())
+          .append(",\"args\":{\"failure\":")
+          .append(span.failure() == null ? "null" : jsonString(span.failure().toString()))
+          .append("}}");
+      if (span.methodStartNanos() >= 0 && span.methodFinishNanos() >= 0) {
+        events.append(",\n");
+        event(
+                events,
+                name,
+                "method",
+                "X",
+                span.traceId(),
+                span.methodThreadId(),
+                span.methodStartNanos())
+            .append(",\"dur\":")
+            .append(micros(span.methodFinishNanos() - span.methodStartNanos()))
+            .append("}");
+      }
+      try {
+        writer.write(events.toString());
+        writer.flush();
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not write the trace", e);
+      }
+      started = true;
+    }
+
+    private static StringBuilder event(
+        StringBuilder events,
+        String name,
+        String category,
+        String phase,
+        long pid,
+        long tid,
+        long nanos) {
+      return events
+          .append("{\"name\":")
+          .append(name)
+          .append(",\"cat\":\"")
+          .append(category)
+          .append("\",\"ph\":\"")
+          .append(phase)
+          .append("\",\"pid\":")
+          .append(pid)
+          .append(",\"tid\":")
+          .append(tid)
+          .append(",\"ts\":")
+          .append(micros(nanos));
+    }
+
+    private static String micros(long nanos) {
+      return String.valueOf(nanos / 1000) + "." + String.format("%03d", nanos % 1000);
+    }
+
+    private static String jsonString(String value) {
+      StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c == '"' || c == '\\') {
+          json.append('\\').append(c);
+        } else if (c < 0x20) {
+          json.append(String.format("\\u%04x", (int) c));
+        } else {
+          json.append(c);
+        }
+      }
+      return json.append('"').toString();
+    }
+  }
+}
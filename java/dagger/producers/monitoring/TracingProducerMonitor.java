@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.monitoring;
+
+import com.google.common.base.Ticker;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A monitor that records a {@link ProducerSpan} for a producer method, and exports it to a {@link
+ * TraceSink} when the producer's future completes.
+ */
+final class TracingProducerMonitor extends ProducerMonitor {
+  /**
+   * The span that is current on each thread: the producer that is requesting its dependencies, or
+   * the producer method that is running.
+   */
+  private static final ThreadLocal<TracingProducerMonitor> currentSpan = new ThreadLocal<>();
+
+  private final ProducerToken token;
+  private final long spanId;
+  private final TraceSink sink;
+  private final Ticker ticker;
+  private final long epochNanos;
+
+  // The span that was current before this one on the thread that is requesting dependencies or
+  // running the producer method.
+  @NullableDecl private TracingProducerMonitor previousSpan;
+  private long traceId;
+  private long parentSpanId;
+  private long requestedNanos = -1;
+  private long methodStartNanos = -1;
+  private long methodFinishNanos = -1;
+  private long methodThreadId = -1;
+  private boolean cacheHit;
+
+  TracingProducerMonitor(
+      ProducerToken token,
+      long traceId,
+      long spanId,
+      TraceSink sink,
+      Ticker ticker,
+      long epochNanos) {
+    this.token = token;
+    this.traceId = traceId;
+    this.spanId = spanId;
+    this.sink = sink;
+    this.ticker = ticker;
+    this.epochNanos = epochNanos;
+  }
+
+  @Override
+  public void requested() {
+    requestedNanos = now();
+    TracingProducerMonitor parent = currentSpan.get();
+    if (parent != null) {
+      parentSpanId = parent.spanId;
+      traceId = parent.traceId;
+    }
+    enter();
+  }
+
+  @Override
+  public void dependenciesRequested() {
+    exit();
+  }
+
+  @Override
+  public void methodStarting() {
+    methodStartNanos = now();
+    methodThreadId = Thread.currentThread().getId();
+    enter();
+  }
+
+  @Override
+  public void methodFinished() {
+    exit();
+    methodFinishNanos = now();
+  }
+
+  @Override
+  public void cacheHit() {
+    cacheHit = true;
+  }
+
+  @Override
+  public void succeeded(Object value) {
+    export(null);
+  }
+
+  @Override
+  public void failed(Throwable t) {
+    export(t);
+  }
+
+  private void enter() {
+    previousSpan = currentSpan.get();
+    currentSpan.set(this);
+  }
+
+  private void exit() {
+    if (previousSpan == null) {
+      // Don't keep the thread local alive on executor threads.
+      currentSpan.remove();
+    } else {
+      currentSpan.set(previousSpan);
+      previousSpan = null;
+    }
+  }
+
+  private void export(@NullableDecl Throwable failure) {
+    sink.export(
+        new ProducerSpan(
+            token,
+            traceId,
+            spanId,
+            parentSpanId,
+            requestedNanos,
+            methodStartNanos,
+            methodFinishNanos,
+            methodThreadId,
+            now(),
+            cacheHit,
+            failure));
+  }
+
+  private long now() {
+    return ticker.read() - epochNanos;
+  }
+}
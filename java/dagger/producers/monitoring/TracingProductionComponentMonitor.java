@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.monitoring;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Ticker;
+import dagger.internal.Beta;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A monitor that records a {@link ProducerSpan} for each producer method of a production component,
+ * and exports it to a {@link TraceSink} when the producer's future completes.
+ *
+ * <p>A span's parent is the producer that requested it, which is the first producer that depends on
+ * it in the binding graph, or the producer method that was running on the requesting thread, e.g.
+ * when it was requested through a {@link dagger.producers.Producer} or from a nested component.
+ * Since a producer method's span is current on the thread that calls it, components that are used
+ * from within producer methods join the trace of the calling producer, even across the hop to the
+ * component's executor.
+ *
+ * <p>Components that are not sampled get a {@linkplain ProductionComponentMonitor#noOp() no-op
+ * monitor}, so that they allocate nothing for tracing.
+ */
+@Beta
+public final class TracingProductionComponentMonitor extends ProductionComponentMonitor {
+  private final Factory factory;
+  private final long traceId;
+
+  private TracingProductionComponentMonitor(Factory factory) {
+    this.factory = factory;
+    this.traceId = factory.nextId();
+  }
+
+  @Override
+  public ProducerMonitor producerMonitorFor(ProducerToken token) {
+    return new TracingProducerMonitor(
+        token, traceId, factory.nextId(), factory.sink, factory.ticker, factory.epochNanos);
+  }
+
+  public static final class Factory extends ProductionComponentMonitor.Factory {
+    private final TraceSink sink;
+    private final double samplingProbability;
+    private final Ticker ticker;
+    private final long epochNanos;
+    private final AtomicLong lastId = new AtomicLong();
+    private final Random random = new Random();
+
+    /** Creates a factory that traces every component. */
+    public Factory(TraceSink sink) {
+      this(sink, 1.0);
+    }
+
+    /**
+     * Creates a factory that traces each component with the given probability, between {@code 0}
+     * and {@code 1}.
+     */
+    public Factory(TraceSink sink, double samplingProbability) {
+      this(sink, samplingProbability, Ticker.systemTicker());
+    }
+
+    Factory(TraceSink sink, double samplingProbability, Ticker ticker) {
+      checkArgument(
+          samplingProbability >= 0 && samplingProbability <= 1,
+          "samplingProbability must be between 0 and 1: %s",
+          samplingProbability);
+      this.sink = checkNotNull(sink);
+      this.samplingProbability = samplingProbability;
+      this.ticker = checkNotNull(ticker);
+      this.epochNanos = ticker.read();
+    }
+
+    @Override
+    public ProductionComponentMonitor create(Object component) {
+      if (samplingProbability < 1 && random.nextDouble() >= samplingProbability) {
+        return ProductionComponentMonitor.noOp();
+      }
+      return new TracingProductionComponentMonitor(this);
+    }
+
+    private long nextId() {
+      return lastId.incrementAndGet();
+    }
+  }
+}
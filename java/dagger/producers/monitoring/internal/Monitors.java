@@ -135,6 +135,15 @@ public final class Monitors {
       }
     }
 
+    @Override
+    public void dependenciesRequested() {
+      try {
+        delegate.dependenciesRequested();
+      } catch (RuntimeException e) {
+        logProducerMonitorMethodException(e, delegate, "dependenciesRequested");
+      }
+    }
+
     @Override
     public void ready() {
       try {
@@ -162,6 +171,15 @@ public final class Monitors {
       }
     }
 
+    @Override
+    public void cacheHit() {
+      try {
+        delegate.cacheHit();
+      } catch (RuntimeException e) {
+        logProducerMonitorMethodException(e, delegate, "cacheHit");
+      }
+    }
+
     @Override
     public void succeeded(Object o) {
       try {
@@ -270,6 +288,17 @@ public final class Monitors {
       }
     }
 
+    @Override
+    public void dependenciesRequested() {
+      for (ProducerMonitor delegate : delegates.reverse()) {
+        try {
+          delegate.dependenciesRequested();
+        } catch (RuntimeException e) {
+          logProducerMonitorMethodException(e, delegate, "dependenciesRequested");
+        }
+      }
+    }
+
     @Override
     public void ready() {
       for (ProducerMonitor delegate : delegates) {
@@ -303,6 +332,17 @@ public final class Monitors {
       }
     }
 
+    @Override
+    public void cacheHit() {
+      for (ProducerMonitor delegate : delegates.reverse()) {
+        try {
+          delegate.cacheHit();
+        } catch (RuntimeException e) {
+          logProducerMonitorMethodException(e, delegate, "cacheHit");
+        }
+      }
+    }
+
     @Override
     public void succeeded(Object o) {
       for (ProducerMonitor delegate : delegates.reverse()) {
@@ -17,9 +17,6 @@
 package dagger.spi.model;
 
 import static com.google.common.collect.Sets.intersection;
-import static com.google.common.graph.Graphs.inducedSubgraph;
-import static com.google.common.graph.Graphs.reachableNodes;
-import static com.google.common.graph.Graphs.transpose;
 import static dagger.internal.codegen.extension.DaggerStreams.instancesOf;
 import static dagger.internal.codegen.extension.DaggerStreams.toImmutableSet;
 import static dagger.internal.codegen.extension.DaggerStreams.toImmutableSetMultimap;
@@ -32,7 +29,11 @@ import com.google.common.graph.MutableNetwork;
 import com.google.common.graph.Network;
 import com.google.common.graph.NetworkBuilder;
 import dagger.Module;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /**
@@ -231,11 +232,27 @@ public abstract class BindingGraph {
    */
   public ImmutableSet<DependencyEdge> entryPointEdgesDependingOnBinding(
       MaybeBinding binding) {
+    // Walk the dependency edges backwards from the binding rather than copying the subgraph that
+    // depends on it, which is expensive when this is called for many bindings.
     ImmutableNetwork<Node, DependencyEdge> dependencyGraph = dependencyGraph();
-    Network<Node, DependencyEdge> subgraphDependingOnBinding =
-        inducedSubgraph(
-            dependencyGraph, reachableNodes(transpose(dependencyGraph).asGraph(), binding));
-    return intersection(entryPointEdges(), subgraphDependingOnBinding.edges()).immutableCopy();
+    Set<DependencyEdge> entryPointEdgesDependingOnBinding = new HashSet<>();
+    Set<Node> visited = new HashSet<>();
+    Deque<Node> queue = new ArrayDeque<>();
+    visited.add(binding);
+    queue.add(binding);
+    while (!queue.isEmpty()) {
+      for (DependencyEdge edge : dependencyGraph.inEdges(queue.remove())) {
+        if (edge.isEntryPoint()) {
+          entryPointEdgesDependingOnBinding.add(edge);
+        }
+        Node source = dependencyGraph.incidentNodes(edge).source();
+        if (visited.add(source)) {
+          queue.add(source);
+        }
+      }
+    }
+    // Keep the entry points in the same order as entryPointEdges().
+    return intersection(entryPointEdges(), entryPointEdgesDependingOnBinding).immutableCopy();
   }
 
   /** Returns the bindings that directly request a given binding as a dependency. */
@@ -270,8 +287,7 @@ public abstract class BindingGraph {
   }
 
   /** Returns a subnetwork that contains all nodes but only {@link DependencyEdge}s. */
-  // TODO(dpb): Make public. Cache.
-  private ImmutableNetwork<Node, DependencyEdge> dependencyGraph() {
+  public ImmutableNetwork<Node, DependencyEdge> dependencyGraph() {
     MutableNetwork<Node, DependencyEdge> dependencyGraph =
         NetworkBuilder.from(network())
             .expectedNodeCount(network().nodes().size())
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.functional.inlinefieldinjection;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import dagger.Component;
+import dagger.Lazy;
+import dagger.Module;
+import dagger.Provides;
+import dagger.functional.inlinefieldinjection.subpackage.PublicBase;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class InlineFieldInjectionTest {
+  static class Middle extends PublicBase {
+    @Inject String hiddenField;
+    @Inject int primitiveField;
+  }
+
+  static final class Child extends Middle {
+    @Inject Provider<Integer> providerField;
+    @Inject Lazy<String> lazyField;
+    String valueInInjectMethod;
+
+    @Inject
+    void injectMethod() {
+      // Fields are injected before methods.
+      valueInInjectMethod = publicField;
+    }
+  }
+
+  static final class GenericChild<T> extends Middle {
+    @Inject T genericField;
+  }
+
+  @Module
+  static final class TestModule {
+    @Provides
+    static String provideString() {
+      return "string";
+    }
+
+    @Provides
+    static int provideInt() {
+      return 42;
+    }
+  }
+
+  @Component(modules = TestModule.class)
+  interface TestComponent {
+    void inject(Child child);
+
+    void inject(GenericChild<String> genericChild);
+  }
+
+  @Test
+  public void injectsFieldsAcrossClassHierarchy() {
+    Child child = new Child();
+    DaggerInlineFieldInjectionTest_TestComponent.create().inject(child);
+
+    assertThat(child.publicField).isEqualTo("string");
+    assertThat(child.packagePrivateField()).isEqualTo("string");
+    assertThat(child.protectedField()).isEqualTo("string");
+    assertThat(child.methodArgument()).isEqualTo("string");
+    assertThat(child.primitiveField).isEqualTo(42);
+    assertThat(child.providerField.get()).isEqualTo(42);
+    assertThat(child.lazyField.get()).isEqualTo("string");
+    assertThat(child.valueInInjectMethod).isEqualTo("string");
+  }
+
+  @Test
+  public void injectsHiddenFields() {
+    Child child = new Child();
+    DaggerInlineFieldInjectionTest_TestComponent.create().inject(child);
+
+    assertThat(child.hiddenField).isEqualTo("string");
+    assertThat(((PublicBase) child).hiddenField).isEqualTo("string");
+  }
+
+  @Test
+  public void injectsGenericType() {
+    GenericChild<String> genericChild = new GenericChild<>();
+    DaggerInlineFieldInjectionTest_TestComponent.create().inject(genericChild);
+
+    assertThat(genericChild.genericField).isEqualTo("string");
+    assertThat(genericChild.hiddenField).isEqualTo("string");
+    assertThat(genericChild.publicField).isEqualTo("string");
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.functional.inlinefieldinjection.subpackage;
+
+import javax.inject.Inject;
+
+/** A base class in a different package than the component. */
+public class PublicBase {
+  @Inject public String publicField;
+  @Inject String packagePrivateField;
+  @Inject protected String protectedField;
+  @Inject public String hiddenField;
+  private String methodArgument;
+
+  @Inject
+  void injectMethod(String methodArgument) {
+    this.methodArgument = methodArgument;
+  }
+
+  public String packagePrivateField() {
+    return packagePrivateField;
+  }
+
+  public String protectedField() {
+    return protectedField;
+  }
+
+  public String methodArgument() {
+    return methodArgument;
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.functional.producers.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import dagger.BindsInstance;
+import dagger.producers.Cacheable;
+import dagger.producers.ProducerModule;
+import dagger.producers.ProducerResultCache;
+import dagger.producers.Produces;
+import dagger.producers.Production;
+import dagger.producers.ProductionComponent;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Named;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link Cacheable} producers. */
+@RunWith(JUnit4.class)
+public final class CacheableTest {
+  @ProducerModule
+  static final class GreetingModule {
+    static final AtomicInteger calls = new AtomicInteger();
+
+    @Produces
+    @Cacheable
+    static String greeting(@Named("name") String name) {
+      calls.incrementAndGet();
+      return "hello " + name;
+    }
+  }
+
+  @ProductionComponent(modules = GreetingModule.class)
+  interface GreetingComponent {
+    ListenableFuture<String> greeting();
+
+    @ProductionComponent.Builder
+    interface Builder {
+      @BindsInstance
+      Builder executor(@Production Executor executor);
+
+      @BindsInstance
+      Builder resultCache(ProducerResultCache resultCache);
+
+      @BindsInstance
+      Builder name(@Named("name") String name);
+
+      GreetingComponent build();
+    }
+  }
+
+  private final ProducerResultCache resultCache = ProducerResultCache.create(10);
+
+  @Before
+  public void resetCalls() {
+    GreetingModule.calls.set(0);
+  }
+
+  @Test
+  public void sameInputs_sharesResultAcrossComponents() throws Exception {
+    assertThat(component(resultCache, "world").greeting().get()).isEqualTo("hello world");
+    assertThat(component(resultCache, "world").greeting().get()).isEqualTo("hello world");
+    assertThat(GreetingModule.calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void differentBoundInstances_areCachedSeparately() throws Exception {
+    assertThat(component(resultCache, "world").greeting().get()).isEqualTo("hello world");
+    assertThat(component(resultCache, "dagger").greeting().get()).isEqualTo("hello dagger");
+    assertThat(GreetingModule.calls.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void differentCaches_doNotShareResults() throws Exception {
+    assertThat(component(resultCache, "world").greeting().get()).isEqualTo("hello world");
+    assertThat(component(ProducerResultCache.create(10), "world").greeting().get())
+        .isEqualTo("hello world");
+    assertThat(GreetingModule.calls.get()).isEqualTo(2);
+  }
+
+  private static GreetingComponent component(ProducerResultCache resultCache, String name) {
+    return DaggerCacheableTest_GreetingComponent.builder()
+        .executor(MoreExecutors.directExecutor())
+        .resultCache(resultCache)
+        .name(name)
+        .build();
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.functional.producers.latency;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import dagger.BindsInstance;
+import dagger.producers.LatencyPolicy;
+import dagger.producers.Produced;
+import dagger.producers.ProducerModule;
+import dagger.producers.Produces;
+import dagger.producers.Production;
+import dagger.producers.ProductionComponent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Named;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link LatencyPolicy}. */
+@RunWith(JUnit4.class)
+public final class LatencyPolicyTest {
+  @ProducerModule
+  static final class LatencyModule {
+    private final List<SettableFuture<String>> backendCalls = new ArrayList<>();
+    private final AtomicInteger blockingCalls = new AtomicInteger();
+
+    @Produces
+    @LatencyPolicy(timeout = 50)
+    @Named("slow")
+    ListenableFuture<String> slow() {
+      return SettableFuture.create();
+    }
+
+    @Produces
+    @Named("tolerant")
+    String tolerant(@Named("slow") Produced<String> slow) {
+      try {
+        return slow.get();
+      } catch (ExecutionException e) {
+        return e.getCause() instanceof TimeoutException ? "timed out" : "failed";
+      }
+    }
+
+    @Produces
+    @LatencyPolicy(timeout = 5000, hedgeAfter = 50)
+    @Named("hedged")
+    ListenableFuture<String> hedged() {
+      SettableFuture<String> call = SettableFuture.create();
+      synchronized (backendCalls) {
+        backendCalls.add(call);
+        if (backendCalls.size() == 2) {
+          // The first call never completes, so only the hedged call provides the result.
+          call.set("hedged");
+        }
+      }
+      return call;
+    }
+
+    @Produces
+    @LatencyPolicy(hedgeAfter = 10)
+    @Named("blocking")
+    String blocking() throws InterruptedException {
+      blockingCalls.incrementAndGet();
+      // Blocks for longer than hedgeAfter, but only a returned future that is pending is hedged.
+      Thread.sleep(100);
+      return "blocked";
+    }
+  }
+
+  @ProductionComponent(modules = LatencyModule.class)
+  interface LatencyComponent {
+    @Named("slow")
+    ListenableFuture<String> slow();
+
+    @Named("tolerant")
+    ListenableFuture<String> tolerant();
+
+    @Named("hedged")
+    ListenableFuture<String> hedged();
+
+    @Named("blocking")
+    ListenableFuture<String> blocking();
+
+    @ProductionComponent.Builder
+    interface Builder {
+      Builder module(LatencyModule module);
+
+      @BindsInstance
+      Builder executor(@Production Executor executor);
+
+      LatencyComponent build();
+    }
+  }
+
+  private final LatencyModule module = new LatencyModule();
+  private final LatencyComponent component =
+      DaggerLatencyPolicyTest_LatencyComponent.builder()
+          .module(module)
+          .executor(MoreExecutors.directExecutor())
+          .build();
+
+  @Test
+  public void timeout_failsProducer() throws Exception {
+    try {
+      component.slow().get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e).hasCauseThat().isInstanceOf(TimeoutException.class);
+    }
+  }
+
+  @Test
+  public void timeout_isProducedFailure() throws Exception {
+    assertThat(component.tolerant().get()).isEqualTo("timed out");
+  }
+
+  @Test
+  public void hedge_usesFirstCompletedCall() throws Exception {
+    assertThat(component.hedged().get()).isEqualTo("hedged");
+    assertThat(module.backendCalls).hasSize(2);
+    assertThat(module.backendCalls.get(0).isCancelled()).isTrue();
+  }
+
+  @Test
+  public void hedge_skippedWhenMethodCompletesImmediately() throws Exception {
+    module.backendCalls.add(SettableFuture.<String>create());
+    assertThat(component.hedged().get()).isEqualTo("hedged");
+    assertThat(module.backendCalls).hasSize(2);
+    assertThat(Futures.getDone(module.backendCalls.get(1))).isEqualTo("hedged");
+  }
+
+  @Test
+  public void hedge_notAppliedToBlockingMethod() throws Exception {
+    assertThat(component.blocking().get()).isEqualTo("blocked");
+    assertThat(module.blockingCalls.get()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.functional.scopedinstances;
+
+import dagger.Component;
+import dagger.Lazy;
+import dagger.Module;
+import dagger.Provides;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+@Singleton
+@Component(modules = ScopedInstancesComponent.ScopedInstancesModule.class)
+interface ScopedInstancesComponent {
+  AtomicInteger constructions();
+
+  Leaf leaf();
+
+  Provider<Leaf> leafProvider();
+
+  Lazy<Leaf> leafLazy();
+
+  DependsOnLeaf dependsOnLeaf();
+
+  CycleA cycleA();
+
+  List<String> strings();
+
+  long scopedPrimitive();
+
+  @Module
+  final class ScopedInstancesModule {
+    @Provides
+    @Singleton
+    static AtomicInteger constructions() {
+      return new AtomicInteger();
+    }
+
+    @Provides
+    @Singleton
+    static List<String> strings(AtomicInteger constructions) {
+      constructions.incrementAndGet();
+      return Arrays.asList("a", "b");
+    }
+
+    @Provides
+    @Singleton
+    static long scopedPrimitive(AtomicInteger constructions) {
+      return constructions.incrementAndGet();
+    }
+  }
+
+  @Singleton
+  final class Leaf {
+    @Inject
+    Leaf(AtomicInteger constructions) {
+      constructions.incrementAndGet();
+    }
+  }
+
+  @Singleton
+  final class DependsOnLeaf {
+    final Leaf leaf;
+    final Provider<Leaf> leafProvider;
+
+    @Inject
+    DependsOnLeaf(Leaf leaf, Provider<Leaf> leafProvider, AtomicInteger constructions) {
+      this.leaf = leaf;
+      this.leafProvider = leafProvider;
+      constructions.incrementAndGet();
+    }
+  }
+
+  @Singleton
+  final class CycleA {
+    final Provider<CycleB> cycleB;
+
+    @Inject
+    CycleA(Provider<CycleB> cycleB) {
+      this.cycleB = cycleB;
+    }
+  }
+
+  @Singleton
+  final class CycleB {
+    final CycleA cycleA;
+
+    @Inject
+    CycleB(CycleA cycleA) {
+      this.cycleA = cycleA;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.functional.scopedinstances;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class ScopedInstancesTest {
+  @Test
+  public void instanceProviderAndLazy_returnSameInstance() {
+    ScopedInstancesComponent component = DaggerScopedInstancesComponent.create();
+    ScopedInstancesComponent.Leaf leaf = component.leaf();
+    assertThat(component.leafProvider().get()).isSameInstanceAs(leaf);
+    assertThat(component.leafLazy().get()).isSameInstanceAs(leaf);
+    assertThat(component.dependsOnLeaf().leaf).isSameInstanceAs(leaf);
+    assertThat(component.dependsOnLeaf().leafProvider.get()).isSameInstanceAs(leaf);
+    // Leaf and DependsOnLeaf.
+    assertThat(component.constructions().get()).isEqualTo(2);
+  }
+
+  @Test
+  public void lazy_isSharedAcrossRequests() {
+    ScopedInstancesComponent component = DaggerScopedInstancesComponent.create();
+    assertThat(component.leafLazy()).isSameInstanceAs(component.leafLazy());
+  }
+
+  @Test
+  public void provisions_areMemoized() {
+    ScopedInstancesComponent component = DaggerScopedInstancesComponent.create();
+    assertThat(component.strings()).isSameInstanceAs(component.strings());
+    long scopedPrimitive = component.scopedPrimitive();
+    assertThat(component.scopedPrimitive()).isEqualTo(scopedPrimitive);
+    assertThat(component.constructions().get()).isEqualTo(2);
+  }
+
+  @Test
+  public void cycle() {
+    ScopedInstancesComponent component = DaggerScopedInstancesComponent.create();
+    ScopedInstancesComponent.CycleA cycleA = component.cycleA();
+    assertThat(cycleA.cycleB.get().cycleA).isSameInstanceAs(cycleA);
+    assertThat(cycleA.cycleB.get()).isSameInstanceAs(cycleA.cycleB.get());
+  }
+
+  @Test
+  public void separateComponents_haveSeparateInstances() {
+    assertThat(DaggerScopedInstancesComponent.create().leaf())
+        .isNotSameInstanceAs(DaggerScopedInstancesComponent.create().leaf());
+  }
+
+  @Test
+  public void concurrentRequests_returnSameInstance() throws Exception {
+    ScopedInstancesComponent component = DaggerScopedInstancesComponent.create();
+    int numThreads = 10;
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Callable<Object>> tasks = new ArrayList<>();
+      for (int i = 0; i < numThreads; i++) {
+        tasks.add(() -> component.dependsOnLeaf());
+      }
+      List<Future<Object>> futures = executor.invokeAll(tasks);
+      Object expected = component.dependsOnLeaf();
+      for (Future<Object> future : futures) {
+        assertThat(future.get()).isSameInstanceAs(expected);
+      }
+      assertThat(component.constructions().get()).isEqualTo(2);
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.functional.warmup;
+
+import dagger.Component;
+import dagger.Module;
+import dagger.Provides;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+@Singleton
+@Component(modules = WarmUpComponent.WarmUpModule.class)
+interface WarmUpComponent {
+  AtomicInteger constructions();
+
+  Leaf leaf();
+
+  DependsOnLeaf dependsOnLeaf();
+
+  CycleA cycleA();
+
+  Unscoped unscoped();
+
+  @Module
+  final class WarmUpModule {
+    @Provides
+    @Singleton
+    static AtomicInteger constructions() {
+      return new AtomicInteger();
+    }
+  }
+
+  @Singleton
+  final class Leaf {
+    @Inject
+    Leaf(AtomicInteger constructions) {
+      constructions.incrementAndGet();
+    }
+  }
+
+  @Singleton
+  final class DependsOnLeaf {
+    final Leaf leaf;
+
+    @Inject
+    DependsOnLeaf(Leaf leaf, AtomicInteger constructions) {
+      this.leaf = leaf;
+      constructions.incrementAndGet();
+    }
+  }
+
+  @Singleton
+  final class CycleA {
+    final Provider<CycleB> cycleB;
+
+    @Inject
+    CycleA(Provider<CycleB> cycleB, AtomicInteger constructions) {
+      this.cycleB = cycleB;
+      constructions.incrementAndGet();
+    }
+  }
+
+  @Singleton
+  final class CycleB {
+    final CycleA cycleA;
+
+    @Inject
+    CycleB(CycleA cycleA, AtomicInteger constructions) {
+      this.cycleA = cycleA;
+      constructions.incrementAndGet();
+    }
+  }
+
+  final class Unscoped {
+    @Inject
+    Unscoped(AtomicInteger constructions) {
+      constructions.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.functional.warmup;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class WarmUpTest {
+  @Test
+  public void warmUp_instantiatesScopedBindings() throws Exception {
+    WarmUpComponent component = DaggerWarmUpComponent.create();
+    DaggerWarmUpComponent.warmUp(component, MoreExecutors.directExecutor());
+
+    // Leaf, DependsOnLeaf, CycleA and CycleB, but not Unscoped.
+    assertThat(component.constructions().get()).isEqualTo(4);
+    assertThat(component.dependsOnLeaf().leaf).isSameInstanceAs(component.leaf());
+    assertThat(component.cycleA().cycleB.get().cycleA).isSameInstanceAs(component.cycleA());
+    assertThat(component.constructions().get()).isEqualTo(4);
+  }
+
+  @Test
+  public void warmUp_concurrentExecutor() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      WarmUpComponent component = DaggerWarmUpComponent.create();
+      DaggerWarmUpComponent.warmUp(component, executor);
+      assertThat(component.constructions().get()).isEqualTo(4);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void warmUp_isIdempotent() throws Exception {
+    WarmUpComponent component = DaggerWarmUpComponent.create();
+    DaggerWarmUpComponent.warmUp(component, MoreExecutors.directExecutor());
+    DaggerWarmUpComponent.warmUp(component, MoreExecutors.directExecutor());
+    assertThat(component.constructions().get()).isEqualTo(4);
+  }
+}
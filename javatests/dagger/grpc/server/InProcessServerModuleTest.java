@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.grpc.server;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.util.concurrent.SettableFuture;
+import dagger.BindsInstance;
+import dagger.Component;
+import dagger.Module;
+import dagger.Provides;
+import dagger.multibindings.IntoSet;
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.MethodDescriptor.Marshaller;
+import io.grpc.MethodDescriptor.MethodType;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Singleton;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class InProcessServerModuleTest {
+  private static final Marshaller<String> STRING_MARSHALLER =
+      new Marshaller<String>() {
+        @Override
+        public InputStream stream(String value) {
+          return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String parse(InputStream stream) {
+          try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[256];
+            for (int read = stream.read(buffer); read != -1; read = stream.read(buffer)) {
+              bytes.write(buffer, 0, read);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+      };
+
+  private static final MethodDescriptor<String, String> ECHO =
+      MethodDescriptor.create(MethodType.UNARY, "test/Echo", STRING_MARSHALLER, STRING_MARSHALLER);
+
+  @Module
+  static final class EchoServiceModule {
+    @Provides
+    @IntoSet
+    static ServerServiceDefinition echoService() {
+      return ServerServiceDefinition.builder("test")
+          .addMethod(
+              ECHO,
+              new ServerCallHandler<String, String>() {
+                @Override
+                public ServerCall.Listener<String> startCall(
+                    final ServerCall<String, String> call, Metadata headers) {
+                  call.request(1);
+                  return new ServerCall.Listener<String>() {
+                    @Override
+                    public void onMessage(String message) {
+                      call.sendHeaders(new Metadata());
+                      call.sendMessage(message);
+                      call.close(Status.OK, new Metadata());
+                    }
+                  };
+                }
+              })
+          .build();
+    }
+  }
+
+  @Singleton
+  @Component(modules = {InProcessServerModule.class, EchoServiceModule.class})
+  interface UntunedServerComponent {
+    Server server();
+  }
+
+  @Singleton
+  @Component(modules = {InProcessServerModule.class, EchoServiceModule.class})
+  interface TunedServerComponent {
+    Server server();
+
+    @Component.Builder
+    interface Builder {
+      Builder inProcessServerModule(InProcessServerModule inProcessServerModule);
+
+      @BindsInstance
+      Builder serverTuning(ServerTuning serverTuning);
+
+      TunedServerComponent build();
+    }
+  }
+
+  @Test
+  public void untunedServer() throws Exception {
+    Server server =
+        DaggerInProcessServerModuleTest_UntunedServerComponent.builder()
+            .inProcessServerModule(InProcessServerModule.serverNamed("untunedServer"))
+            .build()
+            .server();
+    server.start();
+    try {
+      assertThat(echo("untunedServer", "hello")).isEqualTo("hello");
+    } finally {
+      server.shutdownNow();
+    }
+  }
+
+  @Test
+  public void tunedServer_usesExecutor() throws Exception {
+    final AtomicInteger executions = new AtomicInteger();
+    Executor countingExecutor =
+        new Executor() {
+          @Override
+          public void execute(Runnable command) {
+            executions.incrementAndGet();
+            command.run();
+          }
+        };
+    Server server =
+        DaggerInProcessServerModuleTest_TunedServerComponent.builder()
+            .inProcessServerModule(InProcessServerModule.serverNamed("tunedServer"))
+            .serverTuning(ServerTuning.builder().executor(countingExecutor).build())
+            .build()
+            .server();
+    server.start();
+    try {
+      assertThat(echo("tunedServer", "hello")).isEqualTo("hello");
+      assertThat(executions.get()).isGreaterThan(0);
+    } finally {
+      server.shutdownNow();
+    }
+  }
+
+  private static String echo(String serverName, String message) throws Exception {
+    ManagedChannel channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+    try {
+      final SettableFuture<String> response = SettableFuture.create();
+      ClientCall<String, String> call = channel.newCall(ECHO, CallOptions.DEFAULT);
+      call.start(
+          new ClientCall.Listener<String>() {
+            @Override
+            public void onMessage(String message) {
+              response.set(message);
+            }
+
+            @Override
+            public void onClose(Status status, Metadata trailers) {
+              if (!status.isOk()) {
+                response.setException(status.asRuntimeException());
+              }
+            }
+          },
+          new Metadata());
+      call.request(1);
+      call.sendMessage(message);
+      call.halfClose();
+      return response.get(10, TimeUnit.SECONDS);
+    } finally {
+      channel.shutdownNow();
+    }
+  }
+}
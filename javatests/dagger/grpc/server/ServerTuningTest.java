@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.grpc.server;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth8.assertThat;
+import static org.junit.Assert.fail;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class ServerTuningTest {
+  @Test
+  public void noOptions() {
+    ServerTuning serverTuning = ServerTuning.builder().build();
+    assertThat(serverTuning.executor()).isEmpty();
+    assertThat(serverTuning.bossEventLoopGroup()).isEmpty();
+    assertThat(serverTuning.workerEventLoopGroup()).isEmpty();
+    assertThat(serverTuning.channelType()).isEmpty();
+  }
+
+  @Test
+  public void eventLoopGroupsAndChannelType_setTogether() {
+    EventLoopGroup boss = new NioEventLoopGroup(1);
+    EventLoopGroup worker = new NioEventLoopGroup(1);
+    try {
+      ServerTuning serverTuning =
+          ServerTuning.builder()
+              .bossEventLoopGroup(boss)
+              .workerEventLoopGroup(worker)
+              .channelType(NioServerSocketChannel.class)
+              .build();
+      assertThat(serverTuning.bossEventLoopGroup()).hasValue(boss);
+      assertThat(serverTuning.workerEventLoopGroup()).hasValue(worker);
+      assertThat(serverTuning.channelType()).hasValue(NioServerSocketChannel.class);
+    } finally {
+      boss.shutdownGracefully();
+      worker.shutdownGracefully();
+    }
+  }
+
+  @Test
+  public void bossEventLoopGroupOnly() {
+    EventLoopGroup boss = new NioEventLoopGroup(1);
+    try {
+      ServerTuning.Builder builder = ServerTuning.builder().bossEventLoopGroup(boss);
+      try {
+        builder.build();
+        fail("expected IllegalStateException");
+      } catch (IllegalStateException expected) {
+        assertThat(expected).hasMessageThat().contains("must be set together");
+      }
+    } finally {
+      boss.shutdownGracefully();
+    }
+  }
+
+  @Test
+  public void eventLoopGroupsWithoutChannelType() {
+    EventLoopGroup boss = new NioEventLoopGroup(1);
+    EventLoopGroup worker = new NioEventLoopGroup(1);
+    try {
+      ServerTuning.Builder builder =
+          ServerTuning.builder().bossEventLoopGroup(boss).workerEventLoopGroup(worker);
+      try {
+        builder.build();
+        fail("expected IllegalStateException");
+      } catch (IllegalStateException expected) {
+        assertThat(expected).hasMessageThat().contains("must be set together");
+      }
+    } finally {
+      boss.shutdownGracefully();
+      worker.shutdownGracefully();
+    }
+  }
+
+  @Test
+  public void channelTypeOnly() {
+    Class<? extends ServerChannel> channelType = NioServerSocketChannel.class;
+    ServerTuning.Builder builder = ServerTuning.builder().channelType(channelType);
+    try {
+      builder.build();
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+      assertThat(expected).hasMessageThat().contains("must be set together");
+    }
+  }
+
+  @Test
+  public void flowControlWindow_notPositive() {
+    ServerTuning.Builder builder = ServerTuning.builder().flowControlWindow(0);
+    try {
+      builder.build();
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+      assertThat(expected).hasMessageThat().contains("flowControlWindow must be positive");
+    }
+  }
+
+  @Test
+  public void maxConcurrentCallsPerConnection_notPositive() {
+    ServerTuning.Builder builder = ServerTuning.builder().maxConcurrentCallsPerConnection(-1);
+    try {
+      builder.build();
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+      assertThat(expected)
+          .hasMessageThat()
+          .contains("maxConcurrentCallsPerConnection must be positive");
+    }
+  }
+}
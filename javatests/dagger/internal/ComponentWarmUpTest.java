@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ComponentWarmUpTest {
+  @Test
+  public void warmUp_instantiatesEveryId() throws Exception {
+    List<Integer> instantiated = Collections.synchronizedList(new ArrayList<>());
+    ComponentWarmUp.warmUp(
+        MoreExecutors.directExecutor(), new int[] {0, 1, 3, 6}, instantiated::add);
+    assertThat(instantiated).containsExactly(0, 1, 2, 3, 4, 5);
+  }
+
+  @Test
+  public void warmUp_levelsAreInstantiatedInOrder() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      int[] levelOffsets = {0, 4, 8, 12};
+      AtomicInteger[] instantiatedPerLevel = {
+        new AtomicInteger(), new AtomicInteger(), new AtomicInteger()
+      };
+      ComponentWarmUp.warmUp(
+          executor,
+          levelOffsets,
+          id -> {
+            int level = id / 4;
+            // Every id in the previous level must have been instantiated already.
+            if (level > 0) {
+              assertThat(instantiatedPerLevel[level - 1].get()).isEqualTo(4);
+            }
+            return instantiatedPerLevel[level].incrementAndGet();
+          });
+      for (AtomicInteger count : instantiatedPerLevel) {
+        assertThat(count.get()).isEqualTo(4);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void warmUp_propagatesFailure() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    AtomicInteger secondLevel = new AtomicInteger();
+    try {
+      ComponentWarmUp.warmUp(
+          executor,
+          new int[] {0, 2, 3},
+          id -> {
+            if (id == 1) {
+              throw new IllegalStateException("expected");
+            }
+            return id == 2 ? secondLevel.incrementAndGet() : id;
+          });
+      fail();
+    } catch (IllegalStateException expected) {
+      assertThat(expected).hasMessageThat().isEqualTo("expected");
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(secondLevel.get()).isEqualTo(0);
+  }
+}
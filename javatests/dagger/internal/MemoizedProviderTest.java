@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import dagger.Lazy;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class MemoizedProviderTest {
+  private static final Object INSTANCE = new Object();
+
+  @Test(expected = NullPointerException.class)
+  public void provider_nullPointerException() {
+    MemoizedProvider.provider(null);
+  }
+
+  @Test
+  public void get_delegates() {
+    Provider<Object> provider = MemoizedProvider.provider(() -> INSTANCE);
+    assertThat(provider.get()).isSameInstanceAs(INSTANCE);
+    assertThat(((Lazy<?>) provider).get()).isSameInstanceAs(INSTANCE);
+  }
+
+  @Test
+  public void provider_alreadyLazy_isNotWrapped() {
+    Provider<Object> doubleCheck = DoubleCheck.provider(Object::new);
+    assertThat(MemoizedProvider.provider(doubleCheck)).isSameInstanceAs(doubleCheck);
+
+    Provider<Object> instanceFactory = InstanceFactory.create(INSTANCE);
+    assertThat(MemoizedProvider.provider(instanceFactory)).isSameInstanceAs(instanceFactory);
+  }
+
+  @Test
+  public void lazy_isShared() {
+    Provider<Object> provider = MemoizedProvider.provider(() -> INSTANCE);
+    assertThat(DoubleCheck.lazy(provider)).isSameInstanceAs(provider);
+    assertThat(ProviderOfLazy.create(provider).get()).isSameInstanceAs(provider);
+  }
+
+  @Test
+  public void scoping_isNotRepeated() {
+    Provider<Object> provider = MemoizedProvider.provider(() -> INSTANCE);
+    assertThat(DoubleCheck.provider(provider)).isSameInstanceAs(provider);
+    assertThat(SingleCheck.provider(provider)).isSameInstanceAs(provider);
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ScopedInstanceTableTest {
+  @Test
+  public void get_beforeMemoize_returnsNull() {
+    ScopedInstanceTable table = new ScopedInstanceTable(2);
+    assertThat(table.get(0)).isNull();
+    assertThat(table.get(1)).isNull();
+  }
+
+  @Test
+  public void memoize() {
+    ScopedInstanceTable table = new ScopedInstanceTable(2);
+    Object instance = new Object();
+    table.memoize(1, instance);
+    assertThat(table.get(0)).isNull();
+    assertThat(table.get(1)).isSameInstanceAs(instance);
+  }
+
+  @Test
+  public void memoize_sameInstance() {
+    ScopedInstanceTable table = new ScopedInstanceTable(1);
+    Object instance = new Object();
+    table.memoize(0, instance);
+    table.memoize(0, instance);
+    assertThat(table.get(0)).isSameInstanceAs(instance);
+  }
+
+  @Test
+  public void memoize_differentInstance_throws() {
+    ScopedInstanceTable table = new ScopedInstanceTable(1);
+    Object instance = new Object();
+    table.memoize(0, instance);
+    try {
+      table.memoize(0, new Object());
+      fail();
+    } catch (IllegalStateException expected) {
+      assertThat(expected).hasMessageThat().contains("circular dependency");
+    }
+    assertThat(table.get(0)).isSameInstanceAs(instance);
+  }
+
+  @Test
+  public void lock_sameSlot_sameLockUntilMemoized() {
+    ScopedInstanceTable table = new ScopedInstanceTable(1);
+    Object lock = table.lock(0);
+    assertThat(table.lock(0)).isSameInstanceAs(lock);
+    table.memoize(0, new Object());
+    assertThat(table.lock(0)).isNotSameInstanceAs(lock);
+  }
+
+  @Test
+  public void lock_differentSlots_differentLocks() {
+    ScopedInstanceTable table = new ScopedInstanceTable(2);
+    assertThat(table.lock(0)).isNotSameInstanceAs(table.lock(1));
+  }
+
+  @Test
+  public void lock_doesNotBlockOtherSlots() throws Exception {
+    ScopedInstanceTable table = new ScopedInstanceTable(2);
+    CountDownLatch memoizedSlot1 = new CountDownLatch(1);
+    synchronized (table.lock(0)) {
+      Thread thread =
+          new Thread() {
+            @Override
+            public void run() {
+              synchronized (table.lock(1)) {
+                table.memoize(1, new Object());
+              }
+              memoizedSlot1.countDown();
+            }
+          };
+      thread.start();
+      assertThat(memoizedSlot1.await(10, TimeUnit.SECONDS)).isTrue();
+      table.memoize(0, new Object());
+    }
+    assertThat(table.get(0)).isNotNull();
+    assertThat(table.get(1)).isNotNull();
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.compilerWithOptions;
+
+import com.google.common.truth.StringSubject;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for the component API that is generated in header compilation. */
+@RunWith(JUnit4.class)
+public final class ComponentHjarGeneratorTest {
+  @Test
+  public void builder_withoutRequirements_hasCreateMethod() {
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "",
+            "@Component",
+            "interface TestComponent {",
+            "  @Component.Builder",
+            "  interface Builder {",
+            "    TestComponent build();",
+            "  }",
+            "}");
+    StringSubject generated = assertThatGeneratedComponent(compile(component));
+    generated.contains("static TestComponent.Builder builder()");
+    generated.contains("static TestComponent create()");
+  }
+
+  @Test
+  public void builder_withBindsInstance_hasNoCreateMethod() {
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.BindsInstance;",
+            "import dagger.Component;",
+            "",
+            "@Component",
+            "interface TestComponent {",
+            "  @Component.Builder",
+            "  interface Builder {",
+            "    @BindsInstance Builder name(String name);",
+            "    TestComponent build();",
+            "  }",
+            "}");
+    StringSubject generated = assertThatGeneratedComponent(compile(component));
+    generated.contains("static TestComponent.Builder builder()");
+    generated.doesNotContain("create()");
+  }
+
+  @Test
+  public void factory_withoutParameters_hasCreateMethod() {
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "",
+            "@Component",
+            "interface TestComponent {",
+            "  @Component.Factory",
+            "  interface Factory {",
+            "    TestComponent create();",
+            "  }",
+            "}");
+    StringSubject generated = assertThatGeneratedComponent(compile(component));
+    generated.contains("static TestComponent.Factory factory()");
+    generated.contains("static TestComponent create()");
+  }
+
+  @Test
+  public void factory_returningSupertypeWithParameters_hasNoCreateMethod() {
+    JavaFileObject parent =
+        JavaFileObjects.forSourceLines("test.Parent", "package test;", "", "interface Parent {}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.BindsInstance;",
+            "import dagger.Component;",
+            "",
+            "@Component",
+            "interface TestComponent extends Parent {",
+            "  @Component.Factory",
+            "  interface Factory {",
+            "    Parent create(@BindsInstance String name, @BindsInstance Integer count);",
+            "  }",
+            "}");
+    StringSubject generated = assertThatGeneratedComponent(compile(parent, component));
+    generated.contains("static TestComponent.Factory factory()");
+    generated.doesNotContain("create()");
+  }
+
+  @Test
+  public void withoutCreator_generatesBuilderWithModuleSetters() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "",
+            "@Module",
+            "final class TestModule {",
+            "  TestModule(String name) {}",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "",
+            "@Component(modules = TestModule.class)",
+            "interface TestComponent {}");
+    StringSubject generated = assertThatGeneratedComponent(compile(module, component));
+    generated.contains("static Builder builder()");
+    generated.contains("Builder testModule(TestModule testModule)");
+    generated.doesNotContain("create()");
+  }
+
+  @Test
+  public void productionComponent() {
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import com.google.common.util.concurrent.ListenableFuture;",
+            "import dagger.producers.ProductionComponent;",
+            "",
+            "@ProductionComponent",
+            "interface TestComponent {",
+            "  ListenableFuture<String> name();",
+            "",
+            "  @ProductionComponent.Builder",
+            "  interface Builder {",
+            "    TestComponent build();",
+            "  }",
+            "}");
+    StringSubject generated =
+        assertThatGeneratedComponent(
+            compilerWithOptions(
+                    "-Aexperimental_turbine_hjar",
+                    "-Adagger.generatedClassExtendsComponent=ENABLED",
+                    "-proc:only")
+                .compile(component));
+    generated.contains("CancellationListener");
+    generated.contains("void onProducerFutureCancelled(boolean mayInterruptIfRunning)");
+    generated.contains("ListenableFuture<String> name()");
+    generated.contains("static TestComponent.Builder builder()");
+    generated.contains("static TestComponent create()");
+  }
+
+  @Test
+  public void multipleCreators_generatesNothing() {
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "",
+            "@Component",
+            "interface TestComponent {",
+            "  @Component.Builder",
+            "  interface Builder {",
+            "    TestComponent build();",
+            "  }",
+            "",
+            "  @Component.Factory",
+            "  interface Factory {",
+            "    TestComponent create();",
+            "  }",
+            "}");
+    Compilation compilation = compile(component);
+    assertThat(compilation.generatedSourceFile("test.DaggerTestComponent").isPresent()).isFalse();
+  }
+
+  // Header compilation emits methods without bodies, so the generated sources aren't compiled.
+  private static Compilation compile(JavaFileObject... sources) {
+    return compilerWithOptions("-Aexperimental_turbine_hjar", "-proc:only").compile(sources);
+  }
+
+  private static StringSubject assertThatGeneratedComponent(Compilation compilation) {
+    assertThat(compilation).succeeded();
+    return assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String();
+  }
+}
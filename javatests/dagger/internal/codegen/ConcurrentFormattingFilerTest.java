@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.compilerWithOptions;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager.Location;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link ConcurrentFormattingFiler}. */
+@RunWith(JUnit4.class)
+public final class ConcurrentFormattingFilerTest {
+  private static final String UNFORMATTED = "class Foo {int x;}";
+  private static final String FORMATTED = "class Foo {\n  int x;\n}\n";
+
+  private final RecordingFiler delegate = new RecordingFiler();
+  private final RecordingMessager messager = new RecordingMessager();
+
+  @Test
+  public void writesSourcesInCreationOrder() throws IOException {
+    ConcurrentFormattingFiler filer = newFiler(1000, 2);
+    for (String name : new String[] {"A", "B", "C", "D", "E"}) {
+      writeSource(filer, name, UNFORMATTED);
+    }
+    filer.writePendingSources(false);
+
+    assertThat(delegate.written.keySet()).containsExactly("A", "B", "C", "D", "E").inOrder();
+    assertThat(delegate.written.values())
+        .containsExactly(FORMATTED, FORMATTED, FORMATTED, FORMATTED, FORMATTED);
+  }
+
+  @Test
+  public void writesOldestSourceWhenTooManyArePending() throws IOException {
+    ConcurrentFormattingFiler filer = newFiler(1000, 2);
+    writeSource(filer, "A", UNFORMATTED);
+    writeSource(filer, "B", UNFORMATTED);
+    assertThat(delegate.written).isEmpty();
+
+    writeSource(filer, "C", UNFORMATTED);
+    assertThat(delegate.written.keySet()).containsExactly("A");
+  }
+
+  @Test
+  public void writePendingSources_writesEverySourceBeforeTheRoundEnds() throws IOException {
+    ConcurrentFormattingFiler filer = newFiler(1000, 4);
+    writeSource(filer, "A", UNFORMATTED);
+    writeSource(filer, "B", UNFORMATTED);
+    assertThat(delegate.written).isEmpty();
+
+    filer.writePendingSources(false);
+    assertThat(delegate.written.keySet()).containsExactly("A", "B").inOrder();
+    assertThat(messager.notes).isEmpty();
+
+    writeSource(filer, "C", UNFORMATTED);
+    filer.writePendingSources(true);
+    assertThat(delegate.written.keySet()).containsExactly("A", "B", "C").inOrder();
+    assertThat(messager.notes).hasSize(1);
+    assertThat(messager.notes.get(0)).contains("Dagger formatted 3 generated sources");
+  }
+
+  @Test
+  public void sourceLongerThanMaxLength_isWrittenWithoutFormatting() throws IOException {
+    ConcurrentFormattingFiler filer = newFiler(UNFORMATTED.length() - 1, 2);
+    writeSource(filer, "A", UNFORMATTED);
+    assertThat(delegate.written).containsExactly("A", UNFORMATTED);
+
+    filer.writePendingSources(true);
+    assertThat(messager.notes).hasSize(1);
+    assertThat(messager.notes.get(0))
+        .contains(
+            "1 sources longer than " + (UNFORMATTED.length() - 1) + " characters were not"
+                + " formatted");
+  }
+
+  @Test
+  public void sourceOfMaxLength_isFormatted() throws IOException {
+    ConcurrentFormattingFiler filer = newFiler(UNFORMATTED.length(), 2);
+    writeSource(filer, "A", UNFORMATTED);
+    filer.writePendingSources(false);
+
+    assertThat(delegate.written).containsExactly("A", FORMATTED);
+  }
+
+  @Test
+  public void unparseableSource_isWrittenWithoutFormattingAndReported() throws IOException {
+    ConcurrentFormattingFiler filer = newFiler(1000, 2);
+    writeSource(filer, "A", "class {");
+    writeSource(filer, "B", UNFORMATTED);
+    filer.writePendingSources(true);
+
+    assertThat(delegate.written).containsExactly("A", "class {", "B", FORMATTED).inOrder();
+    assertThat(messager.notes).hasSize(2);
+    assertThat(messager.notes.get(0)).contains("Dagger could not format /A.java");
+    assertThat(messager.notes.get(1)).contains("Dagger formatted 1 generated sources");
+    assertThat(messager.notes.get(1)).contains("1 sources could not be formatted");
+  }
+
+  @Test
+  public void maxLengthOption_mustBePositive() {
+    for (String value : new String[] {"0", "-1", "ten"}) {
+      Compilation compilation =
+          compilerWithOptions(
+                  "-Adagger.formatGeneratedSource=ENABLED",
+                  "-Adagger.formatGeneratedSourceMaxLength=" + value)
+              .compile(JavaFileObjects.forSourceLines("test.Foo", "package test;", "class Foo {}"));
+      assertThat(compilation).failed();
+      assertThat(compilation)
+          .hadErrorContaining(
+              "Processor option -Adagger.formatGeneratedSourceMaxLength must be a positive"
+                  + " integer, found: "
+                  + value);
+    }
+  }
+
+  private ConcurrentFormattingFiler newFiler(int maxLength, int maxPendingSources) {
+    return new ConcurrentFormattingFiler(
+        () -> delegate, () -> messager, maxLength, maxPendingSources);
+  }
+
+  private static void writeSource(ConcurrentFormattingFiler filer, String name, String source)
+      throws IOException {
+    try (Writer writer = filer.createSourceFile(name).openWriter()) {
+      writer.write(source);
+    }
+  }
+
+  /** A filer that records the contents of each source file when its writer is closed. */
+  private static final class RecordingFiler implements Filer {
+    final Map<String, String> written = new LinkedHashMap<>();
+
+    @Override
+    public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) {
+      return new SimpleJavaFileObject(
+          URI.create("string:///" + name + ".java"), JavaFileObject.Kind.SOURCE) {
+        @Override
+        public Writer openWriter() {
+          return new StringWriter() {
+            @Override
+            public void close() throws IOException {
+              super.close();
+              written.put(name.toString(), toString());
+            }
+          };
+        }
+      };
+    }
+
+    @Override
+    public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileObject createResource(
+        Location location,
+        CharSequence moduleAndPkg,
+        CharSequence relativeName,
+        Element... originatingElements) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileObject getResource(
+        Location location, CharSequence moduleAndPkg, CharSequence relativeName) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /** A messager that records the text of each note. */
+  private static final class RecordingMessager implements Messager {
+    final List<String> notes = new ArrayList<>();
+
+    @Override
+    public void printMessage(Diagnostic.Kind kind, CharSequence msg) {
+      assertThat(kind).isEqualTo(Diagnostic.Kind.NOTE);
+      notes.add(msg.toString());
+    }
+
+    @Override
+    public void printMessage(Diagnostic.Kind kind, CharSequence msg, Element e) {
+      printMessage(kind, msg);
+    }
+
+    @Override
+    public void printMessage(
+        Diagnostic.Kind kind, CharSequence msg, Element e, AnnotationMirror a) {
+      printMessage(kind, msg);
+    }
+
+    @Override
+    public void printMessage(
+        Diagnostic.Kind kind, CharSequence msg, Element e, AnnotationMirror a, AnnotationValue v) {
+      printMessage(kind, msg);
+    }
+  }
+}
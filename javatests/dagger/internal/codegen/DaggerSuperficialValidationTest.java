@@ -573,6 +573,60 @@ public class DaggerSuperficialValidationTest {
         .failsToCompile();
   }
 
+  @Test
+  public void invalidSuperclassInTypeHierarchy_sharedSupertype() {
+    JavaFileObject javaFileObject =
+        JavaFileObjects.forSourceLines(
+            "test.Outer",
+            "package test;",
+            "",
+            "final class Outer {",
+            "  Child1 getChild1() { return null; }",
+            "  Child2 getChild2() { return null; }",
+            "",
+            "  static class Child1 extends Parent<Long> {}",
+            "",
+            "  static class Child2 extends Parent<Long> {}",
+            "",
+            "  static class Parent<T> extends MissingType<T> {}",
+            "}");
+    assertAbout(javaSource())
+        .that(javaFileObject)
+        .processedWith(
+            new AssertingProcessor() {
+              @Override
+              void runAssertions(
+                  XProcessingEnv processingEnv, DaggerSuperficialValidation superficialValidation) {
+                XTypeElement outerElement = processingEnv.findTypeElement("test.Outer");
+                for (XMethodElement method : outerElement.getDeclaredMethods()) {
+                  // The second method's hierarchy is validated from the cached results of Parent,
+                  // but the validation trace should be the same.
+                  for (int i = 0; i < 2; i++) {
+                    ValidationException exception =
+                        assertThrows(
+                            ValidationException.KnownErrorType.class,
+                            () ->
+                                superficialValidation.validateTypeHierarchyOf(
+                                    "return type", method, method.getReturnType()));
+                    assertThat(exception)
+                        .hasMessageThat()
+                        .contains(
+                            NEW_LINES.join(
+                                "Validation trace:",
+                                "  => element (CLASS): test.Outer",
+                                String.format("  => element (METHOD): %s()", method.getName()),
+                                String.format(
+                                    "  => type (DECLARED return type): test.Outer.%s",
+                                    method.getReturnType().getTypeElement().getName()),
+                                "  => type (DECLARED supertype): test.Outer.Parent<java.lang.Long>",
+                                "  => type (ERROR supertype): MissingType<T>"));
+                  }
+                }
+              }
+            })
+        .failsToCompile();
+  }
+
   private abstract static class AssertingProcessor extends AbstractProcessor {
     private boolean processed = false;
 
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.compilerWithOptions;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+
+import androidx.room.compiler.processing.util.Source;
+import com.google.common.collect.ImmutableMap;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import dagger.testing.compile.CompilerTests;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests the code generated for {@code -Adagger.experimentalInlineFieldInjection}. */
+@RunWith(JUnit4.class)
+public class InlineFieldInjectionTest {
+  private static final JavaFileObject BASE =
+      JavaFileObjects.forSourceLines(
+          "other.Base",
+          "package other;",
+          "",
+          "import javax.inject.Inject;",
+          "",
+          "public class Base {",
+          "  @Inject String packagePrivateField;",
+          "  @Inject public String publicField;",
+          "}");
+
+  private static final JavaFileObject FOO =
+      JavaFileObjects.forSourceLines(
+          "test.Foo",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "import other.Base;",
+          "",
+          "public class Foo extends Base {",
+          "  @Inject String localField;",
+          "}");
+
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.BindsInstance;",
+          "import dagger.Component;",
+          "",
+          "@Component",
+          "interface TestComponent {",
+          "  void inject(Foo foo);",
+          "",
+          "  @Component.Factory",
+          "  interface Factory {",
+          "    TestComponent create(@BindsInstance String string);",
+          "  }",
+          "}");
+
+  @Test
+  public void accessibleFields_assignedDirectly() {
+    Compilation compilation =
+        compilerWithOptions("-Adagger.experimentalInlineFieldInjection=ENABLED")
+            .compile(BASE, FOO, COMPONENT);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains("instance.localField = ");
+    // The instance is cast to the declaring type, since a subclass field could hide the field.
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains("((Base) instance).publicField = ");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("Foo_MembersInjector.injectLocalField");
+  }
+
+  @Test
+  public void inaccessibleField_usesMembersInjector() {
+    Compilation compilation =
+        compilerWithOptions("-Adagger.experimentalInlineFieldInjection=ENABLED")
+            .compile(BASE, FOO, COMPONENT);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains("Base_MembersInjector.injectPackagePrivateField(instance, ");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("packagePrivateField =");
+  }
+
+  @Test
+  public void disabled_usesMembersInjector() {
+    Compilation compilation = daggerCompiler().compile(BASE, FOO, COMPONENT);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains("Foo_MembersInjector.injectLocalField(instance, ");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("instance.localField =");
+  }
+
+  @Test
+  public void kotlinField_usesMembersInjector() {
+    Source kotlinFoo =
+        CompilerTests.kotlinSource(
+            "test/KotlinFoo.kt",
+            "package test",
+            "",
+            "import javax.inject.Inject",
+            "",
+            "class KotlinFoo {",
+            "  @Inject lateinit var field: String",
+            "}");
+    Source component =
+        CompilerTests.javaSource(
+            "test/TestComponent",
+            "package test;",
+            "",
+            "import dagger.BindsInstance;",
+            "import dagger.Component;",
+            "",
+            "@Component",
+            "interface TestComponent {",
+            "  void inject(KotlinFoo foo);",
+            "",
+            "  @Component.Factory",
+            "  interface Factory {",
+            "    TestComponent create(@BindsInstance String string);",
+            "  }",
+            "}");
+
+    CompilerTests.daggerCompiler(kotlinFoo, component)
+        .withProcessingOptions(
+            ImmutableMap.of("dagger.experimentalInlineFieldInjection", "enabled"))
+        .compile(
+            subject -> {
+              subject.hasErrorCount(0);
+              // The backing field of a Kotlin property may not have the property's visibility.
+              subject
+                  .generatedSourceFileWithPath("test/DaggerTestComponent.java")
+                  .contains("KotlinFoo_MembersInjector.injectField(instance, ");
+            });
+  }
+}
@@ -110,6 +110,21 @@ public class KeyFactoryTest {
     }
   }
 
+  @Test
+  public void equalKeys_areInterned() {
+    XType stringType = processingEnv.requireType(String.class.getCanonicalName());
+    XTypeElement moduleElement =
+        processingEnv.requireTypeElement(ProvidesMethodModule.class.getCanonicalName());
+    XMethodElement providesMethod = getOnlyElement(moduleElement.getDeclaredMethods());
+    Key key = keyFactory.forProvidesMethod(providesMethod, moduleElement);
+    assertThat(keyFactory.forInjectConstructorWithResolvedType(stringType)).isSameInstanceAs(key);
+
+    keyFactory.clearCache();
+    Key keyAfterClear = keyFactory.forInjectConstructorWithResolvedType(stringType);
+    assertThat(keyAfterClear).isEqualTo(key);
+    assertThat(keyAfterClear).isNotSameInstanceAs(key);
+  }
+
   @Test
   public void forProvidesMethod_qualified() {
     XType stringType = processingEnv.requireType(String.class.getCanonicalName());
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.compilerWithOptions;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class PerformanceAdvisorTest {
+  private static final JavaFileObject WRAPPED_SCOPED_BINDING_COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "import dagger.Lazy;",
+          "import javax.inject.Inject;",
+          "import javax.inject.Provider;",
+          "import javax.inject.Singleton;",
+          "",
+          "@Singleton",
+          "@Component",
+          "interface TestComponent {",
+          "  Provider<Scoped> scopedProvider();",
+          "  Lazy<Scoped> scopedLazy();",
+          "",
+          "  @Singleton",
+          "  final class Scoped {",
+          "    @Inject Scoped() {}",
+          "  }",
+          "}");
+
+  @Test
+  public void disabledByDefault() {
+    Compilation compilation = daggerCompiler().compile(WRAPPED_SCOPED_BINDING_COMPONENT);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertNoAdvice(compilation);
+  }
+
+  @Test
+  public void wrappedScopedBinding() {
+    Compilation compilation =
+        compilerWithOptions("-Adagger.performanceAdvisor=ENABLED")
+            .compile(WRAPPED_SCOPED_BINDING_COMPONENT);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .hadNoteContaining(
+            "{\"check\":\"WRAPPED_SCOPED_BINDING\",\"subject\":\"test.TestComponent.Scoped\","
+                + "\"componentPath\":\"test.TestComponent\",\"weight\":2,\"count\":2}")
+        .inFile(WRAPPED_SCOPED_BINDING_COMPONENT)
+        .onLineContaining("interface TestComponent");
+  }
+
+  @Test
+  public void delegateFactoryCycle() {
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import javax.inject.Inject;",
+            "import javax.inject.Provider;",
+            "",
+            "@Component",
+            "interface TestComponent {",
+            "  A a();",
+            "",
+            "  final class A {",
+            "    @Inject A(B b) {}",
+            "  }",
+            "",
+            "  final class B {",
+            "    @Inject B(Provider<A> aProvider) {}",
+            "  }",
+            "}");
+
+    Compilation compilation =
+        compilerWithOptions("-Adagger.performanceAdvisor=ENABLED").compile(component);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .hadNoteContaining(
+            "\"check\":\"DELEGATE_FACTORY_CYCLE\",\"subject\":\"test.TestComponent.A\"")
+        .inFile(component)
+        .onLineContaining("interface TestComponent");
+  }
+
+  @Test
+  public void providerOutsideCycle_isNotDelegateFactoryCycle() {
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import javax.inject.Inject;",
+            "import javax.inject.Provider;",
+            "",
+            "@Component",
+            "interface TestComponent {",
+            "  C c();",
+            "",
+            "  final class A {",
+            "    @Inject A(B b) {}",
+            "  }",
+            "",
+            "  final class B {",
+            "    @Inject B() {}",
+            "  }",
+            "",
+            "  final class C {",
+            "    @Inject C(Provider<A> aProvider, B b) {}",
+            "  }",
+            "}");
+
+    Compilation compilation =
+        compilerWithOptions("-Adagger.performanceAdvisor=ENABLED").compile(component);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertNoAdvice(compilation);
+  }
+
+  @Test
+  public void noFindings_noNote() {
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import javax.inject.Inject;",
+            "",
+            "@Component",
+            "interface TestComponent {",
+            "  Foo foo();",
+            "",
+            "  final class Foo {",
+            "    @Inject Foo() {}",
+            "  }",
+            "}");
+
+    Compilation compilation =
+        compilerWithOptions("-Adagger.performanceAdvisor=ENABLED").compile(component);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertNoAdvice(compilation);
+  }
+
+  private static void assertNoAdvice(Compilation compilation) {
+    for (Diagnostic<? extends JavaFileObject> note : compilation.notes()) {
+      assertThat(note.getMessage(null)).doesNotContain("Dagger/PerformanceAdvisor");
+    }
+  }
+}
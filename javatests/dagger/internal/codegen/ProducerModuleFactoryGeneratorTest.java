@@ -22,6 +22,7 @@ import static com.google.testing.compile.CompilationSubject.assertThat;
 import static com.google.testing.compile.JavaSourceSubjectFactory.javaSource;
 import static dagger.internal.codegen.Compilers.daggerCompiler;
 import static dagger.internal.codegen.DaggerModuleMethodSubject.Factory.assertThatMethodInUnannotatedClass;
+import static dagger.internal.codegen.DaggerModuleMethodSubject.Factory.assertThatModuleMethod;
 import static dagger.internal.codegen.DaggerModuleMethodSubject.Factory.assertThatProductionModuleMethod;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
@@ -511,6 +512,145 @@ public class ProducerModuleFactoryGeneratorTest {
                 + "when T is a wildcard type such as ? extends java.lang.Number");
   }
 
+  @Test
+  public void cacheableMethodNotStatic() {
+    assertThatProductionModuleMethod("@Produces @Cacheable String produceString() { return null; }")
+        .hasError("@Cacheable methods must be static");
+  }
+
+  @Test
+  public void cacheableMethodWithProviderDependency() {
+    assertThatProductionModuleMethod(
+            "@Produces @Cacheable static String produceString(Provider<Integer> intProvider) "
+                + "{ return null; }")
+        .hasError("@Cacheable methods may only depend on values or Produced values");
+  }
+
+  @Test
+  public void cacheableProvidesMethod() {
+    assertThatModuleMethod("@Provides @Cacheable static String provideString() { return null; }")
+        .hasError("@Cacheable may only be on @Produces methods");
+  }
+
+  @Test
+  public void latencyPolicyWithNegativeTimeout() {
+    assertThatProductionModuleMethod(
+            "@Produces @LatencyPolicy(timeout = -1) String produceString() { return null; }")
+        .hasError("@LatencyPolicy durations cannot be negative");
+  }
+
+  @Test
+  public void latencyPolicyWithNegativeHedgeAfter() {
+    assertThatProductionModuleMethod(
+            "@Produces @LatencyPolicy(hedgeAfter = -1) String produceString() { return null; }")
+        .hasError("@LatencyPolicy durations cannot be negative");
+  }
+
+  @Test
+  public void latencyPolicyHedgingAtTimeout() {
+    assertThatProductionModuleMethod(
+            "@Produces @LatencyPolicy(timeout = 10, hedgeAfter = 10) "
+                + "String produceString() { return null; }")
+        .hasError("@LatencyPolicy.hedgeAfter must be less than @LatencyPolicy.timeout");
+  }
+
+  @Test
+  public void latencyPolicyProvidesMethod() {
+    assertThatModuleMethod(
+            "@Provides @LatencyPolicy(timeout = 10) static String provideString() { return null; }")
+        .hasError("@LatencyPolicy may only be on @Produces methods");
+  }
+
+  @Test
+  public void latencyPolicyOutsideModule() {
+    assertThatMethodInUnannotatedClass(
+            "@LatencyPolicy(timeout = 10) String produceString() { return null; }")
+        .hasError("@LatencyPolicy may only be on @Produces methods");
+  }
+
+  @Test
+  public void cacheableMethod_passesResultCacheToProducer() {
+    JavaFileObject moduleFile =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.producers.Cacheable;",
+            "import dagger.producers.Produced;",
+            "import dagger.producers.ProducerModule;",
+            "import dagger.producers.Produces;",
+            "",
+            "@ProducerModule",
+            "final class TestModule {",
+            "  @Produces @Cacheable static String produceString(int i, Produced<Long> l) {",
+            "    return null;",
+            "  }",
+            "}");
+    Compilation compilation = daggerCompiler().compile(moduleFile);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.TestModule_ProduceStringFactory")
+        .contentsAsUtf8String()
+        .contains("Provider<ProducerResultCache> producerResultCacheProvider) {");
+    assertThat(compilation)
+        .generatedSourceFile("test.TestModule_ProduceStringFactory")
+        .contentsAsUtf8String()
+        .containsMatch("super\\([^;]*executorProvider,\\s*producerResultCacheProvider\\);");
+  }
+
+  @Test
+  public void cacheableMethod_requiresResultCacheBinding() {
+    JavaFileObject moduleFile =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.producers.Cacheable;",
+            "import dagger.producers.ProducerModule;",
+            "import dagger.producers.Produces;",
+            "",
+            "@ProducerModule",
+            "final class TestModule {",
+            "  @Produces @Cacheable static String produceString() {",
+            "    return \"\";",
+            "  }",
+            "}");
+    JavaFileObject componentFile =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import com.google.common.util.concurrent.ListenableFuture;",
+            "import dagger.producers.ProductionComponent;",
+            "",
+            "@ProductionComponent(modules = {ExecutorModule.class, TestModule.class})",
+            "interface TestComponent {",
+            "  ListenableFuture<String> string();",
+            "}");
+    JavaFileObject executorModuleFile =
+        JavaFileObjects.forSourceLines(
+            "test.ExecutorModule",
+            "package test;",
+            "",
+            "import com.google.common.util.concurrent.MoreExecutors;",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.producers.Production;",
+            "import java.util.concurrent.Executor;",
+            "",
+            "@Module",
+            "final class ExecutorModule {",
+            "  @Provides @Production static Executor executor() {",
+            "    return MoreExecutors.directExecutor();",
+            "  }",
+            "}");
+    Compilation compilation =
+        daggerCompiler().compile(moduleFile, componentFile, executorModuleFile);
+    assertThat(compilation).failed();
+    assertThat(compilation)
+        .hadErrorContaining("dagger.producers.ProducerResultCache cannot be provided");
+  }
+
   @Qualifier
   @Retention(RUNTIME)
   public @interface QualifierA {}
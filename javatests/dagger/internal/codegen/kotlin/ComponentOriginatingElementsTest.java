@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen.kotlin;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.room.compiler.processing.XProcessingEnvConfig;
+import androidx.room.compiler.processing.util.ProcessorTestExtKt;
+import androidx.room.compiler.processing.util.Source;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.devtools.ksp.processing.CodeGenerator;
+import com.google.devtools.ksp.processing.Dependencies;
+import com.google.devtools.ksp.processing.SymbolProcessor;
+import com.google.devtools.ksp.processing.SymbolProcessorEnvironment;
+import com.google.devtools.ksp.processing.SymbolProcessorProvider;
+import com.google.devtools.ksp.symbol.KSFile;
+import dagger.internal.codegen.ComponentProcessor;
+import dagger.internal.codegen.KspComponentProcessor;
+import dagger.testing.compile.CompilerTests;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager.Location;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests the originating elements that are reported for generated components. */
+@RunWith(JUnit4.class)
+public final class ComponentOriginatingElementsTest {
+  private static final XProcessingEnvConfig PROCESSING_ENV_CONFIG =
+      new XProcessingEnvConfig.Builder().disableAnnotatedElementValidation(true).build();
+
+  private static final ImmutableList<Source> SOURCES =
+      ImmutableList.of(
+          CompilerTests.javaSource(
+              "test/TestComponent.java",
+              "package test;",
+              "",
+              "import dagger.Component;",
+              "",
+              "@Component(modules = TestModule.class)",
+              "interface TestComponent {",
+              "  Foo foo();",
+              "",
+              "  TestSubcomponent subcomponent();",
+              "}"),
+          CompilerTests.javaSource(
+              "test/TestModule.java",
+              "package test;",
+              "",
+              "import dagger.Module;",
+              "import dagger.Provides;",
+              "",
+              "@Module",
+              "final class TestModule {",
+              "  @Provides",
+              "  static String provideString() {",
+              "    return \"\";",
+              "  }",
+              "}"),
+          CompilerTests.javaSource(
+              "test/Foo.java",
+              "package test;",
+              "",
+              "import javax.inject.Inject;",
+              "",
+              "final class Foo {",
+              "  @Inject",
+              "  Foo(String string) {}",
+              "}"),
+          CompilerTests.javaSource(
+              "test/TestSubcomponent.java",
+              "package test;",
+              "",
+              "import dagger.Subcomponent;",
+              "",
+              "@Subcomponent",
+              "interface TestSubcomponent {",
+              "  Bar bar();",
+              "}"),
+          CompilerTests.javaSource(
+              "test/Bar.java",
+              "package test;",
+              "",
+              "import javax.inject.Inject;",
+              "",
+              "final class Bar {",
+              "  @Inject",
+              "  Bar() {}",
+              "}"),
+          CompilerTests.javaSource(
+              "test/Unused.java",
+              "package test;",
+              "",
+              "import javax.inject.Inject;",
+              "",
+              "final class Unused {",
+              "  @Inject",
+              "  Unused() {}",
+              "}"));
+
+  @Test
+  public void componentOriginatingElements() {
+    RecordingJavacProcessor javacProcessor = new RecordingJavacProcessor();
+    RecordingSymbolProcessorProvider symbolProcessorProvider =
+        new RecordingSymbolProcessorProvider();
+
+    ProcessorTestExtKt.runProcessorTest(
+        SOURCES,
+        /* classpath= */ ImmutableList.of(),
+        /* options= */ ImmutableMap.of(),
+        /* javacArguments= */ ImmutableList.of(),
+        /* kotlincArguments= */ ImmutableList.of(),
+        /* config= */ PROCESSING_ENV_CONFIG,
+        /* javacProcessors= */ ImmutableList.of(javacProcessor),
+        /* symbolProcessorProviders= */ ImmutableList.of(symbolProcessorProvider),
+        result -> {
+          result.hasErrorCount(0);
+          return null;
+        });
+
+    // KSP tracks every source file that the component's graph is built from.
+    assertThat(symbolProcessorProvider.originatingFiles.get("DaggerTestComponent"))
+        .containsExactly(
+            "TestComponent.java",
+            "TestModule.java",
+            "Foo.java",
+            "TestSubcomponent.java",
+            "Bar.java");
+    // Javac's output keeps the single originating element that Gradle requires of isolating
+    // processors.
+    assertThat(javacProcessor.originatingElements.get("test.DaggerTestComponent"))
+        .containsExactly("test.TestComponent");
+  }
+
+  /**
+   * A {@link KspComponentProcessor.Provider} that records the source files each generated file
+   * depends on.
+   */
+  private static final class RecordingSymbolProcessorProvider implements SymbolProcessorProvider {
+    private final Map<String, ImmutableSet<String>> originatingFiles = new HashMap<>();
+
+    @Override
+    public SymbolProcessor create(SymbolProcessorEnvironment environment) {
+      return new KspComponentProcessor.Provider()
+          .create(
+              new SymbolProcessorEnvironment(
+                  environment.getOptions(),
+                  environment.getKotlinVersion(),
+                  recordingCodeGenerator(environment.getCodeGenerator()),
+                  environment.getLogger(),
+                  environment.getApiVersion(),
+                  environment.getCompilerVersion(),
+                  environment.getPlatforms()));
+    }
+
+    private CodeGenerator recordingCodeGenerator(CodeGenerator delegate) {
+      return (CodeGenerator)
+          Proxy.newProxyInstance(
+              CodeGenerator.class.getClassLoader(),
+              new Class<?>[] {CodeGenerator.class},
+              (proxy, method, args) -> {
+                if (method.getName().equals("createNewFile")) {
+                  // createNewFile(dependencies, packageName, fileName, extensionName)
+                  Dependencies dependencies = (Dependencies) args[0];
+                  originatingFiles.put(
+                      (String) args[2],
+                      dependencies.getOriginatingFiles().stream()
+                          .map(KSFile::getFileName)
+                          .collect(toImmutableSet()));
+                }
+                try {
+                  return method.invoke(delegate, args);
+                } catch (InvocationTargetException e) {
+                  throw e.getCause();
+                }
+              });
+    }
+  }
+
+  /**
+   * A {@link ComponentProcessor} that records the originating elements of each generated source
+   * file.
+   */
+  private static final class RecordingJavacProcessor implements Processor {
+    private final Processor delegate = new ComponentProcessor();
+    private final Map<String, ImmutableSet<String>> originatingElements = new HashMap<>();
+
+    @Override
+    public Set<String> getSupportedOptions() {
+      return delegate.getSupportedOptions();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+      return delegate.getSupportedAnnotationTypes();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return delegate.getSupportedSourceVersion();
+    }
+
+    @Override
+    public void init(ProcessingEnvironment processingEnv) {
+      delegate.init(new RecordingProcessingEnvironment(processingEnv));
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      return delegate.process(annotations, roundEnv);
+    }
+
+    @Override
+    public Iterable<? extends Completion> getCompletions(
+        Element element, AnnotationMirror annotation, ExecutableElement member, String userText) {
+      return delegate.getCompletions(element, annotation, member, userText);
+    }
+
+    private final class RecordingProcessingEnvironment implements ProcessingEnvironment {
+      private final ProcessingEnvironment delegate;
+      private final Filer filer;
+
+      RecordingProcessingEnvironment(ProcessingEnvironment delegate) {
+        this.delegate = delegate;
+        this.filer = new RecordingFiler(delegate.getFiler());
+      }
+
+      @Override
+      public Map<String, String> getOptions() {
+        return delegate.getOptions();
+      }
+
+      @Override
+      public Messager getMessager() {
+        return delegate.getMessager();
+      }
+
+      @Override
+      public Filer getFiler() {
+        return filer;
+      }
+
+      @Override
+      public Elements getElementUtils() {
+        return delegate.getElementUtils();
+      }
+
+      @Override
+      public Types getTypeUtils() {
+        return delegate.getTypeUtils();
+      }
+
+      @Override
+      public SourceVersion getSourceVersion() {
+        return delegate.getSourceVersion();
+      }
+
+      @Override
+      public Locale getLocale() {
+        return delegate.getLocale();
+      }
+    }
+
+    private final class RecordingFiler implements Filer {
+      private final Filer delegate;
+
+      RecordingFiler(Filer delegate) {
+        this.delegate = delegate;
+      }
+
+      @Override
+      public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements)
+          throws IOException {
+        RecordingJavacProcessor.this.originatingElements.put(
+            name.toString(),
+            Arrays.stream(originatingElements).map(Object::toString).collect(toImmutableSet()));
+        return delegate.createSourceFile(name, originatingElements);
+      }
+
+      @Override
+      public JavaFileObject createClassFile(CharSequence name, Element... originatingElements)
+          throws IOException {
+        return delegate.createClassFile(name, originatingElements);
+      }
+
+      @Override
+      public FileObject createResource(
+          Location location,
+          CharSequence moduleAndPkg,
+          CharSequence relativeName,
+          Element... originatingElements)
+          throws IOException {
+        return delegate.createResource(location, moduleAndPkg, relativeName, originatingElements);
+      }
+
+      @Override
+      public FileObject getResource(
+          Location location, CharSequence moduleAndPkg, CharSequence relativeName)
+          throws IOException {
+        return delegate.getResource(location, moduleAndPkg, relativeName);
+      }
+    }
+  }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests {@link ProductionBatcher}. */
+@RunWith(JUnit4.class)
+public class ProductionBatcherTest {
+  private final ManualScheduler scheduler = new ManualScheduler();
+  private final List<ImmutableList<Integer>> batches =
+      Collections.synchronizedList(new ArrayList<ImmutableList<Integer>>());
+  private final List<Thread> loaderThreads =
+      Collections.synchronizedList(new ArrayList<Thread>());
+  private final ProductionBatcher.BatchLoader<Integer, String> loader =
+      new ProductionBatcher.BatchLoader<Integer, String>() {
+        @Override
+        public ListenableFuture<Map<Integer, String>> load(ImmutableList<Integer> keys) {
+          batches.add(keys);
+          loaderThreads.add(Thread.currentThread());
+          ImmutableMap.Builder<Integer, String> values = ImmutableMap.builder();
+          for (Integer key : keys) {
+            if (key >= 0) {
+              values.put(key, "v" + key);
+            }
+          }
+          return Futures.<Map<Integer, String>>immediateFuture(values.build());
+        }
+      };
+  private final ProductionBatcher<Integer, String> batcher =
+      ProductionBatcher.create(scheduler, 1, HOURS, loader);
+
+  @After
+  public void shutDownScheduler() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void loadsInOneBatch() throws Exception {
+    ListenableFuture<String> one = batcher.load(1);
+    ListenableFuture<String> two = batcher.load(2);
+    ListenableFuture<String> oneAgain = batcher.load(1);
+    assertThat(one.isDone()).isFalse();
+
+    scheduler.runAll();
+
+    assertThat(batches).containsExactly(ImmutableList.of(1, 2));
+    assertThat(one.get()).isEqualTo("v1");
+    assertThat(two.get()).isEqualTo("v2");
+    assertThat(oneAgain.get()).isEqualTo("v1");
+  }
+
+  @Test
+  public void startsNewBatchAfterDispatch() throws Exception {
+    ListenableFuture<String> one = batcher.load(1);
+    scheduler.runAll();
+    ListenableFuture<String> two = batcher.load(2);
+    scheduler.runAll();
+
+    assertThat(batches).containsExactly(ImmutableList.of(1), ImmutableList.of(2)).inOrder();
+    assertThat(one.get()).isEqualTo("v1");
+    assertThat(two.get()).isEqualTo("v2");
+  }
+
+  @Test
+  public void schedulesDispatchWithDelay() {
+    batcher.load(1);
+    batcher.load(2);
+
+    assertThat(scheduler.delays).containsExactly(HOURS.toNanos(1));
+  }
+
+  @Test
+  public void flush_dispatchesOnCallingThread() throws Exception {
+    ListenableFuture<String> one = batcher.load(1);
+    ListenableFuture<String> two = batcher.load(2);
+
+    batcher.flush();
+
+    assertThat(batches).containsExactly(ImmutableList.of(1, 2));
+    assertThat(loaderThreads).containsExactly(Thread.currentThread());
+    assertThat(one.get()).isEqualTo("v1");
+    assertThat(two.get()).isEqualTo("v2");
+  }
+
+  @Test
+  public void flush_withoutPendingKeys_doesNotDispatch() {
+    batcher.flush();
+
+    assertThat(batches).isEmpty();
+  }
+
+  @Test
+  public void scheduledDispatchAfterFlush_doesNotDispatchNextBatch() throws Exception {
+    batcher.load(1);
+    batcher.flush();
+    ListenableFuture<String> two = batcher.load(2);
+
+    // Runs the dispatch that was scheduled for the flushed batch first.
+    scheduler.runNext();
+    assertThat(batches).containsExactly(ImmutableList.of(1));
+    assertThat(two.isDone()).isFalse();
+
+    scheduler.runNext();
+    assertThat(batches).containsExactly(ImmutableList.of(1), ImmutableList.of(2)).inOrder();
+    assertThat(two.get()).isEqualTo("v2");
+  }
+
+  @Test
+  public void loadsFromPooledThreads_joinOneBatchUntilFlushed() throws Exception {
+    int keys = 16;
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      final CountDownLatch loaded = new CountDownLatch(keys);
+      final List<ListenableFuture<String>> futures =
+          Collections.synchronizedList(new ArrayList<ListenableFuture<String>>());
+      for (int i = 0; i < keys; i++) {
+        final int key = i;
+        pool.execute(
+            new Runnable() {
+              @Override
+              public void run() {
+                futures.add(batcher.load(key));
+                loaded.countDown();
+              }
+            });
+      }
+      assertThat(loaded.await(10, SECONDS)).isTrue();
+
+      batcher.flush();
+
+      assertThat(batches).hasSize(1);
+      assertThat(batches.get(0)).containsExactlyElementsIn(keysUpTo(keys));
+      assertThat(Futures.allAsList(futures).get()).hasSize(keys);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void dispatchDelay_dispatchesFromScheduler() throws Exception {
+    ScheduledExecutorService realScheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      ProductionBatcher<Integer, String> batcher =
+          ProductionBatcher.create(realScheduler, 10, MILLISECONDS, loader);
+      ListenableFuture<String> one = batcher.load(1);
+
+      assertThat(one.get(10, SECONDS)).isEqualTo("v1");
+      assertThat(batches).containsExactly(ImmutableList.of(1));
+      assertThat(loaderThreads).doesNotContain(Thread.currentThread());
+    } finally {
+      realScheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void missingKey_failsOnlyThatKey() throws Exception {
+    ListenableFuture<String> present = batcher.load(1);
+    ListenableFuture<String> missing = batcher.load(-1);
+    scheduler.runAll();
+
+    assertThat(present.get()).isEqualTo("v1");
+    try {
+      missing.get();
+      fail();
+    } catch (ExecutionException expected) {
+      assertThat(expected).hasCauseThat().isInstanceOf(IllegalStateException.class);
+    }
+  }
+
+  @Test
+  public void cancellingOneCaller_doesNotCancelSharedKey() throws Exception {
+    ListenableFuture<String> first = batcher.load(1);
+    ListenableFuture<String> second = batcher.load(1);
+    first.cancel(true);
+    scheduler.runAll();
+
+    assertThat(second.get()).isEqualTo("v1");
+  }
+
+  @Test
+  public void negativeDispatchDelay() {
+    try {
+      ProductionBatcher.create(scheduler, -1, MILLISECONDS, loader);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  private static List<Integer> keysUpTo(int n) {
+    List<Integer> keys = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      keys.add(i);
+    }
+    return keys;
+  }
+
+  /**
+   * A scheduler whose delayed tasks only run when the test calls {@link #runNext()} or {@link
+   * #runAll()}, as if their delay had elapsed.
+   */
+  private static final class ManualScheduler extends ScheduledThreadPoolExecutor {
+    private final List<Runnable> tasks = Collections.synchronizedList(new ArrayList<Runnable>());
+    final List<Long> delays = Collections.synchronizedList(new ArrayList<Long>());
+
+    ManualScheduler() {
+      super(1);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+      tasks.add(task);
+      delays.add(unit.toNanos(delay));
+      return null;
+    }
+
+    void runNext() {
+      tasks.remove(0).run();
+    }
+
+    void runAll() {
+      while (!tasks.isEmpty()) {
+        runNext();
+      }
+    }
+  }
+}
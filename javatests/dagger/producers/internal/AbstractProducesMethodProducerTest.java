@@ -20,6 +20,8 @@ import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -29,6 +31,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 import dagger.producers.Producer;
+import dagger.producers.ProducerResultCache;
 import dagger.producers.monitoring.ProducerMonitor;
 import dagger.producers.monitoring.ProducerToken;
 import dagger.producers.monitoring.ProductionComponentMonitor;
@@ -39,6 +42,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -74,10 +78,12 @@ public class AbstractProducesMethodProducerTest {
     ListenableFuture<Integer> future = producer.get();
     assertThat(future.isDone()).isFalse();
     verify(monitor).ready();
-    verify(monitor).requested();
+    InOrder order = inOrder(monitor);
+    order.verify(monitor).requested();
+    order.verify(monitor).dependenciesRequested();
+    order.verify(monitor).methodStarting();
+    order.verify(monitor).methodFinished();
     verify(monitor).addCallbackTo(anyListenableFuture());
-    verify(monitor).methodStarting();
-    verify(monitor).methodFinished();
     delegateFuture.set(-42);
     assertThat(future.get()).isEqualTo(-42);
     verify(monitor).succeeded(-42);
@@ -92,10 +98,12 @@ public class AbstractProducesMethodProducerTest {
     ListenableFuture<Integer> future = producer.get();
     assertThat(future.isDone()).isFalse();
     verify(monitor).ready();
-    verify(monitor).requested();
+    InOrder order = inOrder(monitor);
+    order.verify(monitor).requested();
+    order.verify(monitor).dependenciesRequested();
+    order.verify(monitor).methodStarting();
+    order.verify(monitor).methodFinished();
     verify(monitor).addCallbackTo(anyListenableFuture());
-    verify(monitor).methodStarting();
-    verify(monitor).methodFinished();
     Throwable t = new RuntimeException("monkey");
     delegateFuture.setException(t);
     try {
@@ -108,6 +116,146 @@ public class AbstractProducesMethodProducerTest {
     verifyNoMoreInteractions(monitor);
   }
 
+  @Test
+  public void monitor_collectDependenciesThrows() throws Exception {
+    RuntimeException t = new RuntimeException("monkey");
+    Producer<Integer> producer = new ThrowingDependenciesProducer(componentMonitorProvider, t);
+
+    try {
+      producer.get();
+      fail();
+    } catch (RuntimeException e) {
+      assertThat(e).isSameInstanceAs(t);
+    }
+    InOrder order = inOrder(monitor);
+    order.verify(monitor).requested();
+    order.verify(monitor).dependenciesRequested();
+    verify(monitor, never()).methodStarting();
+  }
+
+  @Test
+  public void resultCache_sharesResultsAcrossComponents() throws Exception {
+    ProducerResultCache resultCache = ProducerResultCache.create(10);
+    ProducerToken token = ProducerToken.create("Module#produceValue");
+    SettableFuture<Integer> delegateFuture = SettableFuture.create();
+
+    ListenableFuture<Integer> first =
+        new CachedProducer<>(resultCache, token, delegateFuture).get();
+    ProducerMonitor secondMonitor = Mockito.mock(ProducerMonitor.class, Mockito.CALLS_REAL_METHODS);
+    when(componentMonitor.producerMonitorFor(nullable(ProducerToken.class)))
+        .thenReturn(secondMonitor);
+    ListenableFuture<Integer> second =
+        new CachedProducer<>(
+                resultCache,
+                token,
+                Futures.<Integer>immediateFailedFuture(new AssertionError("not cached")))
+            .get();
+
+    verify(monitor).methodStarting();
+    verify(secondMonitor).cacheHit();
+    verify(secondMonitor, never()).methodStarting();
+    delegateFuture.set(42);
+    assertThat(first.get()).isEqualTo(42);
+    assertThat(second.get()).isEqualTo(42);
+  }
+
+  @Test
+  public void resultCache_doesNotCacheFailures() throws Exception {
+    ProducerResultCache resultCache = ProducerResultCache.create(10);
+    ProducerToken token = ProducerToken.create("Module#produceValue");
+
+    ListenableFuture<Integer> first =
+        new CachedProducer<>(
+                resultCache,
+                token,
+                Futures.<Integer>immediateFailedFuture(new RuntimeException("monkey")))
+            .get();
+    ListenableFuture<Integer> second =
+        new CachedProducer<>(resultCache, token, Futures.immediateFuture(42)).get();
+
+    assertThat(first.isDone()).isTrue();
+    assertThat(second.get()).isEqualTo(42);
+    verify(monitor, never()).cacheHit();
+  }
+
+  @Test
+  public void resultCache_doesNotCacheErrors() throws Exception {
+    ProducerResultCache resultCache = ProducerResultCache.create(10);
+    ProducerToken token = ProducerToken.create("Module#produceValue");
+    Error error = new AssertionError("monkey");
+
+    ListenableFuture<Integer> first = new ThrowingCachedProducer(resultCache, token, error).get();
+    ListenableFuture<Integer> second =
+        new CachedProducer<>(resultCache, token, Futures.immediateFuture(42)).get();
+
+    try {
+      first.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e).hasCauseThat().isSameInstanceAs(error);
+    }
+    assertThat(second.get()).isEqualTo(42);
+    verify(monitor, never()).cacheHit();
+  }
+
+  @Test
+  public void resultCache_cancellingOwnerDoesNotCancelSharedResult() throws Exception {
+    ProducerResultCache resultCache = ProducerResultCache.create(10);
+    ProducerToken token = ProducerToken.create("Module#produceValue");
+    SettableFuture<Integer> delegateFuture = SettableFuture.create();
+
+    CachedProducer<Integer> owner = new CachedProducer<>(resultCache, token, delegateFuture);
+    ListenableFuture<Integer> first = owner.get();
+    ListenableFuture<Integer> second =
+        new CachedProducer<>(
+                resultCache,
+                token,
+                Futures.<Integer>immediateFailedFuture(new AssertionError("not cached")))
+            .get();
+    owner.cancel(true);
+
+    assertThat(first.isCancelled()).isTrue();
+    assertThat(second.isDone()).isFalse();
+    assertThat(delegateFuture.isCancelled()).isFalse();
+    delegateFuture.set(42);
+    assertThat(second.get()).isEqualTo(42);
+  }
+
+  @Test
+  public void resultCache_cancellingRunningOwnerDoesNotInterruptSharedResult() throws Exception {
+    ProducerResultCache resultCache = ProducerResultCache.create(10);
+    ProducerToken token = ProducerToken.create("Module#produceValue");
+    SharingCachedProducer owner = new SharingCachedProducer(resultCache, token);
+
+    ListenableFuture<Boolean> first = owner.get();
+
+    assertThat(first.isCancelled()).isTrue();
+    assertThat(owner.interruptedWhileRunning).isFalse();
+    assertThat(owner.sibling.get()).isFalse();
+    assertThat(Thread.currentThread().isInterrupted()).isFalse();
+  }
+
+  @Test
+  public void cancel_mayInterruptIfRunning_interruptsRunningMethod() throws Exception {
+    SelfCancellingProducer producer = new SelfCancellingProducer(componentMonitorProvider, true);
+
+    ListenableFuture<Boolean> future = producer.get();
+
+    assertThat(future.isCancelled()).isTrue();
+    assertThat(producer.interruptedWhileRunning).isTrue();
+    assertThat(Thread.currentThread().isInterrupted()).isFalse();
+  }
+
+  @Test
+  public void cancel_withoutMayInterruptIfRunning_doesNotInterrupt() throws Exception {
+    SelfCancellingProducer producer = new SelfCancellingProducer(componentMonitorProvider, false);
+
+    ListenableFuture<Boolean> future = producer.get();
+
+    assertThat(future.isCancelled()).isTrue();
+    assertThat(producer.interruptedWhileRunning).isFalse();
+  }
+
   private ListenableFuture<?> anyListenableFuture() {
     return any(ListenableFuture.class);
   }
@@ -117,6 +265,189 @@ public class AbstractProducesMethodProducerTest {
     new DelegateProducer<>(null, Futures.immediateFuture(42));
   }
 
+  /** A producer that cancels itself from its {@code @Produces} method. */
+  static final class SelfCancellingProducer
+      extends AbstractProducesMethodProducer<Void, Boolean> {
+    private final boolean mayInterruptIfRunning;
+    boolean interruptedWhileRunning;
+
+    SelfCancellingProducer(
+        Provider<ProductionComponentMonitor> componentMonitorProvider,
+        boolean mayInterruptIfRunning) {
+      super(
+          componentMonitorProvider,
+          null, // token
+          new Provider<Executor>() {
+            @Override
+            public Executor get() {
+              return MoreExecutors.directExecutor();
+            }
+          });
+      this.mayInterruptIfRunning = mayInterruptIfRunning;
+    }
+
+    @Override
+    protected ListenableFuture<Void> collectDependencies() {
+      return Futures.immediateFuture(null);
+    }
+
+    @Override
+    protected ListenableFuture<Boolean> callProducesMethod(Void asyncDependencies) {
+      cancel(mayInterruptIfRunning);
+      interruptedWhileRunning = Thread.currentThread().isInterrupted();
+      return Futures.immediateFuture(interruptedWhileRunning);
+    }
+  }
+
+  final class CachedProducer<T> extends AbstractProducesMethodProducer<Integer, T> {
+    private final ListenableFuture<T> delegate;
+
+    CachedProducer(
+        final ProducerResultCache resultCache, ProducerToken token, ListenableFuture<T> delegate) {
+      super(
+          componentMonitorProvider,
+          token,
+          new Provider<Executor>() {
+            @Override
+            public Executor get() {
+              return MoreExecutors.directExecutor();
+            }
+          },
+          new Provider<ProducerResultCache>() {
+            @Override
+            public ProducerResultCache get() {
+              return resultCache;
+            }
+          });
+      this.delegate = delegate;
+    }
+
+    @Override
+    protected ListenableFuture<Integer> collectDependencies() {
+      return Futures.immediateFuture(1);
+    }
+
+    @Override
+    protected ListenableFuture<T> callProducesMethod(Integer asyncDependencies) {
+      return delegate;
+    }
+  }
+
+  /**
+   * A cached producer whose {@code @Produces} method shares its pending result with a sibling
+   * producer, and then cancels itself with {@code mayInterruptIfRunning} set.
+   */
+  final class SharingCachedProducer extends AbstractProducesMethodProducer<Integer, Boolean> {
+    private final ProducerResultCache resultCache;
+    private final ProducerToken token;
+    ListenableFuture<Boolean> sibling;
+    boolean interruptedWhileRunning;
+
+    SharingCachedProducer(final ProducerResultCache resultCache, ProducerToken token) {
+      super(
+          componentMonitorProvider,
+          token,
+          new Provider<Executor>() {
+            @Override
+            public Executor get() {
+              return MoreExecutors.directExecutor();
+            }
+          },
+          new Provider<ProducerResultCache>() {
+            @Override
+            public ProducerResultCache get() {
+              return resultCache;
+            }
+          });
+      this.resultCache = resultCache;
+      this.token = token;
+    }
+
+    @Override
+    protected ListenableFuture<Integer> collectDependencies() {
+      return Futures.immediateFuture(1);
+    }
+
+    @Override
+    protected ListenableFuture<Boolean> callProducesMethod(Integer asyncDependencies) {
+      sibling =
+          new CachedProducer<>(
+                  resultCache,
+                  token,
+                  Futures.<Boolean>immediateFailedFuture(new AssertionError("not cached")))
+              .get();
+      cancel(true);
+      interruptedWhileRunning = Thread.currentThread().isInterrupted();
+      return Futures.immediateFuture(interruptedWhileRunning);
+    }
+  }
+
+  /** A cached producer whose {@code @Produces} method throws an {@link Error}. */
+  final class ThrowingCachedProducer extends AbstractProducesMethodProducer<Integer, Integer> {
+    private final Error error;
+
+    ThrowingCachedProducer(
+        final ProducerResultCache resultCache, ProducerToken token, Error error) {
+      super(
+          componentMonitorProvider,
+          token,
+          new Provider<Executor>() {
+            @Override
+            public Executor get() {
+              return MoreExecutors.directExecutor();
+            }
+          },
+          new Provider<ProducerResultCache>() {
+            @Override
+            public ProducerResultCache get() {
+              return resultCache;
+            }
+          });
+      this.error = error;
+    }
+
+    @Override
+    protected ListenableFuture<Integer> collectDependencies() {
+      return Futures.immediateFuture(1);
+    }
+
+    @Override
+    protected ListenableFuture<Integer> callProducesMethod(Integer asyncDependencies) {
+      throw error;
+    }
+  }
+
+  /** A producer whose dependencies can't be requested. */
+  static final class ThrowingDependenciesProducer
+      extends AbstractProducesMethodProducer<Void, Integer> {
+    private final RuntimeException exception;
+
+    ThrowingDependenciesProducer(
+        Provider<ProductionComponentMonitor> componentMonitorProvider,
+        RuntimeException exception) {
+      super(
+          componentMonitorProvider,
+          null, // token
+          new Provider<Executor>() {
+            @Override
+            public Executor get() {
+              return MoreExecutors.directExecutor();
+            }
+          });
+      this.exception = exception;
+    }
+
+    @Override
+    protected ListenableFuture<Void> collectDependencies() {
+      throw exception;
+    }
+
+    @Override
+    protected ListenableFuture<Integer> callProducesMethod(Void asyncDependencies) {
+      throw new AssertionError();
+    }
+  }
+
   static final class DelegateProducer<T> extends AbstractProducesMethodProducer<Void, T> {
     private final ListenableFuture<T> delegate;
 
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.Futures.getDone;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests {@link FanInFuture}.
+ */
+@RunWith(JUnit4.class)
+public class FanInFutureTest {
+  @Test
+  public void emptyInputs_completesImmediately() throws Exception {
+    ListToStringsFuture future =
+        new ListToStringsFuture(ImmutableList.<ListenableFuture<String>>of(), true);
+
+    assertThat(future.start().get()).isEmpty();
+    assertThat(future.combineCalls).isEqualTo(1);
+  }
+
+  @Test
+  public void combinesOnceAfterEveryInputIsDone() throws Exception {
+    SettableFuture<String> first = SettableFuture.create();
+    SettableFuture<String> second = SettableFuture.create();
+    ListToStringsFuture future = new ListToStringsFuture(ImmutableList.of(first, second), true);
+    future.start();
+
+    second.set("b");
+    assertThat(future.isDone()).isFalse();
+    first.set("a");
+    assertThat(future.get()).containsExactly("a", "b").inOrder();
+    assertThat(future.combineCalls).isEqualTo(1);
+  }
+
+  @Test
+  public void failFast_failsOnFirstFailure() throws Exception {
+    SettableFuture<String> first = SettableFuture.create();
+    SettableFuture<String> second = SettableFuture.create();
+    ListToStringsFuture future = new ListToStringsFuture(ImmutableList.of(first, second), true);
+    future.start();
+    RuntimeException t = new RuntimeException("monkey");
+
+    first.setException(t);
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e).hasCauseThat().isSameInstanceAs(t);
+    }
+    assertThat(second.isCancelled()).isFalse();
+    second.set("b");
+    assertThat(future.combineCalls).isEqualTo(0);
+  }
+
+  @Test
+  public void failFast_cancelledOnFirstCancellation() throws Exception {
+    SettableFuture<String> first = SettableFuture.create();
+    SettableFuture<String> second = SettableFuture.create();
+    ListToStringsFuture future = new ListToStringsFuture(ImmutableList.of(first, second), true);
+    future.start();
+
+    first.cancel(false);
+    assertThat(future.isCancelled()).isTrue();
+    assertThat(second.isCancelled()).isTrue();
+    assertThat(future.combineCalls).isEqualTo(0);
+  }
+
+  @Test
+  public void notFailFast_combinesFailuresAndCancellations() throws Exception {
+    SettableFuture<String> failed = SettableFuture.create();
+    SettableFuture<String> cancelled = SettableFuture.create();
+    SettableFuture<String> succeeded = SettableFuture.create();
+    ListToStringsFuture future =
+        new ListToStringsFuture(ImmutableList.of(failed, cancelled, succeeded), false);
+    future.start();
+
+    failed.setException(new RuntimeException("monkey"));
+    cancelled.cancel(false);
+    assertThat(future.isDone()).isFalse();
+    succeeded.set("c");
+    assertThat(future.get())
+        .containsExactly("failed: monkey", "cancelled", "c")
+        .inOrder();
+    assertThat(future.combineCalls).isEqualTo(1);
+  }
+
+  @Test
+  public void cancel_cancelsEveryInput() throws Exception {
+    SettableFuture<String> first = SettableFuture.create();
+    SettableFuture<String> second = SettableFuture.create();
+    ListToStringsFuture future = new ListToStringsFuture(ImmutableList.of(first, second), false);
+    future.start();
+
+    first.set("a");
+    future.cancel(true);
+    assertThat(second.isCancelled()).isTrue();
+    assertThat(future.combineCalls).isEqualTo(0);
+  }
+
+  @Test
+  public void combineThrows_failsFuture() throws Exception {
+    SettableFuture<String> input = SettableFuture.create();
+    final RuntimeException t = new RuntimeException("monkey");
+    ListenableFuture<String> future =
+        new FanInFuture<String>(ImmutableList.of(input), true) {
+          @Override
+          String combine(List<? extends ListenableFuture<?>> inputs) {
+            throw t;
+          }
+        }.start();
+
+    input.set("a");
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e).hasCauseThat().isSameInstanceAs(t);
+    }
+  }
+
+  /**
+   * Combines string inputs into a list, with failed inputs as {@code "failed: <message>"} and
+   * cancelled inputs as {@code "cancelled"}.
+   */
+  private static final class ListToStringsFuture extends FanInFuture<List<String>> {
+    int combineCalls;
+
+    ListToStringsFuture(List<? extends ListenableFuture<String>> inputs, boolean failFast) {
+      super(inputs, failFast);
+    }
+
+    @Override
+    List<String> combine(List<? extends ListenableFuture<?>> inputs) {
+      combineCalls++;
+      List<String> results = new ArrayList<>();
+      for (ListenableFuture<?> input : inputs) {
+        try {
+          results.add((String) getDone(input));
+        } catch (ExecutionException e) {
+          results.add("failed: " + e.getCause().getMessage());
+        } catch (CancellationException e) {
+          results.add("cancelled");
+        }
+      }
+      return results;
+    }
+  }
+}
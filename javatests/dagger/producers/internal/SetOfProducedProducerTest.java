@@ -21,12 +21,15 @@ import static com.google.common.truth.Truth.assertThat;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import dagger.producers.Produced;
 import dagger.producers.Producer;
 import dagger.producers.Producers;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -64,6 +67,43 @@ public class SetOfProducedProducerTest {
             Produced.successful(1), Produced.successful(2), Produced.<Integer>failed(e));
   }
 
+  @Test
+  public void cancelledDelegate() throws Exception {
+    SettableFuture<Integer> cancelled = SettableFuture.create();
+    Producer<Set<Produced<Integer>>> producer =
+        SetOfProducedProducer.<Integer>builder(2, 0)
+            .addProducer(Producers.immediateProducer(1))
+            .addProducer(new FutureProducer<Integer>(cancelled))
+            .build();
+    ListenableFuture<Set<Produced<Integer>>> future = producer.get();
+    assertThat(future.isDone()).isFalse();
+
+    cancelled.cancel(false);
+    Results<Integer> results = Results.create(future.get());
+    assertThat(results.successes).containsExactly(1);
+    assertThat(results.failures).hasSize(1);
+    assertThat(Iterables.getOnlyElement(results.failures))
+        .hasCauseThat()
+        .isInstanceOf(CancellationException.class);
+  }
+
+  @Test
+  public void cancel_cancelsDelegates() throws Exception {
+    SettableFuture<Integer> first = SettableFuture.create();
+    SettableFuture<Integer> second = SettableFuture.create();
+    SetOfProducedProducer<Integer> producer =
+        SetOfProducedProducer.<Integer>builder(2, 0)
+            .addProducer(new FutureProducer<Integer>(first))
+            .addProducer(new FutureProducer<Integer>(second))
+            .build();
+
+    ListenableFuture<Set<Produced<Integer>>> future = producer.get();
+    producer.cancel(true);
+    assertThat(future.isCancelled()).isTrue();
+    assertThat(first.isCancelled()).isTrue();
+    assertThat(second.isCancelled()).isTrue();
+  }
+
   @Test
   public void delegateNpe() throws Exception {
     Producer<Set<Produced<Integer>>> producer =
@@ -123,6 +163,20 @@ public class SetOfProducedProducerTest {
         .isInstanceOf(NullPointerException.class);
   }
 
+  /** A producer that returns the given future. */
+  static final class FutureProducer<T> implements Producer<T> {
+    private final ListenableFuture<T> future;
+
+    FutureProducer(ListenableFuture<T> future) {
+      this.future = future;
+    }
+
+    @Override
+    public ListenableFuture<T> get() {
+      return future;
+    }
+  }
+
   static final class Results<T> {
     final ImmutableSet<T> successes;
     final ImmutableSet<ExecutionException> failures;
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2022 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.monitoring;
+
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.testing.FakeTicker;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import dagger.producers.Producer;
+import dagger.producers.internal.AbstractProducesMethodProducer;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.Executor;
+import javax.inject.Provider;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class TracingProductionComponentMonitorTest {
+  private static final class ProducerClassA {}
+
+  private static final class ProducerClassB {}
+
+  private static final ProducerToken TOKEN_A = ProducerToken.create(ProducerClassA.class);
+  private static final ProducerToken TOKEN_B = ProducerToken.create(ProducerClassB.class);
+
+  private FakeTicker ticker;
+  private TraceSink.InMemory sink;
+  private ProductionComponentMonitor.Factory monitorFactory;
+
+  @Before
+  public void setUp() {
+    ticker = new FakeTicker();
+    sink = TraceSink.inMemory();
+    monitorFactory = new TracingProductionComponentMonitor.Factory(sink, 1.0, ticker);
+  }
+
+  @Test
+  public void dependencyIsChildOfRequestingProducer() {
+    ProductionComponentMonitor monitor = monitorFactory.create(new Object());
+    ProducerMonitor producerMonitorA = monitor.producerMonitorFor(TOKEN_A);
+    ProducerMonitor producerMonitorB = monitor.producerMonitorFor(TOKEN_B);
+    producerMonitorA.requested();
+    ticker.advance(10);
+    producerMonitorB.requested();
+    producerMonitorB.dependenciesRequested();
+    producerMonitorA.dependenciesRequested();
+    ticker.advance(20);
+    producerMonitorB.methodStarting();
+    ticker.advance(30);
+    producerMonitorB.methodFinished();
+    producerMonitorB.succeeded(new Object());
+    producerMonitorA.methodStarting();
+    ticker.advance(40);
+    producerMonitorA.methodFinished();
+    producerMonitorA.failed(new RuntimeException("monkey"));
+
+    List<ProducerSpan> spans = sink.spans();
+    assertThat(spans).hasSize(2);
+    ProducerSpan spanB = spans.get(0);
+    ProducerSpan spanA = spans.get(1);
+    assertThat(spanA.token()).isEqualTo(TOKEN_A);
+    assertThat(spanA.parentSpanId()).isEqualTo(0);
+    assertThat(spanA.requestedNanos()).isEqualTo(0);
+    assertThat(spanA.methodStartNanos()).isEqualTo(60);
+    assertThat(spanA.methodFinishNanos()).isEqualTo(100);
+    assertThat(spanA.failure()).hasMessageThat().isEqualTo("monkey");
+    assertThat(spanB.token()).isEqualTo(TOKEN_B);
+    assertThat(spanB.parentSpanId()).isEqualTo(spanA.spanId());
+    assertThat(spanB.traceId()).isEqualTo(spanA.traceId());
+    assertThat(spanB.requestedNanos()).isEqualTo(10);
+    assertThat(spanB.methodStartNanos()).isEqualTo(30);
+    assertThat(spanB.completedNanos()).isEqualTo(60);
+    assertThat(spanB.failure()).isNull();
+  }
+
+  @Test
+  public void componentRequestedFromProducerMethod_joinsTrace() {
+    ProductionComponentMonitor outer = monitorFactory.create(new Object());
+    ProductionComponentMonitor inner = monitorFactory.create(new Object());
+    ProducerMonitor producerMonitorA = outer.producerMonitorFor(TOKEN_A);
+    ProducerMonitor producerMonitorB = inner.producerMonitorFor(TOKEN_B);
+    producerMonitorA.requested();
+    producerMonitorA.dependenciesRequested();
+    producerMonitorA.methodStarting();
+    producerMonitorB.requested();
+    producerMonitorB.dependenciesRequested();
+    producerMonitorA.methodFinished();
+    producerMonitorB.succeeded(new Object());
+    producerMonitorA.succeeded(new Object());
+
+    ProducerSpan spanB = sink.spans().get(0);
+    ProducerSpan spanA = sink.spans().get(1);
+    assertThat(spanB.parentSpanId()).isEqualTo(spanA.spanId());
+    assertThat(spanB.traceId()).isEqualTo(spanA.traceId());
+  }
+
+  @Test
+  public void collectDependenciesThrows_endsRequestingSpan() {
+    final ProductionComponentMonitor monitor = monitorFactory.create(new Object());
+    Producer<Object> producer =
+        new AbstractProducesMethodProducer<Void, Object>(
+            new Provider<ProductionComponentMonitor>() {
+              @Override
+              public ProductionComponentMonitor get() {
+                return monitor;
+              }
+            },
+            TOKEN_A,
+            new Provider<Executor>() {
+              @Override
+              public Executor get() {
+                return MoreExecutors.directExecutor();
+              }
+            }) {
+          @Override
+          protected ListenableFuture<Void> collectDependencies() {
+            throw new IllegalStateException("monkey");
+          }
+
+          @Override
+          protected ListenableFuture<Object> callProducesMethod(Void asyncDependencies) {
+            throw new AssertionError();
+          }
+        };
+    try {
+      producer.get();
+      fail();
+    } catch (IllegalStateException expected) {}
+
+    ProducerMonitor producerMonitorB = monitor.producerMonitorFor(TOKEN_B);
+    producerMonitorB.requested();
+    producerMonitorB.dependenciesRequested();
+    producerMonitorB.succeeded(new Object());
+
+    ProducerSpan spanB = getOnlyElement(sink.spans());
+    assertThat(spanB.token()).isEqualTo(TOKEN_B);
+    assertThat(spanB.parentSpanId()).isEqualTo(0);
+  }
+
+  @Test
+  public void unsampledComponent_isNoOp() {
+    monitorFactory = new TracingProductionComponentMonitor.Factory(sink, 0.0, ticker);
+    assertThat(monitorFactory.create(new Object()))
+        .isSameInstanceAs(ProductionComponentMonitor.noOp());
+  }
+
+  @Test
+  public void chromeTrace() {
+    StringWriter writer = new StringWriter();
+    monitorFactory =
+        new TracingProductionComponentMonitor.Factory(TraceSink.chromeTrace(writer), 1.0, ticker);
+    ProducerMonitor producerMonitor =
+        monitorFactory.create(new Object()).producerMonitorFor(ProducerToken.create("a\"b"));
+    producerMonitor.requested();
+    producerMonitor.dependenciesRequested();
+    ticker.advance(1500);
+    producerMonitor.methodStarting();
+    ticker.advance(2000);
+    producerMonitor.methodFinished();
+    producerMonitor.succeeded(new Object());
+
+    String trace = writer.toString();
+    assertThat(trace).startsWith("[\n{\"name\":\"a\\\"b\",\"cat\":\"producer\",\"ph\":\"b\"");
+    assertThat(trace).contains("\"ph\":\"e\"");
+    assertThat(trace).contains("\"ph\":\"X\"");
+    assertThat(trace).contains("\"ts\":1.500,\"dur\":2.000");
+  }
+}